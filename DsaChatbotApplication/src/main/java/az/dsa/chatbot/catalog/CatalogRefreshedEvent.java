@@ -0,0 +1,17 @@
+package az.dsa.chatbot.catalog;
+
+/**
+ * Published after a new catalog snapshot has been swapped in
+ */
+public class CatalogRefreshedEvent {
+
+    private final CatalogSnapshot snapshot;
+
+    public CatalogRefreshedEvent(CatalogSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public CatalogSnapshot getSnapshot() {
+        return snapshot;
+    }
+}
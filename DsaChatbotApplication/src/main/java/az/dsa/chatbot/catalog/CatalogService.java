@@ -0,0 +1,165 @@
+package az.dsa.chatbot.catalog;
+
+import az.dsa.chatbot.entity.BootcampType;
+import az.dsa.chatbot.entity.Training;
+import az.dsa.chatbot.entity.TrainingDetail;
+import az.dsa.chatbot.repository.BootcampRepository;
+import az.dsa.chatbot.repository.BootcampTypeRepository;
+import az.dsa.chatbot.repository.FaqRepository;
+import az.dsa.chatbot.repository.TextRepository;
+import az.dsa.chatbot.repository.TrainingDetailRepository;
+import az.dsa.chatbot.repository.TrainingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Owns the current {@link CatalogSnapshot}.
+ *
+ * The catalog is loaded once the application is ready, then reloaded on a
+ * schedule or on demand (POST /api/catalog/refresh). A reload builds a complete
+ * new snapshot and swaps the reference; readers keep whatever snapshot they
+ * already hold, so they never see a half-loaded catalog. Dependent caches
+ * (search index, typo dictionary) rebuild on {@link CatalogRefreshedEvent}.
+ */
+@Service
+public class CatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogService.class);
+
+    @Autowired
+    private TrainingRepository trainingRepository;
+
+    @Autowired
+    private TextRepository textRepository;
+
+    @Autowired
+    private FaqRepository faqRepository;
+
+    @Autowired
+    private TrainingDetailRepository trainingDetailRepository;
+
+    @Autowired
+    private BootcampRepository bootcampRepository;
+
+    @Autowired
+    private BootcampTypeRepository bootcampTypeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+
+    /**
+     * Current snapshot; loads it on first use if the startup load has not run yet
+     */
+    public CatalogSnapshot current() {
+        CatalogSnapshot current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+
+        current = loadIfAbsent();
+        if (current == null) {
+            throw new IllegalStateException("Catalog is not available");
+        }
+        return current;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${chatbot.catalog.refresh-interval-ms:300000}",
+               initialDelayString = "${chatbot.catalog.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * Load a new snapshot from the database and swap it in.
+     * On failure the previous snapshot stays active and is returned.
+     */
+    public synchronized CatalogSnapshot refresh() {
+        long start = System.currentTimeMillis();
+
+        try {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+
+            CatalogSnapshot loaded = transaction.execute(status -> load(versions.incrementAndGet()));
+            snapshot.set(loaded);
+
+            logger.info("Catalog snapshot v{} loaded in {} ms - Trainings: {} ({} active), Texts: {}, FAQ: {}, " +
+                       "Bootcamps: {}, Bootcamp types: {}",
+                       loaded.getVersion(), System.currentTimeMillis() - start,
+                       loaded.getTrainings().size(), loaded.getActiveTrainings().size(), loaded.getTexts().size(),
+                       loaded.getFaqs().size(), loaded.getBootcamps().size(), loaded.getBootcampTypes().size());
+
+            eventPublisher.publishEvent(new CatalogRefreshedEvent(loaded));
+            return loaded;
+
+        } catch (Exception e) {
+            logger.error("Error refreshing catalog: {}", e.getMessage(), e);
+            return snapshot.get();
+        }
+    }
+
+    private synchronized CatalogSnapshot loadIfAbsent() {
+        CatalogSnapshot current = snapshot.get();
+        return current != null ? current : refresh();
+    }
+
+    /**
+     * Read all catalog tables; runs inside a read-only transaction so lazy
+     * relation ids can be resolved here instead of by callers
+     */
+    private CatalogSnapshot load(long version) {
+        CatalogSnapshot.Builder builder = CatalogSnapshot.builder(version);
+
+        List<Training> trainings = trainingRepository.findAll();
+        List<BootcampType> bootcampTypes = bootcampTypeRepository.findAll();
+
+        builder.trainings(trainings)
+               .texts(textRepository.findAll())
+               .faqs(faqRepository.findAll())
+               .bootcamps(bootcampRepository.findAll())
+               .bootcampTypes(bootcampTypes);
+
+        for (Training training : trainings) {
+            if (training.getBootcampType() != null) {
+                builder.trainingBootcampType(training.getId(), training.getBootcampType().getId());
+            }
+        }
+
+        for (TrainingDetail detail : trainingDetailRepository.findAll()) {
+            if (detail.getTraining() != null) {
+                builder.trainingDetail(detail.getTraining().getId(), detail);
+            }
+        }
+
+        for (BootcampType type : bootcampTypes) {
+            if (type.getBootcamp() != null) {
+                builder.bootcampTypeBootcamp(type.getId(), type.getBootcamp().getId());
+            }
+        }
+
+        return builder.build();
+    }
+}
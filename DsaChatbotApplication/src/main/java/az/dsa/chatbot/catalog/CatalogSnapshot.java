@@ -0,0 +1,275 @@
+package az.dsa.chatbot.catalog;
+
+import az.dsa.chatbot.entity.Bootcamp;
+import az.dsa.chatbot.entity.BootcampType;
+import az.dsa.chatbot.entity.Faq;
+import az.dsa.chatbot.entity.Text;
+import az.dsa.chatbot.entity.Training;
+import az.dsa.chatbot.entity.TrainingDetail;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, fully loaded view of the training catalog.
+ *
+ * All lookups are by id: the Lombok @Data entities have recursive
+ * equals/hashCode through their relations, so entities are never used as keys.
+ * Relations that are lazy on the entities (training -> bootcamp type,
+ * bootcamp type -> bootcamp) are resolved here through the id maps.
+ */
+public final class CatalogSnapshot {
+
+    private final long version;
+    private final LocalDateTime loadedAt;
+
+    private final List<Training> trainings;
+    private final List<Training> activeTrainings;
+    private final List<Text> texts;
+    private final List<Faq> faqs;
+    private final List<Bootcamp> bootcamps;
+    private final List<BootcampType> bootcampTypes;
+
+    private final Map<Long, Training> trainingsById;
+    private final Map<Long, Text> textsById;
+    private final Map<Long, Text> textsByTrainingId;
+    private final Map<Long, TrainingDetail> detailsByTrainingId;
+    private final Map<Long, Bootcamp> bootcampsById;
+    private final Map<Long, BootcampType> bootcampTypesById;
+    private final Map<Long, Long> bootcampTypeIdByTrainingId;
+    private final Map<Long, Long> bootcampIdByTypeId;
+    private final Map<Long, List<Training>> trainingsByBootcampTypeId;
+
+    private CatalogSnapshot(Builder builder) {
+        this.version = builder.version;
+        this.loadedAt = LocalDateTime.now();
+
+        this.trainings = List.copyOf(builder.trainings);
+        this.texts = List.copyOf(builder.texts);
+        this.faqs = List.copyOf(builder.faqs);
+        this.bootcamps = List.copyOf(builder.bootcamps);
+        this.bootcampTypes = List.copyOf(builder.bootcampTypes);
+
+        // Same order as TrainingRepository.findAllActive
+        List<Training> active = new ArrayList<>();
+        for (Training training : trainings) {
+            if (Boolean.TRUE.equals(training.getIsActive())) {
+                active.add(training);
+            }
+        }
+        active.sort(Comparator.comparing(Training::getOrderIndex, Comparator.nullsLast(Comparator.naturalOrder())));
+        this.activeTrainings = Collections.unmodifiableList(active);
+
+        Map<Long, Training> trainingMap = new HashMap<>();
+        for (Training training : trainings) {
+            trainingMap.put(training.getId(), training);
+        }
+        this.trainingsById = Collections.unmodifiableMap(trainingMap);
+
+        Map<Long, Text> textMap = new HashMap<>();
+        Map<Long, Text> textByTraining = new HashMap<>();
+        for (Text text : texts) {
+            textMap.put(text.getId(), text);
+            if (text.getTrainingsId() != null) {
+                textByTraining.put(text.getTrainingsId().longValue(), text);
+            }
+        }
+        this.textsById = Collections.unmodifiableMap(textMap);
+        this.textsByTrainingId = Collections.unmodifiableMap(textByTraining);
+
+        this.detailsByTrainingId = Collections.unmodifiableMap(new HashMap<>(builder.detailsByTrainingId));
+
+        Map<Long, Bootcamp> bootcampMap = new HashMap<>();
+        for (Bootcamp bootcamp : bootcamps) {
+            bootcampMap.put(bootcamp.getId(), bootcamp);
+        }
+        this.bootcampsById = Collections.unmodifiableMap(bootcampMap);
+
+        Map<Long, BootcampType> typeMap = new HashMap<>();
+        for (BootcampType type : bootcampTypes) {
+            typeMap.put(type.getId(), type);
+        }
+        this.bootcampTypesById = Collections.unmodifiableMap(typeMap);
+
+        this.bootcampTypeIdByTrainingId = Collections.unmodifiableMap(new HashMap<>(builder.bootcampTypeIdByTrainingId));
+        this.bootcampIdByTypeId = Collections.unmodifiableMap(new HashMap<>(builder.bootcampIdByTypeId));
+
+        Map<Long, List<Training>> byType = new LinkedHashMap<>();
+        for (Training training : activeTrainings) {
+            Long typeId = bootcampTypeIdByTrainingId.get(training.getId());
+            if (typeId != null) {
+                byType.computeIfAbsent(typeId, id -> new ArrayList<>()).add(training);
+            }
+        }
+        byType.replaceAll((id, list) -> Collections.unmodifiableList(list));
+        this.trainingsByBootcampTypeId = Collections.unmodifiableMap(byType);
+    }
+
+    public static Builder builder(long version) {
+        return new Builder(version);
+    }
+
+    // ===== TRAININGS =====
+
+    /**
+     * All trainings, active or not
+     */
+    public List<Training> getTrainings() {
+        return trainings;
+    }
+
+    /**
+     * Active trainings ordered by order index
+     */
+    public List<Training> getActiveTrainings() {
+        return activeTrainings;
+    }
+
+    public Training getTraining(Long trainingId) {
+        return trainingId != null ? trainingsById.get(trainingId) : null;
+    }
+
+    public TrainingDetail getTrainingDetail(Long trainingId) {
+        return trainingId != null ? detailsByTrainingId.get(trainingId) : null;
+    }
+
+    // ===== TEXTS =====
+
+    public List<Text> getTexts() {
+        return texts;
+    }
+
+    public Text getText(Long textId) {
+        return textId != null ? textsById.get(textId) : null;
+    }
+
+    /**
+     * Text (price, description, certificates) that belongs to a training
+     */
+    public Text getTextForTraining(Long trainingId) {
+        return trainingId != null ? textsByTrainingId.get(trainingId) : null;
+    }
+
+    /**
+     * Training that a text belongs to
+     */
+    public Training getTrainingForText(Text text) {
+        if (text == null || text.getTrainingsId() == null) return null;
+        return trainingsById.get(text.getTrainingsId().longValue());
+    }
+
+    // ===== FAQ =====
+
+    public List<Faq> getFaqs() {
+        return faqs;
+    }
+
+    // ===== BOOTCAMPS =====
+
+    public List<Bootcamp> getBootcamps() {
+        return bootcamps;
+    }
+
+    public List<BootcampType> getBootcampTypes() {
+        return bootcampTypes;
+    }
+
+    public BootcampType getBootcampTypeForTraining(Long trainingId) {
+        Long typeId = trainingId != null ? bootcampTypeIdByTrainingId.get(trainingId) : null;
+        return typeId != null ? bootcampTypesById.get(typeId) : null;
+    }
+
+    public Bootcamp getBootcampForType(Long bootcampTypeId) {
+        Long bootcampId = bootcampTypeId != null ? bootcampIdByTypeId.get(bootcampTypeId) : null;
+        return bootcampId != null ? bootcampsById.get(bootcampId) : null;
+    }
+
+    /**
+     * Active trainings of a bootcamp type, ordered by order index
+     */
+    public List<Training> getTrainingsForBootcampType(Long bootcampTypeId) {
+        return trainingsByBootcampTypeId.getOrDefault(bootcampTypeId, Collections.emptyList());
+    }
+
+    // ===== METADATA =====
+
+    /**
+     * Increases with every refresh
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * Collects the loaded catalog rows; relations are passed as ids
+     */
+    public static final class Builder {
+        private final long version;
+        private List<Training> trainings = Collections.emptyList();
+        private List<Text> texts = Collections.emptyList();
+        private List<Faq> faqs = Collections.emptyList();
+        private List<Bootcamp> bootcamps = Collections.emptyList();
+        private List<BootcampType> bootcampTypes = Collections.emptyList();
+        private final Map<Long, TrainingDetail> detailsByTrainingId = new HashMap<>();
+        private final Map<Long, Long> bootcampTypeIdByTrainingId = new HashMap<>();
+        private final Map<Long, Long> bootcampIdByTypeId = new HashMap<>();
+
+        private Builder(long version) {
+            this.version = version;
+        }
+
+        public Builder trainings(List<Training> trainings) {
+            this.trainings = trainings;
+            return this;
+        }
+
+        public Builder texts(List<Text> texts) {
+            this.texts = texts;
+            return this;
+        }
+
+        public Builder faqs(List<Faq> faqs) {
+            this.faqs = faqs;
+            return this;
+        }
+
+        public Builder bootcamps(List<Bootcamp> bootcamps) {
+            this.bootcamps = bootcamps;
+            return this;
+        }
+
+        public Builder bootcampTypes(List<BootcampType> bootcampTypes) {
+            this.bootcampTypes = bootcampTypes;
+            return this;
+        }
+
+        public Builder trainingDetail(Long trainingId, TrainingDetail detail) {
+            detailsByTrainingId.put(trainingId, detail);
+            return this;
+        }
+
+        public Builder trainingBootcampType(Long trainingId, Long bootcampTypeId) {
+            bootcampTypeIdByTrainingId.put(trainingId, bootcampTypeId);
+            return this;
+        }
+
+        public Builder bootcampTypeBootcamp(Long bootcampTypeId, Long bootcampId) {
+            bootcampIdByTypeId.put(bootcampTypeId, bootcampId);
+            return this;
+        }
+
+        public CatalogSnapshot build() {
+            return new CatalogSnapshot(this);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package az.dsa.chatbot.config;
+
+import az.dsa.chatbot.dto.ErrorResponse;
+import az.dsa.chatbot.util.SlidingWindowRateLimiter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rate limits chat messages before they reach the controller.
+ *
+ * Attempts are counted per client IP, per API key and per session id, each in its
+ * own {@link SlidingWindowRateLimiter}. The session limit is
+ * {@code chatbot.rate-limit.max-messages}; IP and API key limits are separate
+ * because many sessions can share one address or key. Counters live only in
+ * memory, so checking a request costs no database access.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    // Endpoints that consume chat messages
+    private static final List<String> LIMITED_ENDPOINTS = Arrays.asList(
+        "/api/chat/message",
+        "/api/chat/stream"
+    );
+
+    private static final String LIMIT_MESSAGE =
+        "⚠️ Çox sayda mesaj göndərildi. Zəhmət olmasa bir az gözləyin.\n\n" +
+        "Təcili sual üçün: 051 341 43 40";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chatbot.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chatbot.rate-limit.max-messages:20}")
+    private int maxMessages;
+
+    @Value("${chatbot.rate-limit.ip-max-messages:200}")
+    private int ipMaxMessages;
+
+    @Value("${chatbot.rate-limit.api-key-max-messages:1000}")
+    private int apiKeyMaxMessages;
+
+    @Value("${chatbot.rate-limit.time-window-minutes:60}")
+    private int timeWindowMinutes;
+
+    @Value("${chatbot.rate-limit.block-threshold:50}")
+    private int blockThreshold;
+
+    private SlidingWindowRateLimiter sessionLimiter;
+    private SlidingWindowRateLimiter ipLimiter;
+    private SlidingWindowRateLimiter apiKeyLimiter;
+
+    @PostConstruct
+    public void init() {
+        long windowMillis = timeWindowMinutes * 60_000L;
+        sessionLimiter = new SlidingWindowRateLimiter(maxMessages, windowMillis);
+        ipLimiter = new SlidingWindowRateLimiter(ipMaxMessages, windowMillis);
+        apiKeyLimiter = new SlidingWindowRateLimiter(apiKeyMaxMessages, windowMillis);
+
+        Gauge.builder("chatbot.rate-limit.keys", this,
+                      filter -> filter.sessionLimiter.size() + filter.ipLimiter.size() + filter.apiKeyLimiter.size())
+             .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+            || !"POST".equalsIgnoreCase(request.getMethod())
+            || LIMITED_ENDPOINTS.stream().noneMatch(request.getRequestURI()::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        // Cheapest keys first: a flooding address is rejected before the body is parsed
+        if (!check(ipLimiter, "ip", request.getRemoteAddr(), request, response)) {
+            return;
+        }
+
+        String apiKey = request.getHeader("X-API-Key");
+        if (apiKey != null && !apiKey.isBlank() && !check(apiKeyLimiter, "api-key", apiKey, request, response)) {
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String sessionId = extractSessionId(cachedRequest.body);
+        if (sessionId != null && !check(sessionLimiter, "session", sessionId, request, response)) {
+            return;
+        }
+
+        filterChain.doFilter(cachedRequest, response);
+    }
+
+    /**
+     * Drop counters for keys idle for a whole window
+     */
+    @Scheduled(fixedDelayString = "${chatbot.rate-limit.sweep-interval-ms:300000}")
+    public void evictIdle() {
+        int evicted = sessionLimiter.evictIdle() + ipLimiter.evictIdle() + apiKeyLimiter.evictIdle();
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle rate limit keys", evicted);
+        }
+    }
+
+    private boolean check(SlidingWindowRateLimiter limiter, String scope, String key,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        SlidingWindowRateLimiter.Decision decision = limiter.tryAcquire(key);
+        if (decision.isAllowed()) {
+            return true;
+        }
+
+        meterRegistry.counter("chatbot.rate-limit.rejections", "scope", scope).increment();
+
+        if ("session".equals(scope) && decision.getEstimate() >= blockThreshold) {
+            logger.warn("Session {} kept sending after the limit ({} attempts in window)",
+                       maskKey(key), (int) decision.getEstimate());
+        } else {
+            logger.warn("Rate limit exceeded - {}: {}", scope, maskKey(key));
+        }
+
+        ErrorResponse error = ErrorResponse.builder()
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .error("Rate Limit Exceeded")
+                .message(LIMIT_MESSAGE)
+                .path(request.getRequestURI())
+                .build();
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, decision.getResetMillis() / 1000)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), error);
+        return false;
+    }
+
+    private String extractSessionId(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode sessionId = objectMapper.readTree(body).get("sessionId");
+            return sessionId != null && sessionId.isTextual() ? sessionId.asText() : null;
+        } catch (IOException e) {
+            // Malformed body: let request validation answer it
+            return null;
+        }
+    }
+
+    private String maskKey(String key) {
+        if (key == null || key.length() < 8) return "****";
+        return key.substring(0, 4) + "****" + key.substring(key.length() - 4);
+    }
+
+    /**
+     * Buffers the request body so it can be read here and again by the controller
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // Already buffered, so the whole body is available at once
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
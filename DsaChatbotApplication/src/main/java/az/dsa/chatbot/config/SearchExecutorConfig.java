@@ -0,0 +1,36 @@
+package az.dsa.chatbot.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Bounded pool for the parallel FAQ/Text/Training fan-out in SearchServiceImpl.
+ * When the pool and its queue are full a source is rejected and the search returns
+ * without it, rather than running it on the request thread past the deadline.
+ */
+@Configuration
+public class SearchExecutorConfig {
+
+    @Value("${chatbot.search.parallel.pool-size:8}")
+    private int poolSize;
+
+    @Value("${chatbot.search.parallel.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Bean(name = "searchExecutor")
+    public ThreadPoolTaskExecutor searchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("search-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
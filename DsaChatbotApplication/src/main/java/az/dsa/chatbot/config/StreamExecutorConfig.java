@@ -0,0 +1,37 @@
+package az.dsa.chatbot.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Pool that runs /api/chat/stream requests after the servlet thread has handed
+ * the response to an SseEmitter. Each task holds a thread for the whole OpenAI
+ * stream, so the pool size caps concurrent streams; beyond the queue requests are
+ * rejected (503) rather than streamed on the servlet thread.
+ */
+@Configuration
+public class StreamExecutorConfig {
+
+    @Value("${chatbot.stream.pool-size:16}")
+    private int poolSize;
+
+    @Value("${chatbot.stream.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Bean(name = "streamExecutor")
+    public ThreadPoolTaskExecutor streamExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("stream-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,59 @@
+package az.dsa.chatbot.controller;
+
+import az.dsa.chatbot.catalog.CatalogService;
+import az.dsa.chatbot.catalog.CatalogSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Catalog Controller
+ * Inspect and reload the in-memory catalog snapshot after catalog edits
+ */
+@RestController
+@RequestMapping("/api/catalog")
+@RequiredArgsConstructor
+public class CatalogController {
+
+    private final CatalogService catalogService;
+
+    /**
+     * Current snapshot version and sizes
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> info() {
+        return ResponseEntity.ok(describe(catalogService.current()));
+    }
+
+    /**
+     * Reload the catalog from the database now
+     * (search index and typo dictionary follow)
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, Object>> refresh() {
+        return ResponseEntity.ok(describe(catalogService.refresh()));
+    }
+
+    private Map<String, Object> describe(CatalogSnapshot snapshot) {
+        Map<String, Object> info = new LinkedHashMap<>();
+        if (snapshot == null) {
+            info.put("status", "UNAVAILABLE");
+            return info;
+        }
+        info.put("version", snapshot.getVersion());
+        info.put("loadedAt", snapshot.getLoadedAt());
+        info.put("trainings", snapshot.getTrainings().size());
+        info.put("activeTrainings", snapshot.getActiveTrainings().size());
+        info.put("texts", snapshot.getTexts().size());
+        info.put("faqs", snapshot.getFaqs().size());
+        info.put("bootcamps", snapshot.getBootcamps().size());
+        info.put("bootcampTypes", snapshot.getBootcampTypes().size());
+        return info;
+    }
+}
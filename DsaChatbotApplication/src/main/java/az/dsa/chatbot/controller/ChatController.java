@@ -4,9 +4,11 @@ import az.dsa.chatbot.config.ApiKeyConfig;
 import az.dsa.chatbot.dto.ChatRequest;
 import az.dsa.chatbot.dto.ChatResponse;
 import az.dsa.chatbot.dto.ErrorResponse;
-import az.dsa.chatbot.exception.RateLimitExceededException;
+import az.dsa.chatbot.exception.SessionBusyException;
 import az.dsa.chatbot.service.ChatService;
 import az.dsa.chatbot.service.impl.SessionServiceImpl;
+import az.dsa.chatbot.util.Deadline;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -19,9 +21,22 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @RestController
 @RequestMapping("/api/chat")
@@ -31,6 +46,9 @@ public class ChatController {
     
     private static final Logger logger = LoggerFactory.getLogger(ChatController.class);
     
+    private static final String SESSION_BUSY_MESSAGE =
+        "Əvvəlki mesajınız hələ emal olunur, zəhmət olmasa bir az gözləyin.";
+    
     @Autowired
     private ChatService chatService;
     
@@ -40,6 +58,20 @@ public class ChatController {
     @Autowired
     private ApiKeyConfig apiKeyConfig;
     
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    @Qualifier("streamExecutor")
+    private Executor streamExecutor;
+    
+    @Value("${chatbot.stream.timeout-ms:60000}")
+    private long streamTimeoutMs;
+    
+    // Latency budget of one chat turn; stages skip optional work to stay within it
+    @Value("${chatbot.deadline.turn-ms:8000}")
+    private long turnBudgetMs;
+    
     /**
      * Main chat endpoint
      */
@@ -65,6 +97,11 @@ public class ChatController {
             description = "Unauthorized - Invalid API key",
             content = @Content(schema = @Schema(implementation = ErrorResponse.class))
         ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Previous message of this session is still being processed",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        ),
         @ApiResponse(
             responseCode = "429",
             description = "Too many requests - Rate limit exceeded",
@@ -86,6 +123,8 @@ public class ChatController {
             HttpServletRequest httpRequest) {
         
         String sessionId = request.getSessionId();
+        long start = System.nanoTime();
+        Deadline.after(turnBudgetMs).bind();
         
         try {
             logger.info("Received chat request - SessionId: {}", 
@@ -99,38 +138,158 @@ public class ChatController {
                               "Invalid or missing API key"));
             }
             
-            // Check rate limiting
-            if (sessionService.isRateLimitExceeded(sessionId)) {
-                throw new RateLimitExceededException(
-                    "⚠️ Çox sayda mesaj göndərildi. Zəhmət olmasa bir az gözləyin.\n\n" +
-                    "Təcili sual üçün: 051 341 43 40"
-                );
-            }
+            // Rate limiting is enforced by RateLimitFilter before this point
             
             // Process message
             ChatResponse response = chatService.processMessage(request);
             
+            // The whole reply is the first byte on this endpoint
+            recordTtfb("message", start);
+            
             logger.info("Chat response sent - SessionId: {}", 
                        maskSessionId(sessionId));
             
             return ResponseEntity.ok(response);
             
+        } catch (SessionBusyException e) {
+            logger.warn("Session busy, rejecting message - SessionId: {}", maskSessionId(sessionId));
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(createErrorResponse(sessionId, SESSION_BUSY_MESSAGE));
+            
         } catch (IllegalArgumentException e) {
             logger.warn("Invalid request: {}", e.getMessage());
             return ResponseEntity.badRequest()
                     .body(createErrorResponse(sessionId, 
                           "Zəhmət olmasa məqsədinizi daha aydın yazın"));
                           
-        } catch (RateLimitExceededException e) {
-            logger.warn("Rate limit exceeded: {}", e.getMessage());
-            throw e; // Let GlobalExceptionHandler handle it
-            
         } catch (Exception e) {
             logger.error("Error processing chat: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse(sessionId, 
                           "Üzr istəyirik, texniki problem yarandı. " +
                           "Əlaqə: 051 341 43 40 və ya info@dsa.az"));
+        } finally {
+            Deadline.clear();
+        }
+    }
+    
+    /**
+     * Streaming chat endpoint (Server-Sent Events).
+     * Events: "token" {"text": ...} as the reply is generated, then "done" with the
+     * full ChatResponse once the session is saved, or "error" with an ErrorResponse.
+     */
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Send a message and stream the reply",
+        description = "Same processing as /message, but reply tokens are sent as " +
+                     "Server-Sent Events while the answer is generated."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Event stream"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid request",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "429",
+            description = "Too many requests - Rate limit exceeded",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "All stream workers busy - retry shortly (\"error\" event)"
+        )
+    })
+    public ResponseEntity<SseEmitter> chatStream(
+            @Parameter(description = "Chat request with sessionId and message", required = true)
+            @Valid @RequestBody ChatRequest request) {
+        
+        String sessionId = request.getSessionId();
+        long start = System.nanoTime();
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        // Started on arrival, so time spent queued for a stream worker counts
+        Deadline deadline = Deadline.after(turnBudgetMs);
+        
+        logger.info("Received stream request - SessionId: {}", maskSessionId(sessionId));
+        
+        // API key and rate limits are enforced by the filters before this point
+        try {
+            streamExecutor.execute(() -> streamTurn(request, emitter, deadline, start));
+        } catch (RejectedExecutionException e) {
+            // Pool and queue full: refuse instead of streaming on the servlet thread
+            meterRegistry.counter("chatbot.chat.stream.rejected").increment();
+            logger.warn("Stream workers busy, rejecting request - SessionId: {}", maskSessionId(sessionId));
+            send(emitter, "error", new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                "Hazırda sorğular çoxdur, zəhmət olmasa bir neçə saniyədən sonra yenidən yazın.",
+                "/api/chat/stream"));
+            emitter.complete();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                 .header(HttpHeaders.RETRY_AFTER, "1")
+                                 .body(emitter);
+        }
+        
+        return ResponseEntity.ok(emitter);
+    }
+    
+    /**
+     * One streamed turn, on a stream worker
+     */
+    private void streamTurn(ChatRequest request, SseEmitter emitter, Deadline deadline, long start) {
+        String sessionId = request.getSessionId();
+        AtomicBoolean firstToken = new AtomicBoolean(true);
+        deadline.bind();
+        try {
+            ChatResponse response = chatService.processMessageStreaming(request, token -> {
+                if (firstToken.compareAndSet(true, false)) {
+                    recordTtfb("stream", start);
+                }
+                send(emitter, "token", Map.of("text", token));
+            });
+            
+            send(emitter, "done", response);
+            emitter.complete();
+            
+            meterRegistry.timer("chatbot.chat.stream.duration")
+                         .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.info("Chat stream completed - SessionId: {}", maskSessionId(sessionId));
+            
+        } catch (UncheckedIOException e) {
+            // Client went away; nothing left to send to
+            logger.info("Chat stream closed by client - SessionId: {}", maskSessionId(sessionId));
+            emitter.completeWithError(e.getCause());
+            
+        } catch (SessionBusyException e) {
+            logger.warn("Session busy, rejecting stream - SessionId: {}", maskSessionId(sessionId));
+            try {
+                send(emitter, "error", new ErrorResponse(
+                    HttpStatus.CONFLICT.value(),
+                    "Conflict",
+                    SESSION_BUSY_MESSAGE,
+                    "/api/chat/stream"));
+                emitter.complete();
+            } catch (Exception sendError) {
+                emitter.completeWithError(sendError);
+            }
+            
+        } catch (Exception e) {
+            logger.error("Error streaming chat: {}", e.getMessage(), e);
+            try {
+                send(emitter, "error", new ErrorResponse(
+                    HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    "Internal Server Error",
+                    "Üzr istəyirik, texniki problem yarandı. " +
+                    "Əlaqə: 051 341 43 40 və ya info@dsa.az",
+                    "/api/chat/stream"));
+                emitter.complete();
+            } catch (Exception sendError) {
+                // Emitter already closed (client gone or timed out)
+                emitter.completeWithError(sendError);
+            }
+        } finally {
+            Deadline.clear();
         }
     }
     
@@ -144,6 +303,7 @@ public class ChatController {
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "Session reset successfully"),
+        @ApiResponse(responseCode = "409", description = "A message of this session is still being processed"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     public ResponseEntity<Void> resetSession(
@@ -153,6 +313,9 @@ public class ChatController {
             logger.info("Resetting session: {}", maskSessionId(sessionId));
             chatService.resetSession(sessionId);
             return ResponseEntity.noContent().build();
+        } catch (SessionBusyException e) {
+            logger.warn("Session busy, not resetting - SessionId: {}", maskSessionId(sessionId));
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             logger.error("Error resetting session: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -211,6 +374,19 @@ public class ChatController {
         return false;
     }
     
+    private void send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void recordTtfb(String endpoint, long startNanos) {
+        meterRegistry.timer("chatbot.chat.ttfb", "endpoint", endpoint)
+                     .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+    
     private ChatResponse createErrorResponse(String sessionId, String errorMessage) {
         return ChatResponse.builder()
                 .sessionId(sessionId)
@@ -1,5 +1,6 @@
 package az.dsa.chatbot.controller;
 
+import az.dsa.chatbot.llm.OpenAIClient;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,10 +22,12 @@ import java.util.Map;
 public class HealthController {
 
     private final JdbcTemplate jdbcTemplate;
+    private final OpenAIClient openAIClient;
 
     /**
      * Health check endpoint
-     * Tests database connectivity and returns system status
+     * Tests database connectivity and returns system status,
+     * including the OpenAI circuit breaker state
      * 
      * @return Health status with database and timestamp info
      */
@@ -44,6 +47,9 @@ public class HealthController {
             return ResponseEntity.status(503).body(health);
         }
         
+        // OpenAI being down degrades answers but does not make the service DOWN
+        health.put("openai", openAIClient.health());
+        
         health.put("timestamp", LocalDateTime.now());
         health.put("application", "DSA Chatbot");
         health.put("version", "1.0.0");
@@ -11,6 +11,7 @@ public class ChatResponse {
     private List<String> suggestions;
     private boolean requiresInput;
     private String nextQuestion; // for consult mode
+    private List<String> degradations; // stages skipped to meet the turn deadline, e.g. "format:deadline"
     
     // Constructors
     public ChatResponse() {}
@@ -29,6 +30,7 @@ public class ChatResponse {
         private List<String> suggestions;
         private boolean requiresInput;
         private String nextQuestion;
+        private List<String> degradations;
         
         public Builder sessionId(String sessionId) {
             this.sessionId = sessionId;
@@ -65,6 +67,11 @@ public class ChatResponse {
             return this;
         }
         
+        public Builder degradations(List<String> degradations) {
+            this.degradations = degradations;
+            return this;
+        }
+        
         public ChatResponse build() {
             ChatResponse response = new ChatResponse();
             response.sessionId = this.sessionId;
@@ -74,6 +81,7 @@ public class ChatResponse {
             response.suggestions = this.suggestions;
             response.requiresInput = this.requiresInput;
             response.nextQuestion = this.nextQuestion;
+            response.degradations = this.degradations;
             return response;
         }
     }
@@ -138,4 +146,12 @@ public class ChatResponse {
     public void setNextQuestion(String nextQuestion) {
         this.nextQuestion = nextQuestion;
     }
+    
+    public List<String> getDegradations() {
+        return degradations;
+    }
+    
+    public void setDegradations(List<String> degradations) {
+        this.degradations = degradations;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package az.dsa.chatbot.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Result of the combined "analyze" call: normalization, intent,
+ * query type, category and entities from one OpenAI round trip
+ */
+public class MessageAnalysis {
+
+    private String normalizedText;
+    private String intent;     // contact, consult, query, trainer, greeting, unclear; null if none given
+    private String queryType;  // TRAINER, GRADUATE, BOOTCAMP, PRICE, SCHEDULE, TRAINING
+    private String category;   // "Data Analytics", "Machine Learning", etc. or null
+    private Map<String, String> entities; // training, trainer, minPrice, maxPrice
+
+    // Constructors
+    public MessageAnalysis() {
+        this.entities = new LinkedHashMap<>();
+    }
+
+    /**
+     * Entity value, or null if the model did not extract it
+     */
+    public String getEntity(String name) {
+        String value = entities.get(name);
+        return value != null && !value.isBlank() ? value : null;
+    }
+
+    // Getters and Setters
+    public String getNormalizedText() {
+        return normalizedText;
+    }
+
+    public void setNormalizedText(String normalizedText) {
+        this.normalizedText = normalizedText;
+    }
+
+    public String getIntent() {
+        return intent;
+    }
+
+    public void setIntent(String intent) {
+        this.intent = intent;
+    }
+
+    public String getQueryType() {
+        return queryType;
+    }
+
+    public void setQueryType(String queryType) {
+        this.queryType = queryType;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public Map<String, String> getEntities() {
+        return entities;
+    }
+
+    public void setEntities(Map<String, String> entities) {
+        this.entities = entities != null ? entities : new LinkedHashMap<>();
+    }
+
+    @Override
+    public String toString() {
+        return "MessageAnalysis{" +
+                "intent='" + intent + '\'' +
+                ", queryType='" + queryType + '\'' +
+                ", category='" + category + '\'' +
+                ", entities=" + entities.keySet() +
+                '}';
+    }
+}
@@ -5,14 +5,19 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 public class SessionData {
     
+    private static final int MAX_HISTORY = 20;
+    
     private String sessionId;
     private String currentMode; // contact, consult, query
     private String currentStep; // for multi-step modes
     private Map<String, String> collectedData; // stores user inputs per step
-    private List<String> conversationHistory;
+    private List<String> conversationHistory; // last messages; null until loaded
+    private Supplier<List<String>> historyLoader; // reads the stored history on first access
+    private final List<String> newMessages = new ArrayList<>(); // added since load, not yet saved
     private LocalDateTime lastActivity;
     private LocalDateTime createdAt;
     
@@ -31,11 +36,27 @@ public class SessionData {
     
     // Helper methods
     public void addMessage(String message) {
-        this.conversationHistory.add(message);
+        this.newMessages.add(message);
         this.lastActivity = LocalDateTime.now();
         
+        if (this.conversationHistory != null) {
+            this.conversationHistory.add(message);
+            trimHistory();
+        }
+    }
+    
+    /**
+     * Messages added since the session was loaded; the caller persists them
+     */
+    public List<String> drainNewMessages() {
+        List<String> drained = new ArrayList<>(newMessages);
+        newMessages.clear();
+        return drained;
+    }
+    
+    private void trimHistory() {
         // Keep only last 20 messages
-        if (this.conversationHistory.size() > 20) {
+        while (this.conversationHistory.size() > MAX_HISTORY) {
             this.conversationHistory.remove(0);
         }
     }
@@ -94,6 +115,11 @@ public class SessionData {
     }
     
     public List<String> getConversationHistory() {
+        if (conversationHistory == null) {
+            conversationHistory = new ArrayList<>(historyLoader != null ? historyLoader.get() : List.of());
+            conversationHistory.addAll(newMessages);
+            trimHistory();
+        }
         return conversationHistory;
     }
     
@@ -101,6 +127,14 @@ public class SessionData {
         this.conversationHistory = conversationHistory;
     }
     
+    /**
+     * Load the history lazily from storage instead of holding it
+     */
+    public void setHistoryLoader(Supplier<List<String>> historyLoader) {
+        this.historyLoader = historyLoader;
+        this.conversationHistory = null;
+    }
+    
     public LocalDateTime getLastActivity() {
         return lastActivity;
     }
@@ -9,7 +9,8 @@ import java.time.*;
 import java.util.*;
 
 @Entity
-@Table(name = "chat_sessions")
+@Table(name = "chat_sessions",
+       indexes = @Index(name = "idx_chat_sessions_expires_at", columnList = "expires_at"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,10 +21,16 @@ public class ChatSession {
     private String id;  // UUID
     
     @Column(name = "user_data", columnDefinition = "TEXT")
-    private String userData;  // JSON string of collected user data
+    private String userData;  // JSON string of collected user data (json codec / legacy rows)
+    
+    @Column(name = "user_data_bin", columnDefinition = "bytea")
+    private byte[] userDataBin;  // Collected user data, binary session codec
     
     @Column(name = "conversation_history", columnDefinition = "TEXT")
-    private String conversationHistory;  // JSON array of messages
+    private String conversationHistory;  // Legacy JSON array of messages; now in chat_messages
+    
+    @Column(name = "history_seq")
+    private Integer historySeq;  // seq of the last chat_messages row; null = legacy JSON history
     
     @Column(name = "current_mode", length = 50)
     private String currentMode;  // contact, consult, query
@@ -42,7 +49,7 @@ public class ChatSession {
     private LocalDateTime expiresAt;
     
     
- // NEW: Rate limiting fields
+    // Legacy rate limiting columns; the limit is now enforced by RateLimitFilter
     @Column(name = "message_count")
     private Integer messageCount = 0;
     
@@ -58,23 +65,4 @@ public class ChatSession {
     
     @Column(name = "is_blocked")
     private Boolean isBlocked = false;
-    
-    // Helper methods
-    public void incrementMessageCount() {
-        this.messageCount = (this.messageCount == null ? 0 : this.messageCount) + 1;
-        this.lastMessageTime = LocalDateTime.now();
-    }
-    
-    public void resetMessageCount() {
-        this.messageCount = 0;
-    }
-    
-    public boolean isRateLimitExceeded(int maxMessages, int timeWindowMinutes) {
-        if (messageCount == null || lastMessageTime == null) {
-            return false;
-        }
-        
-        LocalDateTime windowStart = LocalDateTime.now().minusMinutes(timeWindowMinutes);
-        return messageCount >= maxMessages && lastMessageTime.isAfter(windowStart);
-    }
 }
\ No newline at end of file
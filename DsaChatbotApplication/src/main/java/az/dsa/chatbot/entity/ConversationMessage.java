@@ -0,0 +1,31 @@
+package az.dsa.chatbot.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.*;
+
+@Entity
+@Table(name = "chat_messages",
+       uniqueConstraints = @UniqueConstraint(name = "uk_chat_messages_session_seq",
+                                             columnNames = {"session_id", "seq"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConversationMessage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "session_id", length = 255, nullable = false)
+    private String sessionId;
+    
+    @Column(nullable = false)
+    private Integer seq;  // 1, 2, ... per session, in conversation order
+    
+    @Column(columnDefinition = "TEXT")
+    private String content;  // "User: ..." / "Bot: ..."
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -10,6 +10,21 @@ import java.util.*;
 
 @Entity
 @Table(name = "faq")
+@NamedNativeQuery(
+    name = "Faq.searchByKeywords",
+    query = "SELECT f.*, hits.keyword_hits FROM {h-schema}faq f " +
+            "CROSS JOIN LATERAL (" +
+            "  SELECT CAST(COUNT(*) AS INTEGER) AS keyword_hits " +
+            "  FROM unnest(string_to_array(:keywords, ' ')) AS k(keyword) " +
+            "  WHERE LOWER(f.question) LIKE '%' || k.keyword || '%' " +
+            "     OR LOWER(f.answer) LIKE '%' || k.keyword || '%' " +
+            ") hits " +
+            "WHERE hits.keyword_hits > 0",
+    resultSetMapping = "Faq.keywordHits")
+@SqlResultSetMapping(
+    name = "Faq.keywordHits",
+    entities = @EntityResult(entityClass = Faq.class),
+    columns = @ColumnResult(name = "keyword_hits", type = Integer.class))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,47 @@
+package az.dsa.chatbot.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.*;
+import java.util.HashSet;
+import java.util.Set;
+
+@Entity
+@Table(name = "llm_response_cache",
+       indexes = @Index(name = "idx_llm_response_cache_expires_at", columnList = "expires_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LlmCacheEntry {
+    @Id
+    @Column(name = "cache_key", length = 64)
+    private String cacheKey;  // SHA-256 of operation, model, temperature, max tokens, prompt
+    
+    @Column(length = 50)
+    private String operation;  // normalize, intent, analyze, format
+    
+    @Column(length = 100)
+    private String model;
+    
+    @Column(columnDefinition = "TEXT")
+    private String response;
+    
+    // Catalog rows the prompt was built from ("text:12", "faq:5"), indexed for invalidation
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "llm_response_cache_tags",
+                     joinColumns = @JoinColumn(name = "cache_key"),
+                     indexes = @Index(name = "idx_llm_response_cache_tags_tag", columnList = "tag"))
+    @Column(name = "tag", length = 100)
+    @Builder.Default
+    private Set<String> sourceTags = new HashSet<>();
+    
+    @Column(name = "total_tokens")
+    private Integer totalTokens;  // tokens the original call cost
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+}
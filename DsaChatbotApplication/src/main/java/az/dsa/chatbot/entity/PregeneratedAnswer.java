@@ -0,0 +1,46 @@
+package az.dsa.chatbot.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.*;
+
+@Entity
+@Table(name = "pregenerated_answers",
+       uniqueConstraints = @UniqueConstraint(name = "uk_pregenerated_answers_source_template",
+                                             columnNames = {"source_type", "source_id", "template"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PregeneratedAnswer {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "source_type", length = 20, nullable = false)
+    private String sourceType;  // FAQ, TEXT, TRAINING (SearchResult source)
+    
+    @Column(name = "source_id", nullable = false)
+    private Long sourceId;
+    
+    @Column(length = 20, nullable = false)
+    private String template;  // GENERAL, PRICE, DURATION, CERTIFICATE
+    
+    @Column(columnDefinition = "TEXT")
+    private String question;  // canonical question the answer was generated for
+    
+    @Column(columnDefinition = "TEXT")
+    private String answer;
+    
+    @Column(name = "source_updated_at")
+    private LocalDateTime sourceUpdatedAt;  // updated_at of the source row(s) at generation time
+    
+    @Column(name = "source_hash")
+    private Integer sourceHash;  // content hash, for rows without updated_at
+    
+    @Column(length = 100)
+    private String model;
+    
+    @Column(name = "generated_at")
+    private LocalDateTime generatedAt;
+}
@@ -5,6 +5,22 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "metinler")
+@NamedNativeQuery(
+    name = "Text.searchByKeywords",
+    query = "SELECT t.*, hits.keyword_hits FROM {h-schema}metinler t " +
+            "CROSS JOIN LATERAL (" +
+            "  SELECT CAST(COUNT(*) AS INTEGER) AS keyword_hits " +
+            "  FROM unnest(string_to_array(:keywords, ' ')) AS k(keyword) " +
+            "  WHERE LOWER(t.title) LIKE '%' || k.keyword || '%' " +
+            "     OR LOWER(t.description) LIKE '%' || k.keyword || '%' " +
+            "     OR LOWER(t.information) LIKE '%' || k.keyword || '%' " +
+            ") hits " +
+            "WHERE hits.keyword_hits > 0",
+    resultSetMapping = "Text.keywordHits")
+@SqlResultSetMapping(
+    name = "Text.keywordHits",
+    entities = @EntityResult(entityClass = Text.class),
+    columns = @ColumnResult(name = "keyword_hits", type = Integer.class))
 public class Text {
     
     @Id
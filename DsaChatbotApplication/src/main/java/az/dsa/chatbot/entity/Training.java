@@ -10,6 +10,20 @@ import java.util.*;
 
 @Entity
 @Table(name = "trainings")
+@NamedNativeQuery(
+    name = "Training.searchByKeywords",
+    query = "SELECT t.*, hits.keyword_hits FROM {h-schema}trainings t " +
+            "CROSS JOIN LATERAL (" +
+            "  SELECT CAST(COUNT(*) AS INTEGER) AS keyword_hits " +
+            "  FROM unnest(string_to_array(:keywords, ' ')) AS k(keyword) " +
+            "  WHERE LOWER(t.title) LIKE '%' || k.keyword || '%' " +
+            ") hits " +
+            "WHERE hits.keyword_hits > 0",
+    resultSetMapping = "Training.keywordHits")
+@SqlResultSetMapping(
+    name = "Training.keywordHits",
+    entities = @EntityResult(entityClass = Training.class),
+    columns = @ColumnResult(name = "keyword_hits", type = Integer.class))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -85,6 +85,26 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(response);
     }
     
+    /**
+     * Handle a message arriving while the session's previous one is still running
+     */
+    @ExceptionHandler(SessionBusyException.class)
+    public ResponseEntity<ErrorResponse> handleSessionBusyException(
+            SessionBusyException ex,
+            HttpServletRequest request) {
+        
+        logger.warn("Session busy: {}", ex.getMessage());
+        
+        ErrorResponse response = ErrorResponse.builder()
+                .status(HttpStatus.CONFLICT.value())
+                .error("Conflict")
+                .message("Əvvəlki mesajınız hələ emal olunur, zəhmət olmasa bir az gözləyin.")
+                .path(request.getRequestURI())
+                .build();
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+    
     /**
      * Handle all other exceptions
      */
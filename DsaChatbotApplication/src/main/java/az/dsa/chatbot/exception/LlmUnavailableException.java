@@ -0,0 +1,23 @@
+package az.dsa.chatbot.exception;
+
+/**
+ * Thrown when an OpenAI call is refused without being attempted (circuit breaker
+ * open, bulkhead full) or gives up on its deadline. Callers fall back to
+ * non-LLM output.
+ */
+public class LlmUnavailableException extends RuntimeException {
+    
+    private final String reason;
+    
+    public LlmUnavailableException(String reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+    
+    /**
+     * Short tag for metrics: breaker, bulkhead, timeout, disabled
+     */
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,13 @@
+package az.dsa.chatbot.exception;
+
+/**
+ * Thrown when a message cannot start because an earlier message of the same
+ * session is still being processed (the session lock wait timed out). Answered
+ * with 409 Conflict and a "previous message still processing" reply.
+ */
+public class SessionBusyException extends RuntimeException {
+    
+    public SessionBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,60 @@
+package az.dsa.chatbot.llm;
+
+import az.dsa.chatbot.util.AzerbaijaniNormalizer;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Canonical questions answers are pre-generated for, and the keywords that map a
+ * user's question onto one of them. Keywords are matched diacritic-folded.
+ */
+public enum AnswerTemplate {
+
+    GENERAL("%s haqqında ətraflı məlumat verin.", List.of()),
+    PRICE("%s təliminin qiyməti nə qədərdir?",
+          List.of("qiymet", "neceye", "azn", "manat", "odenis", "nece pul", "budce")),
+    DURATION("%s təlimi nə qədər davam edir?",
+             List.of("muddet", "davam", "nece ay", "nece hefte", "cekir", "uzunlug")),
+    CERTIFICATE("%s təlimini bitirəndə sertifikat verilirmi?",
+                List.of("sertifikat", "diplom"));
+
+    private final String question;
+    private final List<String> keywords;
+
+    AnswerTemplate(String question, List<String> keywords) {
+        this.question = question;
+        this.keywords = keywords;
+    }
+
+    /**
+     * Canonical question about the given training or topic
+     */
+    public String question(String title) {
+        return String.format(question, title);
+    }
+
+    /**
+     * Template a query asks for: the single specific template whose keywords it
+     * contains, GENERAL if none match, null if it asks for several things at once.
+     * GENERAL only fits a query that names the topic and nothing else; callers
+     * check that against the document's title.
+     */
+    public static AnswerTemplate detect(String query) {
+        if (query == null) {
+            return null;
+        }
+        String folded = AzerbaijaniNormalizer.fold(query.toLowerCase(Locale.forLanguageTag("az")));
+
+        AnswerTemplate match = GENERAL;
+        for (AnswerTemplate template : values()) {
+            if (template.keywords.stream().anyMatch(folded::contains)) {
+                if (match != GENERAL) {
+                    return null;
+                }
+                match = template;
+            }
+        }
+        return match;
+    }
+}
@@ -0,0 +1,201 @@
+package az.dsa.chatbot.llm;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker.
+ *
+ * CLOSED: calls go through and the last windowSize outcomes are kept. Once at least
+ * minimumCalls are recorded, a failure rate or slow-call rate at or above its
+ * threshold trips the breaker.
+ * OPEN: every call is refused for openMillis.
+ * HALF_OPEN: up to halfOpenProbes calls are let through; if all succeed in time the
+ * breaker closes, the first failed or slow probe opens it again.
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;   // percent
+    private final double slowCallRateThreshold;  // percent
+    private final long slowCallMillis;
+    private final long openMillis;
+    private final int halfOpenProbes;
+    private final LongSupplier clock;
+
+    // Ring of the last windowSize outcomes
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesInFlight;
+    private int probeSuccesses;
+    private long trips;
+    private String lastTripReason;
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          double slowCallRateThreshold, long slowCallMillis, long openMillis, int halfOpenProbes) {
+        this(name, windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold,
+             slowCallMillis, openMillis, halfOpenProbes, System::currentTimeMillis);
+    }
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          double slowCallRateThreshold, long slowCallMillis, long openMillis, int halfOpenProbes,
+                          LongSupplier clock) {
+        if (windowSize < 1 || halfOpenProbes < 1) {
+            throw new IllegalArgumentException("windowSize and halfOpenProbes must be positive");
+        }
+        this.name = name;
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallMillis = slowCallMillis;
+        this.openMillis = openMillis;
+        this.halfOpenProbes = halfOpenProbes;
+        this.clock = clock;
+        this.failed = new boolean[windowSize];
+        this.slow = new boolean[windowSize];
+    }
+
+    /**
+     * True if a call may go ahead. Every granted permission must be followed by
+     * onSuccess, onError or releasePermission.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openMillis) {
+                return false;
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= halfOpenProbes) {
+                return false;
+            }
+            probesInFlight++;
+        }
+        return true;
+    }
+
+    /**
+     * Give back a permission without an outcome (the call was never made,
+     * or failed for reasons unrelated to the remote side)
+     */
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && probesInFlight > 0) {
+            probesInFlight--;
+        }
+    }
+
+    public synchronized void onSuccess(long durationMillis) {
+        record(false, durationMillis);
+    }
+
+    public synchronized void onError(long durationMillis) {
+        record(true, durationMillis);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * State and rates for the health endpoint
+     */
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("state", state.name());
+        info.put("bufferedCalls", recorded);
+        info.put("failureRate", recorded > 0 ? Math.round(failures * 1000.0 / recorded) / 10.0 : 0.0);
+        info.put("slowCallRate", recorded > 0 ? Math.round(slowCalls * 1000.0 / recorded) / 10.0 : 0.0);
+        info.put("trips", trips);
+        if (lastTripReason != null) {
+            info.put("lastTripReason", lastTripReason);
+        }
+        if (state == State.OPEN) {
+            info.put("retryInMs", Math.max(0, openMillis - (clock.getAsLong() - openedAt)));
+        }
+        return info;
+    }
+
+    // ===== INTERNALS =====
+
+    private void record(boolean error, long durationMillis) {
+        boolean isSlow = durationMillis >= slowCallMillis;
+
+        if (state == State.HALF_OPEN) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+            if (error || isSlow) {
+                trip(error ? "probe failed" : "probe slow (" + durationMillis + " ms)");
+            } else if (++probeSuccesses >= halfOpenProbes) {
+                transition(State.CLOSED);
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return; // Late result of a call started before the trip
+        }
+
+        if (recorded == windowSize) {
+            if (failed[next]) failures--;
+            if (slow[next]) slowCalls--;
+        } else {
+            recorded++;
+        }
+        failed[next] = error;
+        slow[next] = isSlow;
+        if (error) failures++;
+        if (isSlow) slowCalls++;
+        next = (next + 1) % windowSize;
+
+        if (recorded >= minimumCalls) {
+            double failureRate = failures * 100.0 / recorded;
+            double slowRate = slowCalls * 100.0 / recorded;
+            if (failureRate >= failureRateThreshold) {
+                trip(String.format("failure rate %.0f%% over %d calls", failureRate, recorded));
+            } else if (slowRate >= slowCallRateThreshold) {
+                trip(String.format("slow call rate %.0f%% over %d calls", slowRate, recorded));
+            }
+        }
+    }
+
+    private void trip(String reason) {
+        trips++;
+        lastTripReason = reason;
+        openedAt = clock.getAsLong();
+        transition(State.OPEN);
+        logger.warn("Circuit breaker '{}' opened: {}", name, reason);
+    }
+
+    private void transition(State target) {
+        if (target != State.OPEN) {
+            logger.info("Circuit breaker '{}' {} -> {}", name, state, target);
+        }
+        state = target;
+        Arrays.fill(failed, false);
+        Arrays.fill(slow, false);
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+        probesInFlight = 0;
+        probeSuccesses = 0;
+    }
+}
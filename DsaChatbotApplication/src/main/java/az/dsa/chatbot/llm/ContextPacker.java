@@ -0,0 +1,194 @@
+package az.dsa.chatbot.llm;
+
+import az.dsa.chatbot.search.TextTokenizer;
+import az.dsa.chatbot.util.AzerbaijaniNormalizer;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Fits a long catalog text into a token budget for the LLM prompt.
+ *
+ * The text is split into paragraphs, and paragraphs that are still large into
+ * sentences. Chunks are ranked by BM25 against the user's question (terms
+ * diacritic-folded and compared by their first letters, so inflected
+ * Azerbaijani forms still match), with a small bonus for appearing early since
+ * catalog texts open with the overview. The best chunks that fit the budget are
+ * returned in their original order; gaps are marked with "…".
+ */
+@Component
+public class ContextPacker {
+
+    private static final Pattern PARAGRAPHS = Pattern.compile("\\s*\\n\\s*\\n\\s*|\\s*\\n\\s*(?=[-•*\\d])");
+    private static final Pattern SENTENCES = Pattern.compile("(?<=[.!?;])\\s+|\\s*\\n\\s*");
+
+    // Paragraphs above this size are ranked sentence by sentence
+    private static final int MAX_CHUNK_TOKENS = 80;
+
+    // Terms compare on this many leading (folded) letters: "python", "pythonu", "pythonda"
+    private static final int STEM_LENGTH = 5;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double POSITION_BONUS = 0.3;
+
+    private static final String GAP = "…";
+
+    private static final Set<String> STOP_WORDS = Set.of("ve", "ile", "ucun", "bir", "bu", "o", "ki", "ne",
+            "nece", "hansi", "haqqinda", "uzre", "kimi", "da", "de", "mi", "mu", "var", "edir");
+
+    /**
+     * The parts of text most relevant to query within maxTokens, or text itself if it fits
+     */
+    public String pack(String text, String query, int maxTokens) {
+        if (text == null || text.isBlank()) {
+            return "";
+        }
+        String trimmed = text.strip();
+        if (TokenEstimator.estimate(trimmed) <= maxTokens) {
+            return trimmed;
+        }
+
+        List<Chunk> chunks = split(trimmed);
+        rank(chunks, query);
+
+        // Greedy by score, keeping a token for each gap marker
+        List<Chunk> byScore = new ArrayList<>(chunks);
+        byScore.sort(Comparator.comparingDouble((Chunk c) -> c.score).reversed()
+                               .thenComparingInt(c -> c.position));
+        int used = 0;
+        for (Chunk chunk : byScore) {
+            if (used + chunk.tokens + 1 <= maxTokens) {
+                chunk.selected = true;
+                used += chunk.tokens + 1;
+            }
+        }
+
+        StringBuilder packed = new StringBuilder();
+        Chunk previous = null;
+        boolean gap = false;
+        for (Chunk chunk : chunks) {
+            if (!chunk.selected) {
+                gap = true;
+                continue;
+            }
+            if (previous == null) {
+                packed.append(gap ? GAP + " " : "");
+            } else if (gap) {
+                packed.append("\n").append(GAP).append("\n");
+            } else {
+                packed.append(chunk.paragraph == previous.paragraph ? " " : "\n");
+            }
+            packed.append(chunk.text);
+            previous = chunk;
+            gap = false;
+        }
+        if (gap && previous != null) {
+            packed.append(" ").append(GAP);
+        }
+
+        // Nothing fitted whole (one huge sentence): cut the best chunk at a word boundary
+        if (packed.length() == 0) {
+            return truncate(byScore.get(0).text, maxTokens);
+        }
+        return packed.toString();
+    }
+
+    // ===== INTERNALS =====
+
+    private List<Chunk> split(String text) {
+        List<Chunk> chunks = new ArrayList<>();
+        int paragraphs = 0;
+        for (String paragraph : PARAGRAPHS.split(text)) {
+            if (paragraph.isBlank()) {
+                continue;
+            }
+            int index = paragraphs++;
+            if (TokenEstimator.estimate(paragraph) <= MAX_CHUNK_TOKENS) {
+                chunks.add(new Chunk(paragraph.strip(), chunks.size(), index));
+                continue;
+            }
+            for (String sentence : SENTENCES.split(paragraph)) {
+                if (!sentence.isBlank()) {
+                    chunks.add(new Chunk(sentence.strip(), chunks.size(), index));
+                }
+            }
+        }
+        return chunks;
+    }
+
+    private void rank(List<Chunk> chunks, String query) {
+        Set<String> queryTerms = new LinkedHashSet<>(terms(query));
+
+        double averageLength = chunks.stream().mapToInt(c -> c.terms.size()).average().orElse(1);
+        Map<String, Integer> documentFrequency = new HashMap<>();
+        for (Chunk chunk : chunks) {
+            for (String term : new HashSet<>(chunk.terms)) {
+                documentFrequency.merge(term, 1, Integer::sum);
+            }
+        }
+
+        for (Chunk chunk : chunks) {
+            double score = 0;
+            for (String term : queryTerms) {
+                int tf = Collections.frequency(chunk.terms, term);
+                if (tf == 0) {
+                    continue;
+                }
+                int df = documentFrequency.getOrDefault(term, 0);
+                double idf = Math.log(1 + (chunks.size() - df + 0.5) / (df + 0.5));
+                double norm = 1 - B + B * chunk.terms.size() / Math.max(averageLength, 1);
+                score += idf * tf * (K1 + 1) / (tf + K1 * norm);
+            }
+            chunk.score = score + POSITION_BONUS / (1 + chunk.position);
+        }
+    }
+
+    private static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String token : TextTokenizer.tokenize(text.toLowerCase(AzerbaijaniNormalizer.AZERBAIJANI))) {
+            String folded = AzerbaijaniNormalizer.fold(token);
+            if (folded.length() < 2 || STOP_WORDS.contains(folded)) {
+                continue;
+            }
+            terms.add(folded.length() > STEM_LENGTH ? folded.substring(0, STEM_LENGTH) : folded);
+        }
+        return terms;
+    }
+
+    private static String truncate(String text, int maxTokens) {
+        String[] words = text.split("\\s+");
+        StringBuilder cut = new StringBuilder();
+        for (String word : words) {
+            String next = cut.length() > 0 ? cut + " " + word : word;
+            if (TokenEstimator.estimate(next) + 1 > maxTokens) {
+                break;
+            }
+            cut.setLength(0);
+            cut.append(next);
+        }
+        return cut.length() > 0 ? cut + " " + GAP : "";
+    }
+
+    private static final class Chunk {
+        private final String text;
+        private final int position;
+        private final int paragraph;
+        private final int tokens;
+        private final List<String> terms;
+        private double score;
+        private boolean selected;
+
+        private Chunk(String text, int position, int paragraph) {
+            this.text = text;
+            this.position = position;
+            this.paragraph = paragraph;
+            this.tokens = TokenEstimator.estimate(text);
+            this.terms = terms(text);
+        }
+    }
+}
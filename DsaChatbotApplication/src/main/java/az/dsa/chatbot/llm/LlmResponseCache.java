@@ -0,0 +1,373 @@
+package az.dsa.chatbot.llm;
+
+import az.dsa.chatbot.catalog.CatalogRefreshedEvent;
+import az.dsa.chatbot.catalog.CatalogSnapshot;
+import az.dsa.chatbot.entity.Faq;
+import az.dsa.chatbot.entity.LlmCacheEntry;
+import az.dsa.chatbot.entity.Text;
+import az.dsa.chatbot.entity.Training;
+import az.dsa.chatbot.repository.LlmCacheEntryRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Content-addressed cache for OpenAI responses.
+ *
+ * Keys are the SHA-256 of (operation, model, temperature, max tokens, prompt), so
+ * identical questions from different users share one answer. Two tiers: a bounded
+ * in-heap LRU and the llm_response_cache table, which survives restarts. Entries
+ * expire after the TTL.
+ *
+ * Requests only touch the heap tier. The table is read once at startup to warm it,
+ * and writes and evictions are queued and applied by a background job, so a cache
+ * lookup or store never waits on the database. Queued writes beyond
+ * max-pending-writes are dropped (the answer stays cached in heap).
+ *
+ * Entries built from catalog rows carry source tags ("text:12", "faq:5"), stored in
+ * the indexed llm_response_cache_tags table. Because the row content is part of the
+ * prompt, a changed row already produces a new key; on each catalog refresh the
+ * entries of changed or deleted rows are also dropped so stale answers do not
+ * linger until their TTL.
+ */
+@Component
+public class LlmResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(LlmResponseCache.class);
+
+    @Autowired
+    private LlmCacheEntryRepository repository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chatbot.llm.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chatbot.llm.cache.persistent:true}")
+    private boolean persistent;
+
+    @Value("${chatbot.llm.cache.max-entries:2000}")
+    private int maxEntries;
+
+    @Value("${chatbot.llm.cache.ttl-hours:24}")
+    private int ttlHours;
+
+    // Writes waiting for the background job; further ones only reach the heap tier
+    @Value("${chatbot.llm.cache.max-pending-writes:1000}")
+    private int maxPendingWrites;
+
+    // Blended price per 1K tokens, for the cost-saved metric
+    @Value("${chatbot.llm.cache.cost-per-1k-tokens:0.0004}")
+    private double costPer1kTokens;
+
+    private Map<String, Entry> memory;
+
+    // Table changes not applied yet: key -> row to upsert, and keys to delete
+    private final Map<String, LlmCacheEntry> pendingWrites = new ConcurrentHashMap<>();
+    private final Set<String> pendingDeletes = ConcurrentHashMap.newKeySet();
+
+    // Catalog row tag -> content hash, from the previous snapshot
+    private Map<String, Integer> fingerprints = Collections.emptyMap();
+
+    @PostConstruct
+    public void init() {
+        memory = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        Gauge.builder("chatbot.llm.cache.size", this, LlmResponseCache::size).register(meterRegistry);
+        Gauge.builder("chatbot.llm.cache.pending.writes", pendingWrites, Map::size).register(meterRegistry);
+
+        if (enabled && persistent) {
+            warmUp();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Cache key for one LLM call
+     */
+    public static String key(String operation, String model, double temperature, int maxTokens, String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String material = operation + '\u0000' + model + '\u0000' + temperature + '\u0000' + maxTokens + '\u0000' + prompt;
+            return HexFormat.of().formatHex(digest.digest(material.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Cached response, or null on a miss (heap tier only, never the database)
+     */
+    public String get(String key, String operation) {
+        if (!enabled) {
+            return null;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Entry entry;
+        synchronized (this) {
+            entry = memory.get(key);
+            if (entry != null && entry.expiresAt.isBefore(now)) {
+                memory.remove(key);
+                entry = null;
+            }
+        }
+        if (entry != null) {
+            recordHit(operation, "memory", entry.totalTokens);
+            return entry.response;
+        }
+
+        meterRegistry.counter("chatbot.llm.cache.requests", "operation", operation, "result", "miss").increment();
+        return null;
+    }
+
+    /**
+     * Store a response in the heap tier and queue it for the table
+     */
+    public void put(String key, String operation, String model, String response, Integer totalTokens,
+                    Collection<String> sourceTags) {
+        if (!enabled || response == null) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusHours(ttlHours);
+        Set<String> tags = sourceTags == null ? Set.of() : Set.copyOf(sourceTags);
+
+        synchronized (this) {
+            memory.put(key, new Entry(response, tags, totalTokens, expiresAt));
+        }
+
+        if (persistent) {
+            pendingDeletes.remove(key);
+            if (pendingWrites.size() >= maxPendingWrites && !pendingWrites.containsKey(key)) {
+                meterRegistry.counter("chatbot.llm.cache.writes.dropped").increment();
+                return;
+            }
+            pendingWrites.put(key, LlmCacheEntry.builder()
+                    .cacheKey(key)
+                    .operation(operation)
+                    .model(model)
+                    .response(response)
+                    .sourceTags(new HashSet<>(tags))
+                    .totalTokens(totalTokens)
+                    .createdAt(now)
+                    .expiresAt(expiresAt)
+                    .build());
+        }
+    }
+
+    /**
+     * Drop one entry (e.g. a reply that turned out to be unusable); the row is deleted by the next flush
+     */
+    public void evict(String key) {
+        synchronized (this) {
+            memory.remove(key);
+        }
+        if (persistent && pendingWrites.remove(key) == null) {
+            pendingDeletes.add(key);
+        }
+    }
+
+    /**
+     * Apply queued writes and evictions to the table
+     */
+    @Scheduled(fixedDelayString = "${chatbot.llm.cache.write-interval-ms:1000}")
+    public void flush() {
+        if (!persistent) {
+            return;
+        }
+        List<LlmCacheEntry> writes = new ArrayList<>();
+        for (String key : pendingWrites.keySet()) {
+            LlmCacheEntry row = pendingWrites.remove(key);
+            if (row != null) {
+                writes.add(row);
+            }
+        }
+        List<String> deletes = new ArrayList<>(pendingDeletes);
+        pendingDeletes.removeAll(deletes);
+
+        if (!writes.isEmpty()) {
+            try {
+                repository.saveAll(writes);
+            } catch (Exception e) {
+                logger.warn("Error writing {} LLM cache entries: {}", writes.size(), e.getMessage());
+            }
+        }
+        if (!deletes.isEmpty()) {
+            try {
+                repository.deleteAllByIdInBatch(deletes);
+            } catch (Exception e) {
+                logger.warn("Error evicting {} LLM cache entries: {}", deletes.size(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Drop every entry built from the given catalog row
+     */
+    public int invalidateTag(String tag) {
+        int removed;
+        synchronized (this) {
+            int before = memory.size();
+            memory.values().removeIf(entry -> entry.sourceTags.contains(tag));
+            removed = before - memory.size();
+        }
+        pendingWrites.values().removeIf(row -> row.getSourceTags().contains(tag));
+        if (persistent) {
+            try {
+                removed += repository.deleteBySourceTag(tag);
+            } catch (Exception e) {
+                logger.warn("Error invalidating LLM cache tag {}: {}", tag, e.getMessage());
+            }
+        }
+        return removed;
+    }
+
+    @EventListener
+    public void onCatalogRefreshed(CatalogRefreshedEvent event) {
+        Map<String, Integer> current = fingerprint(event.getSnapshot());
+        Map<String, Integer> previous = fingerprints;
+        fingerprints = current;
+
+        if (previous.isEmpty()) {
+            return;
+        }
+
+        List<String> changed = new ArrayList<>();
+        for (Map.Entry<String, Integer> row : previous.entrySet()) {
+            if (!row.getValue().equals(current.get(row.getKey()))) {
+                changed.add(row.getKey());
+            }
+        }
+
+        int removed = 0;
+        for (String tag : changed) {
+            removed += invalidateTag(tag);
+        }
+        if (!changed.isEmpty()) {
+            logger.info("Catalog rows changed: {} - invalidated {} cached LLM responses", changed.size(), removed);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chatbot.llm.cache.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (this) {
+            memory.values().removeIf(entry -> entry.expiresAt.isBefore(now));
+        }
+        if (persistent) {
+            try {
+                int purged = repository.deleteExpired(now);
+                if (purged > 0) {
+                    logger.info("Purged {} expired LLM cache entries", purged);
+                }
+            } catch (Exception e) {
+                logger.warn("Error purging LLM cache: {}", e.getMessage());
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return memory.size();
+    }
+
+    /**
+     * Source tag of a catalog row, as used in entries and invalidation
+     */
+    public static String tag(String type, Object id) {
+        return type.toLowerCase() + ":" + id;
+    }
+
+    // ===== INTERNALS =====
+
+    /**
+     * Fill the heap tier with the newest live rows of the table
+     */
+    private void warmUp() {
+        try {
+            List<LlmCacheEntry> rows = repository.findLive(LocalDateTime.now(), PageRequest.of(0, maxEntries));
+            synchronized (this) {
+                // Oldest first, so the newest end up most recently used
+                for (int i = rows.size() - 1; i >= 0; i--) {
+                    LlmCacheEntry row = rows.get(i);
+                    memory.put(row.getCacheKey(), new Entry(row.getResponse(), Set.copyOf(row.getSourceTags()),
+                                                            row.getTotalTokens(), row.getExpiresAt()));
+                }
+            }
+            logger.info("LLM cache warmed with {} stored entries", rows.size());
+        } catch (Exception e) {
+            logger.warn("Error warming LLM cache: {}", e.getMessage());
+        }
+    }
+
+    private void recordHit(String operation, String tier, Integer totalTokens) {
+        meterRegistry.counter("chatbot.llm.cache.requests", "operation", operation, "result", "hit", "tier", tier)
+                     .increment();
+        if (totalTokens != null && totalTokens > 0) {
+            meterRegistry.counter("chatbot.llm.cache.tokens.saved", "operation", operation).increment(totalTokens);
+            meterRegistry.counter("chatbot.llm.cache.cost.saved", "operation", operation)
+                         .increment(totalTokens / 1000.0 * costPer1kTokens);
+        }
+    }
+
+    private Map<String, Integer> fingerprint(CatalogSnapshot catalog) {
+        Map<String, Integer> rows = new HashMap<>();
+        for (Text text : catalog.getTexts()) {
+            rows.put(tag("text", text.getId()), Objects.hash(text.getTitle(), text.getDescription(),
+                    text.getInformation(), text.getMoney(), text.getForWho(), text.getCertificates(),
+                    text.getTrainingsId()));
+        }
+        for (Faq faq : catalog.getFaqs()) {
+            rows.put(tag("faq", faq.getId()), Objects.hash(faq.getQuestion(), faq.getAnswer(),
+                    faq.getQuestionEn(), faq.getAnswerEn()));
+        }
+        for (Training training : catalog.getTrainings()) {
+            rows.put(tag("training", training.getId()), Objects.hash(training.getTitle(), training.getIsActive()));
+        }
+        return rows;
+    }
+
+    private static final class Entry {
+        private final String response;
+        private final Set<String> sourceTags;
+        private final Integer totalTokens;
+        private final LocalDateTime expiresAt;
+
+        private Entry(String response, Set<String> sourceTags, Integer totalTokens, LocalDateTime expiresAt) {
+            this.response = response;
+            this.sourceTags = sourceTags;
+            this.totalTokens = totalTokens;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
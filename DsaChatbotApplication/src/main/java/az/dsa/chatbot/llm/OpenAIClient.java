@@ -0,0 +1,333 @@
+package az.dsa.chatbot.llm;
+
+import az.dsa.chatbot.exception.LlmUnavailableException;
+import az.dsa.chatbot.util.Deadline;
+import com.theokanning.openai.OpenAiHttpException;
+import com.theokanning.openai.completion.chat.ChatCompletionChunk;
+import com.theokanning.openai.completion.chat.ChatCompletionRequest;
+import com.theokanning.openai.completion.chat.ChatCompletionResult;
+import com.theokanning.openai.service.OpenAiService;
+import io.micrometer.core.instrument.Gauge;
+import io.reactivex.Flowable;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Guarded access to the OpenAI API.
+ *
+ * - Bulkhead: at most max-concurrent calls in flight; further calls are refused at
+ *   once instead of parking request threads behind a slow upstream.
+ * - Calls run on a dedicated pool and retries are scheduled with jittered
+ *   exponential backoff, so no thread sleeps between attempts.
+ * - Circuit breaker: trips on error rate or slow-call rate; while open every call
+ *   fails fast with LlmUnavailableException and callers use their non-LLM fallback.
+ * - Deadline: waits and retries never outlast the caller's turn budget
+ *   (see {@link Deadline}).
+ */
+@Component
+public class OpenAIClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenAIClient.class);
+
+    @Autowired(required = false)
+    private OpenAiService openAiService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${openai.max-retries:3}")
+    private int maxRetries;
+
+    // Base delay; attempt n waits between half and all of base * 2^(n-1), capped
+    @Value("${openai.retry-delay-ms:1000}")
+    private long retryDelayMs;
+
+    @Value("${openai.retry-max-delay-ms:8000}")
+    private long retryMaxDelayMs;
+
+    // How long a caller waits for the whole call, retries included
+    @Value("${openai.call-timeout-ms:30000}")
+    private long callTimeoutMs;
+
+    @Value("${openai.bulkhead.max-concurrent:16}")
+    private int maxConcurrent;
+
+    @Value("${openai.breaker.window-size:20}")
+    private int windowSize;
+
+    @Value("${openai.breaker.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${openai.breaker.failure-rate-threshold:50}")
+    private double failureRateThreshold;
+
+    @Value("${openai.breaker.slow-call-ms:10000}")
+    private long slowCallMillis;
+
+    @Value("${openai.breaker.slow-call-rate-threshold:80}")
+    private double slowCallRateThreshold;
+
+    @Value("${openai.breaker.open-duration-ms:30000}")
+    private long openDurationMs;
+
+    @Value("${openai.breaker.half-open-probes:3}")
+    private int halfOpenProbes;
+
+    private Semaphore bulkhead;
+    private CircuitBreaker breaker;
+    private ExecutorService callExecutor;
+    private ScheduledExecutorService retryScheduler;
+
+    @PostConstruct
+    public void init() {
+        bulkhead = new Semaphore(maxConcurrent);
+        breaker = new CircuitBreaker("openai", windowSize, minimumCalls, failureRateThreshold,
+                                     slowCallRateThreshold, slowCallMillis, openDurationMs, halfOpenProbes);
+        // One thread per bulkhead permit, so an admitted call never queues
+        callExecutor = Executors.newFixedThreadPool(maxConcurrent, threadFactory("openai-"));
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(threadFactory("openai-retry-"));
+
+        Gauge.builder("chatbot.openai.breaker.state", this, client -> client.breaker.getState().ordinal())
+             .description("0 = closed, 1 = open, 2 = half open")
+             .register(meterRegistry);
+        Gauge.builder("chatbot.openai.bulkhead.in-flight", this,
+                      client -> client.maxConcurrent - client.bulkhead.availablePermits())
+             .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        callExecutor.shutdownNow();
+    }
+
+    /**
+     * Chat completion with retries, completed on the OpenAI pool.
+     * Fails immediately with LlmUnavailableException if the breaker is open or the
+     * bulkhead is full. No retry is scheduled past the calling thread's deadline.
+     */
+    public CompletableFuture<ChatCompletionResult> createChatCompletion(ChatCompletionRequest request) {
+        acquire();
+        CompletableFuture<ChatCompletionResult> result = new CompletableFuture<>();
+        attempt(request, 1, Deadline.current(), result, once(bulkhead::release));
+        return result;
+    }
+
+    /**
+     * Blocking form of createChatCompletion for synchronous callers, bounded by
+     * openai.call-timeout-ms and the remaining turn deadline
+     */
+    public ChatCompletionResult complete(ChatCompletionRequest request) {
+        long remaining = Deadline.current().remainingMillis();
+        long wait = Math.min(callTimeoutMs, remaining);
+        CompletableFuture<ChatCompletionResult> future = createChatCompletion(request);
+        try {
+            return future.get(wait, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            if (wait < callTimeoutMs) {
+                throw reject("deadline", "OpenAI call cut off by turn deadline after " + wait + " ms");
+            }
+            throw reject("timeout", "OpenAI call timed out after " + callTimeoutMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw reject("timeout", "Interrupted while waiting for OpenAI");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException
+                ? (RuntimeException) cause
+                : new RuntimeException("OpenAI API error", cause);
+        }
+    }
+
+    /**
+     * Streaming chat completion on the calling thread (no retries: tokens may already
+     * have been delivered). Latency to the first chunk counts towards the slow-call rate.
+     * The first chunk and the whole stream must arrive within openai.call-timeout-ms
+     * and the remaining turn deadline; otherwise the stream is cancelled and the call
+     * fails with LlmUnavailableException.
+     */
+    public void streamChatCompletion(ChatCompletionRequest request, Consumer<ChatCompletionChunk> onChunk) {
+        acquire();
+        long start = System.nanoTime();
+        long wait = Math.min(callTimeoutMs, Deadline.current().remainingMillis());
+        long endNanos = start + TimeUnit.MILLISECONDS.toNanos(wait);
+        AtomicBoolean firstChunk = new AtomicBoolean(true);
+        AtomicBoolean consumerFailed = new AtomicBoolean(false);
+        long[] firstChunkMillis = {-1};
+        try {
+            // Each chunk may take only what is left of the budget, which also bounds the whole stream
+            openAiService.streamChatCompletion(request)
+                .timeout(Flowable.timer(wait, TimeUnit.MILLISECONDS),
+                         chunk -> Flowable.timer(Math.max(0, endNanos - System.nanoTime()), TimeUnit.NANOSECONDS))
+                .blockingForEach(chunk -> {
+                    if (firstChunk.compareAndSet(true, false)) {
+                        firstChunkMillis[0] = elapsedMillis(start);
+                    }
+                    try {
+                        onChunk.accept(chunk);
+                    } catch (RuntimeException e) {
+                        consumerFailed.set(true);
+                        throw e;
+                    }
+                });
+            breaker.onSuccess(firstChunkMillis[0] >= 0 ? firstChunkMillis[0] : elapsedMillis(start));
+        } catch (RuntimeException e) {
+            if (consumerFailed.get()) {
+                // Our side stopped reading (e.g. the client disconnected)
+                breaker.releasePermission();
+                throw e;
+            }
+            breaker.onError(elapsedMillis(start));
+            if (e.getCause() instanceof TimeoutException) {
+                if (wait < callTimeoutMs) {
+                    throw reject("deadline", "OpenAI stream cut off by turn deadline after " + wait + " ms");
+                }
+                throw reject("timeout", "OpenAI stream timed out after " + callTimeoutMs + " ms");
+            }
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Breaker and bulkhead state for /api/health
+     */
+    public Map<String, Object> health() {
+        Map<String, Object> info = breaker.snapshot();
+        info.put("configured", openAiService != null);
+        info.put("inFlight", maxConcurrent - bulkhead.availablePermits());
+        info.put("maxConcurrent", maxConcurrent);
+        return info;
+    }
+
+    public CircuitBreaker.State getBreakerState() {
+        return breaker.getState();
+    }
+
+    // ===== INTERNALS =====
+
+    private void acquire() {
+        if (openAiService == null) {
+            throw reject("disabled", "OpenAI client is not configured");
+        }
+        if (!breaker.tryAcquirePermission()) {
+            throw reject("breaker", "OpenAI circuit breaker is open");
+        }
+        if (!bulkhead.tryAcquire()) {
+            breaker.releasePermission();
+            throw reject("bulkhead", "OpenAI bulkhead full (" + maxConcurrent + " calls in flight)");
+        }
+    }
+
+    private void attempt(ChatCompletionRequest request, int attempt, Deadline deadline,
+                         CompletableFuture<ChatCompletionResult> result, Runnable release) {
+        try {
+            callExecutor.execute(() -> {
+                if (result.isDone()) {
+                    // Caller gave up while this attempt was pending
+                    breaker.releasePermission();
+                    release.run();
+                    return;
+                }
+                long start = System.nanoTime();
+                try {
+                    ChatCompletionResult response = openAiService.createChatCompletion(request);
+                    breaker.onSuccess(elapsedMillis(start));
+                    logger.debug("OpenAI API call successful (attempt {})", attempt);
+                    release.run();
+                    result.complete(response);
+                } catch (Exception e) {
+                    breaker.onError(elapsedMillis(start));
+                    if (attempt >= maxRetries || !isRetryable(e) || result.isDone()) {
+                        logger.error("OpenAI API call failed after {} attempt(s): {}", attempt, e.getMessage());
+                        release.run();
+                        result.completeExceptionally(e);
+                        return;
+                    }
+                    long delay = backoff(attempt);
+                    if (delay >= deadline.remainingMillis()) {
+                        // The retry could not finish before the caller gives up
+                        logger.warn("OpenAI API call failed (attempt {}), no time left to retry: {}",
+                                   attempt, e.getMessage());
+                        release.run();
+                        result.completeExceptionally(e);
+                        return;
+                    }
+                    logger.warn("OpenAI API call failed (attempt {}), retrying in {} ms: {}",
+                               attempt, delay, e.getMessage());
+                    retryScheduler.schedule(() -> {
+                        if (result.isDone()) {
+                            release.run();
+                        } else if (!breaker.tryAcquirePermission()) {
+                            release.run();
+                            result.completeExceptionally(reject("breaker", "OpenAI circuit breaker is open"));
+                        } else {
+                            attempt(request, attempt + 1, deadline, result, release);
+                        }
+                    }, delay, TimeUnit.MILLISECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            breaker.releasePermission();
+            release.run();
+            result.completeExceptionally(reject("disabled", "OpenAI client is shutting down"));
+        }
+    }
+
+    private long backoff(int attempt) {
+        long ceiling = Math.min(retryMaxDelayMs, retryDelayMs << Math.min(attempt - 1, 20));
+        long half = ceiling / 2;
+        return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+    }
+
+    private boolean isRetryable(Exception e) {
+        if (e instanceof OpenAiHttpException) {
+            int status = ((OpenAiHttpException) e).statusCode;
+            return status == 429 || status >= 500;
+        }
+        return true; // Network errors and timeouts
+    }
+
+    private LlmUnavailableException reject(String reason, String message) {
+        meterRegistry.counter("chatbot.openai.rejections", "reason", reason).increment();
+        return new LlmUnavailableException(reason, message);
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static Runnable once(Runnable action) {
+        AtomicBoolean done = new AtomicBoolean(false);
+        return () -> {
+            if (done.compareAndSet(false, true)) {
+                action.run();
+            }
+        };
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,460 @@
+package az.dsa.chatbot.llm;
+
+import az.dsa.chatbot.catalog.CatalogRefreshedEvent;
+import az.dsa.chatbot.catalog.CatalogService;
+import az.dsa.chatbot.catalog.CatalogSnapshot;
+import az.dsa.chatbot.dto.SearchResult;
+import az.dsa.chatbot.entity.Faq;
+import az.dsa.chatbot.entity.PregeneratedAnswer;
+import az.dsa.chatbot.entity.Text;
+import az.dsa.chatbot.entity.Training;
+import az.dsa.chatbot.exception.LlmUnavailableException;
+import az.dsa.chatbot.repository.PregeneratedAnswerRepository;
+import az.dsa.chatbot.service.OpenAIService;
+import az.dsa.chatbot.util.AzerbaijaniNormalizer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers rendered ahead of time for every FAQ, Text and active Training row and
+ * each canonical question (AnswerTemplate), stored in pregenerated_answers.
+ *
+ * A scheduled job renders missing answers and re-renders those whose source row
+ * changed (updated_at or content hash). At request time, when a query maps to one
+ * document with high confidence, the stored answer is served and the LLM is not
+ * called at all. An answer whose source row differs from the current catalog
+ * snapshot is never served; the LLM answers until the job has re-rendered it.
+ */
+@Component
+public class PregeneratedAnswerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PregeneratedAnswerService.class);
+
+    private static final List<AnswerTemplate> FAQ_TEMPLATES = List.of(AnswerTemplate.GENERAL);
+    private static final List<AnswerTemplate> TRAINING_TEMPLATES = List.of(AnswerTemplate.values());
+
+    // Query words (folded prefixes) that ask for an overview rather than anything specific
+    private static final List<String> OVERVIEW_WORDS = List.of("haqq", "barede", "melumat", "etrafli", "izah",
+            "danis", "telim", "kurs", "proqram", "nedir", "istey", "istiyir", "verin", "verersiniz", "deyin",
+            "salam", "zehmet", "olmasa", "xahis", "mene", "bize", "ile", "ucun", "bir", "uzre", "kimi");
+
+    @Autowired
+    private PregeneratedAnswerRepository repository;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private OpenAIService openAIService;
+
+    @Autowired
+    private RawDataBuilder rawDataBuilder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chatbot.pregenerated.enabled:true}")
+    private boolean enabled;
+
+    // OpenAI calls per job run; the rest are picked up by the next run
+    @Value("${chatbot.pregenerated.max-per-run:200}")
+    private int maxPerRun;
+
+    // Best result must score this many times the runner-up
+    @Value("${chatbot.pregenerated.dominance-ratio:1.5}")
+    private double dominanceRatio;
+
+    // Share of the document's title (FAQ: question) words that must appear in the query
+    @Value("${chatbot.pregenerated.min-title-coverage:0.5}")
+    private double minTitleCoverage;
+
+    @Value("${chatbot.pregenerated.min-question-coverage:0.6}")
+    private double minQuestionCoverage;
+
+    @Value("${openai.model:gpt-4o-mini}")
+    private String model;
+
+    // "TEXT:12:PRICE" -> stored answer
+    private final Map<String, PregeneratedAnswer> answers = new ConcurrentHashMap<>();
+
+    // "TEXT:12" -> source row in the current catalog snapshot
+    private volatile Map<String, Source> currentSources = Map.of();
+    private volatile long sourcesVersion = -1;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("chatbot.pregenerated.size", answers, Map::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadStored() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            for (PregeneratedAnswer answer : repository.findAll()) {
+                answers.put(key(answer.getSourceType(), answer.getSourceId(),
+                                AnswerTemplate.valueOf(answer.getTemplate())), answer);
+            }
+            logger.info("Loaded {} pre-generated answers", answers.size());
+        } catch (Exception e) {
+            logger.warn("Error loading pre-generated answers: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Stored answer for the best search result, or null if the query does not map
+     * to that document with enough confidence or no answer exists yet
+     */
+    public String find(SearchResult best, SearchResult runnerUp, String query) {
+        if (!enabled || best == null || best.getId() == null) {
+            return null;
+        }
+
+        AnswerTemplate template = AnswerTemplate.detect(query);
+        if (template == null) {
+            return miss("mixed_question");
+        }
+        if ("FAQ".equals(best.getSource())) {
+            // An FAQ row answers exactly one question
+            template = AnswerTemplate.GENERAL;
+        }
+        if (!isConfident(best, runnerUp, query)) {
+            return miss("low_confidence");
+        }
+        if (template == AnswerTemplate.GENERAL && !"FAQ".equals(best.getSource())
+                && asksBeyondOverview(best.getTitle(), query)) {
+            // "Python onlayn keçirilir?" is not answered by the overview
+            return miss("specific_question");
+        }
+
+        PregeneratedAnswer answer = answers.get(key(best.getSource(), best.getId(), template));
+        if (answer == null) {
+            return miss("absent");
+        }
+        if (!isCurrent(answer)) {
+            return miss("outdated");
+        }
+
+        meterRegistry.counter("chatbot.pregenerated.requests", "result", "hit", "template", template.name())
+                     .increment();
+        logger.debug("Serving pre-generated {} answer for {}:{}", template, best.getSource(), best.getId());
+        return answer.getAnswer();
+    }
+
+    /**
+     * Render answers that are missing or out of date, and drop those whose
+     * source row is gone
+     */
+    @Scheduled(fixedDelayString = "${chatbot.pregenerated.refresh-interval-ms:3600000}",
+               initialDelayString = "${chatbot.pregenerated.initial-delay-ms:120000}")
+    public void regenerate() {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        CatalogSnapshot catalog;
+        try {
+            catalog = catalogService.current();
+        } catch (Exception e) {
+            logger.warn("Skipping answer pre-generation: {}", e.getMessage());
+            return;
+        }
+
+        Set<String> live = new HashSet<>();
+        int generated = 0;
+        int pending = 0;
+        int failed = 0;
+
+        sources:
+        for (Source source : sources(catalog)) {
+            for (AnswerTemplate template : source.templates) {
+                String key = key(source.result.getSource(), source.result.getId(), template);
+                live.add(key);
+
+                PregeneratedAnswer existing = answers.get(key);
+                if (existing != null && Objects.equals(existing.getSourceUpdatedAt(), source.updatedAt)
+                        && Objects.equals(existing.getSourceHash(), source.hash)) {
+                    continue;
+                }
+                if (generated + failed >= maxPerRun) {
+                    pending++;
+                    continue;
+                }
+
+                try {
+                    if (render(key, source, template, existing)) {
+                        generated++;
+                    } else {
+                        failed++;
+                    }
+                } catch (LlmUnavailableException e) {
+                    logger.warn("OpenAI unavailable, stopping answer pre-generation: {}", e.getMessage());
+                    break sources;
+                }
+            }
+        }
+
+        int removed = removeStale(live);
+
+        if (generated > 0 || failed > 0 || removed > 0 || pending > 0) {
+            logger.info("Answer pre-generation: {} rendered, {} failed, {} removed, {} pending ({} ms)",
+                       generated, failed, removed, pending, System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Index the new snapshot's source rows, so answers rendered from the old
+     * rows stop being served right away
+     */
+    @EventListener
+    public void onCatalogRefreshed(CatalogRefreshedEvent event) {
+        indexSources(event.getSnapshot());
+    }
+
+    // ===== INTERNALS =====
+
+    /**
+     * Answer was rendered from the source row as it is in the current catalog
+     */
+    private boolean isCurrent(PregeneratedAnswer answer) {
+        CatalogSnapshot catalog;
+        try {
+            catalog = catalogService.current();
+        } catch (Exception e) {
+            return false;
+        }
+        if (catalog.getVersion() != sourcesVersion) {
+            indexSources(catalog);
+        }
+        Source source = currentSources.get(answer.getSourceType() + ":" + answer.getSourceId());
+        return source != null && Objects.equals(answer.getSourceUpdatedAt(), source.updatedAt)
+               && Objects.equals(answer.getSourceHash(), source.hash);
+    }
+
+    private synchronized void indexSources(CatalogSnapshot catalog) {
+        if (catalog.getVersion() == sourcesVersion) {
+            return;
+        }
+        Map<String, Source> indexed = new HashMap<>();
+        for (Source source : sources(catalog)) {
+            indexed.put(source.result.getSource() + ":" + source.result.getId(), source);
+        }
+        currentSources = indexed;
+        sourcesVersion = catalog.getVersion();
+    }
+
+    private boolean render(String key, Source source, AnswerTemplate template, PregeneratedAnswer existing) {
+        String question = template.question(source.title);
+        String rawData = rawDataBuilder.build(source.result, question);
+        if (rawData.isBlank()) {
+            return false;
+        }
+
+        String answer = openAIService.formatResponse(rawData, question, rawDataBuilder.sourceTags(source.result));
+        if (answer == null || answer.isBlank() || answer.equals(rawData)) {
+            // formatResponse returns the raw data when the call fails
+            return false;
+        }
+
+        PregeneratedAnswer entry = existing != null ? existing : new PregeneratedAnswer();
+        entry.setSourceType(source.result.getSource());
+        entry.setSourceId(source.result.getId());
+        entry.setTemplate(template.name());
+        entry.setQuestion(question);
+        entry.setAnswer(answer);
+        entry.setSourceUpdatedAt(source.updatedAt);
+        entry.setSourceHash(source.hash);
+        entry.setModel(model);
+        entry.setGeneratedAt(LocalDateTime.now());
+
+        try {
+            entry = repository.save(entry);
+        } catch (Exception e) {
+            logger.warn("Error saving pre-generated answer {}: {}", key, e.getMessage());
+            return false;
+        }
+        answers.put(key, entry);
+        meterRegistry.counter("chatbot.pregenerated.generated", "template", template.name()).increment();
+        return true;
+    }
+
+    private int removeStale(Set<String> live) {
+        List<PregeneratedAnswer> stale = new ArrayList<>();
+        for (Map.Entry<String, PregeneratedAnswer> entry : answers.entrySet()) {
+            if (!live.contains(entry.getKey())) {
+                stale.add(entry.getValue());
+            }
+        }
+        if (stale.isEmpty()) {
+            return 0;
+        }
+        try {
+            repository.deleteAll(stale);
+        } catch (Exception e) {
+            logger.warn("Error removing stale pre-generated answers: {}", e.getMessage());
+            return 0;
+        }
+        answers.keySet().removeIf(key -> !live.contains(key));
+        return stale.size();
+    }
+
+    private List<Source> sources(CatalogSnapshot catalog) {
+        List<Source> sources = new ArrayList<>();
+
+        for (Faq faq : catalog.getFaqs()) {
+            SearchResult result = new SearchResult("FAQ", faq.getId(), faq.getQuestion(), faq.getAnswer(), 0);
+            result.setRawData(faq);
+            sources.add(new Source(result, faq.getQuestion(), FAQ_TEMPLATES, faq.getUpdatedAt(),
+                                   Objects.hash(faq.getQuestion(), faq.getAnswer())));
+        }
+
+        for (Text text : catalog.getTexts()) {
+            SearchResult result = new SearchResult("TEXT", text.getId(), text.getTitle(), text.getDescription(), 0);
+            result.setRawData(text);
+            sources.add(new Source(result, text.getTitle(), TRAINING_TEMPLATES, text.getUpdatedAt(),
+                                   textHash(text)));
+        }
+
+        for (Training training : catalog.getActiveTrainings()) {
+            Text text = catalog.getTextForTraining(training.getId());
+            if (text == null) {
+                continue; // Nothing to say beyond the title
+            }
+            Map<String, Object> enriched = new HashMap<>();
+            enriched.put("training", training);
+            enriched.put("text", text);
+            SearchResult result = new SearchResult("TRAINING", training.getId(), training.getTitle(),
+                                                   text.getDescription(), 0);
+            result.setRawData(enriched);
+            sources.add(new Source(result, training.getTitle(), TRAINING_TEMPLATES,
+                                   latest(training.getUpdatedAt(), text.getUpdatedAt()),
+                                   Objects.hash(training.getTitle(), textHash(text))));
+        }
+
+        return sources;
+    }
+
+    /**
+     * Query maps to the document: it clearly outranks the runner-up and names
+     * enough of the document's title (FAQ: question) words
+     */
+    private boolean isConfident(SearchResult best, SearchResult runnerUp, String query) {
+        if (best.getRelevanceScore() <= 0) {
+            return false;
+        }
+        if (runnerUp != null && runnerUp.getRelevanceScore() * dominanceRatio > best.getRelevanceScore()) {
+            return false;
+        }
+        double required = "FAQ".equals(best.getSource()) ? minQuestionCoverage : minTitleCoverage;
+        return coverage(best.getTitle(), query) >= required;
+    }
+
+    private double coverage(String title, String query) {
+        List<String> titleWords = words(title);
+        if (titleWords.isEmpty()) {
+            return 0;
+        }
+        List<String> queryWords = words(query);
+        int matched = 0;
+        for (String titleWord : titleWords) {
+            for (String queryWord : queryWords) {
+                if (sameWord(titleWord, queryWord)) {
+                    matched++;
+                    break;
+                }
+            }
+        }
+        return (double) matched / titleWords.size();
+    }
+
+    /**
+     * Query has content words besides the title's and overview words, i.e. it
+     * asks something the GENERAL answer does not cover
+     */
+    private boolean asksBeyondOverview(String title, String query) {
+        List<String> titleWords = words(title);
+        for (String queryWord : words(query)) {
+            boolean known = titleWords.stream().anyMatch(titleWord -> sameWord(titleWord, queryWord))
+                            || OVERVIEW_WORDS.stream().anyMatch(queryWord::startsWith);
+            if (!known) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Prefix match tolerates case suffixes ("python" / "pythonun")
+     */
+    private static boolean sameWord(String titleWord, String queryWord) {
+        return queryWord.startsWith(titleWord)
+               || (titleWord.length() >= 5 && queryWord.length() >= 5
+                   && queryWord.regionMatches(0, titleWord, 0, 5));
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String folded = AzerbaijaniNormalizer.fold(text.toLowerCase(Locale.forLanguageTag("az")));
+        for (String word : folded.split("[^\\p{L}\\p{Nd}]+")) {
+            if (word.length() >= 3) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private String miss(String reason) {
+        meterRegistry.counter("chatbot.pregenerated.requests", "result", "miss", "reason", reason).increment();
+        return null;
+    }
+
+    private static String key(String sourceType, Long sourceId, AnswerTemplate template) {
+        return sourceType + ":" + sourceId + ":" + template.name();
+    }
+
+    private static int textHash(Text text) {
+        return Objects.hash(text.getTitle(), text.getDescription(), text.getInformation(), text.getMoney(),
+                            text.getForWho(), text.getCertificates());
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static final class Source {
+        private final SearchResult result;
+        private final String title;
+        private final List<AnswerTemplate> templates;
+        private final LocalDateTime updatedAt;
+        private final int hash;
+
+        private Source(SearchResult result, String title, List<AnswerTemplate> templates,
+                       LocalDateTime updatedAt, int hash) {
+            this.result = result;
+            this.title = title;
+            this.templates = templates;
+            this.updatedAt = updatedAt;
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package az.dsa.chatbot.llm;
+
+import az.dsa.chatbot.dto.SearchResult;
+import az.dsa.chatbot.entity.Faq;
+import az.dsa.chatbot.entity.Text;
+import az.dsa.chatbot.entity.Training;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the "Məlumat" block of the formatting prompt from a search result.
+ * Shared by the live chat path and the answer pre-generation job so both send
+ * OpenAI the same payload. Long training information is packed into a token
+ * budget by {@link ContextPacker}, keeping the parts relevant to the question.
+ */
+@Component
+public class RawDataBuilder {
+
+    @Autowired
+    private ContextPacker contextPacker;
+
+    // Token budget for a training's "Ətraflı məlumat" section
+    @Value("${chatbot.context.information-tokens:300}")
+    private int informationTokens;
+
+    public String build(SearchResult result, String question) {
+        StringBuilder sb = new StringBuilder();
+
+        if ("FAQ".equals(result.getSource()) && result.getRawData() instanceof Faq) {
+            Faq faq = (Faq) result.getRawData();
+            sb.append("Sual: ").append(faq.getQuestion()).append("\n");
+            sb.append("Cavab: ").append(faq.getAnswer());
+
+        } else if ("TEXT".equals(result.getSource()) && result.getRawData() instanceof Text) {
+            Text text = (Text) result.getRawData();
+            sb.append("Təlim: ").append(text.getTitle()).append("\n\n");
+
+            if (text.getDescription() != null && !text.getDescription().isEmpty()) {
+                sb.append("Təsvir: ").append(text.getDescription()).append("\n\n");
+            }
+
+            if (text.getMoney() != null) {
+                sb.append("Qiymət: ").append(text.getMoney()).append(" AZN\n");
+            }
+
+            if (text.getInformation() != null && !text.getInformation().isEmpty()) {
+                sb.append("\nƏtraflı məlumat:\n").append(information(text, question));
+            }
+
+        } else if (result.getRawData() instanceof Map) {
+            // Enriched Training+Text data
+            @SuppressWarnings("unchecked")
+            Map<String, Object> enriched = (Map<String, Object>) result.getRawData();
+
+            Training training = (Training) enriched.get("training");
+            Text text = (Text) enriched.get("text");
+
+            if (training != null) {
+                sb.append("Təlim: ").append(training.getTitle()).append("\n\n");
+            }
+
+            if (text != null) {
+                if (text.getDescription() != null) {
+                    sb.append("Təsvir: ").append(text.getDescription()).append("\n\n");
+                }
+
+                if (text.getMoney() != null) {
+                    sb.append("Qiymət: ").append(text.getMoney()).append(" AZN\n");
+                }
+
+                if (text.getInformation() != null && !text.getInformation().isEmpty()) {
+                    sb.append("\nƏtraflı məlumat:\n").append(information(text, question));
+                }
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Information text within the token budget, most relevant parts first
+     */
+    public String information(Text text, String question) {
+        return contextPacker.pack(text.getInformation(), question, informationTokens);
+    }
+
+    /**
+     * Catalog rows behind a result, for LLM cache invalidation
+     */
+    public List<String> sourceTags(SearchResult result) {
+        List<String> tags = new ArrayList<>();
+        if (result.getRawData() instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> enriched = (Map<String, Object>) result.getRawData();
+            if (enriched.get("training") instanceof Training) {
+                tags.add(LlmResponseCache.tag("training", ((Training) enriched.get("training")).getId()));
+            }
+            if (enriched.get("text") instanceof Text) {
+                tags.add(LlmResponseCache.tag("text", ((Text) enriched.get("text")).getId()));
+            }
+        } else if (result.getSource() != null && result.getId() != null) {
+            tags.add(LlmResponseCache.tag(result.getSource(), result.getId()));
+        }
+        return tags;
+    }
+}
@@ -0,0 +1,74 @@
+package az.dsa.chatbot.llm;
+
+/**
+ * Local estimate of how many tokens OpenAI's BPE tokenizers (cl100k / o200k)
+ * produce for a text, without shipping the vocabulary.
+ *
+ * Text is split the way those tokenizers pre-split it - a word with its leading
+ * space, digit groups of up to three, punctuation runs, line breaks - and each
+ * piece is costed separately: English-like ASCII words merge into ~4 characters
+ * per token, Azerbaijani letters (two UTF-8 bytes, rarer in the vocabulary)
+ * into far fewer. The estimate errs on the high side, so a packed prompt does
+ * not overrun its budget.
+ */
+public final class TokenEstimator {
+
+    // Characters per token for an ASCII word; a non-ASCII letter counts double
+    private static final double CHARS_PER_TOKEN = 3.5;
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+
+        int tokens = 0;
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            char c = text.charAt(i);
+
+            if (Character.isLetter(c) || (c == ' ' && i + 1 < length && Character.isLetter(text.charAt(i + 1)))) {
+                // Word, with the single leading space the tokenizer attaches to it
+                int weight = 0;
+                if (c == ' ') {
+                    i++;
+                }
+                while (i < length && Character.isLetter(text.charAt(i))) {
+                    weight += text.charAt(i) < 128 ? 1 : 2;
+                    i++;
+                }
+                tokens += Math.max(1, (int) Math.ceil(weight / CHARS_PER_TOKEN));
+
+            } else if (Character.isDigit(c)) {
+                int digits = 0;
+                while (i < length && Character.isDigit(text.charAt(i))) {
+                    digits++;
+                    i++;
+                }
+                tokens += (digits + 2) / 3;
+
+            } else if (Character.isWhitespace(c)) {
+                // A run of spaces or line breaks is usually one token
+                while (i < length && Character.isWhitespace(text.charAt(i))
+                        && !(text.charAt(i) == ' ' && i + 1 < length && Character.isLetter(text.charAt(i + 1)))) {
+                    i++;
+                }
+                tokens++;
+
+            } else {
+                // Punctuation and symbols: common pairs ("**", ".\n", "),") merge
+                int run = 0;
+                while (i < length && !Character.isLetterOrDigit(text.charAt(i))
+                        && !Character.isWhitespace(text.charAt(i))) {
+                    run++;
+                    i++;
+                }
+                tokens += (run + 1) / 2;
+            }
+        }
+        return tokens;
+    }
+}
@@ -11,7 +11,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ChatSessionRepository extends JpaRepository<ChatSession, String> {
+public interface ChatSessionRepository extends JpaRepository<ChatSession, String>, ChatSessionRepositoryCustom {
     
     // Find expired sessions for cleanup
     @Query("SELECT cs FROM ChatSession cs WHERE cs.expiresAt < :now")
@@ -0,0 +1,36 @@
+package az.dsa.chatbot.repository;
+
+import az.dsa.chatbot.entity.ChatSession;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC-level operations on chat_sessions that JPA does not do efficiently
+ */
+public interface ChatSessionRepositoryCustom {
+
+    /**
+     * Insert or update all sessions in one JDBC batch (INSERT ... ON CONFLICT).
+     * Bypasses the persistence context, so no read-before-write is needed.
+     */
+    void upsertAll(List<ChatSession> sessions);
+
+    /**
+     * Ids of up to limit sessions that expired before now, oldest first (expires_at index)
+     */
+    List<String> findExpiredIds(LocalDateTime now, int limit);
+
+    /**
+     * Lock those of the given sessions that are still expired (SELECT ... FOR UPDATE) until the
+     * transaction ends, so none can be renewed in between; returns their ids
+     */
+    List<String> lockExpired(Collection<String> ids, LocalDateTime now);
+
+    /**
+     * Delete the given sessions if they are still expired (one may have been renewed since
+     * it was selected); returns the ids actually deleted
+     */
+    List<String> deleteExpired(Collection<String> ids, LocalDateTime now);
+}
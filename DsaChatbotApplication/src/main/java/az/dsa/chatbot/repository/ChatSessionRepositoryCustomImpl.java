@@ -0,0 +1,112 @@
+package az.dsa.chatbot.repository;
+
+import az.dsa.chatbot.entity.ChatSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Batched upsert for the session write-behind cache, and bounded deletes for the
+ * expired-session reaper
+ */
+public class ChatSessionRepositoryCustomImpl implements ChatSessionRepositoryCustom {
+
+    private static final String COLUMNS =
+        "id, user_data, conversation_history, current_mode, current_step, created_at, last_activity, " +
+        "expires_at, message_count, last_message_time, ip_address, user_agent, is_blocked, history_seq, " +
+        "user_data_bin";
+
+    private static final String UPDATES =
+        "user_data = EXCLUDED.user_data, " +
+        "conversation_history = EXCLUDED.conversation_history, " +
+        "current_mode = EXCLUDED.current_mode, " +
+        "current_step = EXCLUDED.current_step, " +
+        "last_activity = EXCLUDED.last_activity, " +
+        "expires_at = EXCLUDED.expires_at, " +
+        "message_count = EXCLUDED.message_count, " +
+        "last_message_time = EXCLUDED.last_message_time, " +
+        "ip_address = EXCLUDED.ip_address, " +
+        "user_agent = EXCLUDED.user_agent, " +
+        "is_blocked = EXCLUDED.is_blocked, " +
+        "history_seq = EXCLUDED.history_seq, " +
+        "user_data_bin = EXCLUDED.user_data_bin";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.jpa.properties.hibernate.default_schema:}")
+    private String schema;
+
+    @Override
+    public void upsertAll(List<ChatSession> sessions) {
+        if (sessions.isEmpty()) {
+            return;
+        }
+
+        String sql = "INSERT INTO " + table() + " (" + COLUMNS + ") " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                     "ON CONFLICT (id) DO UPDATE SET " + UPDATES;
+
+        jdbcTemplate.batchUpdate(sql, sessions, sessions.size(), (ps, session) -> {
+            ps.setString(1, session.getId());
+            ps.setString(2, session.getUserData());
+            ps.setString(3, session.getConversationHistory());
+            ps.setString(4, session.getCurrentMode());
+            ps.setString(5, session.getCurrentStep());
+            ps.setObject(6, session.getCreatedAt() != null ? session.getCreatedAt() : LocalDateTime.now(),
+                         Types.TIMESTAMP);
+            ps.setObject(7, session.getLastActivity(), Types.TIMESTAMP);
+            ps.setObject(8, session.getExpiresAt(), Types.TIMESTAMP);
+            ps.setObject(9, session.getMessageCount(), Types.INTEGER);
+            ps.setObject(10, session.getLastMessageTime(), Types.TIMESTAMP);
+            ps.setString(11, session.getIpAddress());
+            ps.setString(12, session.getUserAgent());
+            ps.setObject(13, session.getIsBlocked(), Types.BOOLEAN);
+            ps.setObject(14, session.getHistorySeq(), Types.INTEGER);
+            ps.setBytes(15, session.getUserDataBin());
+        });
+    }
+
+    @Override
+    public List<String> findExpiredIds(LocalDateTime now, int limit) {
+        String sql = "SELECT id FROM " + table() + " WHERE expires_at < ? ORDER BY expires_at LIMIT ?";
+        return jdbcTemplate.queryForList(sql, String.class, Timestamp.valueOf(now), limit);
+    }
+
+    @Override
+    public List<String> lockExpired(Collection<String> ids, LocalDateTime now) {
+        return expiredIds("SELECT id FROM " + table() + " WHERE id = ANY (?) AND expires_at < ? FOR UPDATE",
+                          ids, now);
+    }
+
+    @Override
+    public List<String> deleteExpired(Collection<String> ids, LocalDateTime now) {
+        return expiredIds("DELETE FROM " + table() + " WHERE id = ANY (?) AND expires_at < ? RETURNING id",
+                          ids, now);
+    }
+
+    /**
+     * Run a statement taking (ids array, now) that returns session ids
+     */
+    private List<String> expiredIds(String sql, Collection<String> ids, LocalDateTime now) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("varchar", ids.toArray()));
+            ps.setTimestamp(2, Timestamp.valueOf(now));
+            return ps;
+        }, (rs, rowNum) -> rs.getString(1));
+    }
+
+    private String table() {
+        return schema == null || schema.isBlank() ? "chat_sessions" : schema + ".chat_sessions";
+    }
+}
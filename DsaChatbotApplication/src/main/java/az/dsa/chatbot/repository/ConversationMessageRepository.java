@@ -0,0 +1,10 @@
+package az.dsa.chatbot.repository;
+
+import az.dsa.chatbot.entity.ConversationMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ConversationMessageRepository
+        extends JpaRepository<ConversationMessage, Long>, ConversationMessageRepositoryCustom {
+}
@@ -0,0 +1,30 @@
+package az.dsa.chatbot.repository;
+
+import az.dsa.chatbot.entity.ConversationMessage;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC-level operations on chat_messages (append-only conversation history)
+ */
+public interface ConversationMessageRepositoryCustom {
+
+    /**
+     * Insert all messages in one JDBC batch; rows already stored under the same
+     * (session_id, seq) are skipped, so a retried flush is harmless
+     */
+    void insertAll(List<ConversationMessage> messages);
+
+    /**
+     * Last limit messages of a session, oldest first
+     */
+    List<ConversationMessage> findRecent(String sessionId, int limit);
+
+    /**
+     * All messages of the given sessions, ordered by session and seq
+     */
+    List<ConversationMessage> findBySessionIds(Collection<String> sessionIds);
+
+    int deleteBySessionIds(Collection<String> sessionIds);
+}
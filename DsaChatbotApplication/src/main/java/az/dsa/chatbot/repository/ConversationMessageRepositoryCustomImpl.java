@@ -0,0 +1,98 @@
+package az.dsa.chatbot.repository;
+
+import az.dsa.chatbot.entity.ConversationMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Batched inserts and index-ordered reads for chat_messages
+ */
+public class ConversationMessageRepositoryCustomImpl implements ConversationMessageRepositoryCustom {
+
+    private static final RowMapper<ConversationMessage> ROW_MAPPER = (rs, rowNum) -> {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return ConversationMessage.builder()
+            .id(rs.getLong("id"))
+            .sessionId(rs.getString("session_id"))
+            .seq(rs.getInt("seq"))
+            .content(rs.getString("content"))
+            .createdAt(createdAt != null ? createdAt.toLocalDateTime() : null)
+            .build();
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.jpa.properties.hibernate.default_schema:}")
+    private String schema;
+
+    @Override
+    public void insertAll(List<ConversationMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        String sql = "INSERT INTO " + table() + " (session_id, seq, content, created_at) " +
+                     "VALUES (?, ?, ?, ?) ON CONFLICT (session_id, seq) DO NOTHING";
+
+        jdbcTemplate.batchUpdate(sql, messages, messages.size(), (ps, message) -> {
+            ps.setString(1, message.getSessionId());
+            ps.setInt(2, message.getSeq());
+            ps.setString(3, message.getContent());
+            ps.setObject(4, message.getCreatedAt() != null ? message.getCreatedAt() : LocalDateTime.now(),
+                         Types.TIMESTAMP);
+        });
+    }
+
+    @Override
+    public List<ConversationMessage> findRecent(String sessionId, int limit) {
+        // Walks the (session_id, seq) index backwards and stops after limit rows
+        String sql = "SELECT id, session_id, seq, content, created_at FROM " + table() +
+                     " WHERE session_id = ? ORDER BY seq DESC LIMIT ?";
+
+        List<ConversationMessage> messages = jdbcTemplate.query(sql, ROW_MAPPER, sessionId, limit);
+
+        Collections.reverse(messages);
+        return messages;
+    }
+
+    @Override
+    public List<ConversationMessage> findBySessionIds(Collection<String> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return List.of();
+        }
+        String sql = "SELECT id, session_id, seq, content, created_at FROM " + table() +
+                     " WHERE session_id = ANY (?) ORDER BY session_id, seq";
+        return jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("varchar", sessionIds.toArray()));
+            return ps;
+        }, ROW_MAPPER);
+    }
+
+    @Override
+    public int deleteBySessionIds(Collection<String> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return 0;
+        }
+        String sql = "DELETE FROM " + table() + " WHERE session_id = ANY (?)";
+        return jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("varchar", sessionIds.toArray()));
+            return ps;
+        });
+    }
+
+    private String table() {
+        return schema == null || schema.isBlank() ? "chat_messages" : schema + ".chat_messages";
+    }
+}
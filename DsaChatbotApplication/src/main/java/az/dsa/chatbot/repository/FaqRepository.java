@@ -18,6 +18,12 @@ public interface FaqRepository extends JpaRepository<Faq, Long> {
            "LOWER(f.answer) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<Faq> searchByKeyword(@Param("keyword") String keyword);
     
+    /**
+     * Match any of the space-separated keywords in one query
+     * (named native query on the entity). Each row is {entity, matched keyword count}.
+     */
+    List<Object[]> searchByKeywords(@Param("keywords") String keywords);
+    
     // Full-text search using PostgreSQL
     @Query(value = "SELECT * FROM faq WHERE " +
            "to_tsvector('simple', question || ' ' || answer) @@ plainto_tsquery('simple', :query) " +
@@ -0,0 +1,41 @@
+package az.dsa.chatbot.repository;
+
+import az.dsa.chatbot.entity.LlmCacheEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LlmCacheEntryRepository extends JpaRepository<LlmCacheEntry, String> {
+    
+    // Drop entries past their TTL
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM LlmCacheEntry e WHERE e.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+    
+    // Keys of entries built from a catalog row (tag like "text:12"), via the tag index
+    @Query("SELECT DISTINCT e.cacheKey FROM LlmCacheEntry e JOIN e.sourceTags t WHERE t = :tag")
+    List<String> findKeysBySourceTag(@Param("tag") String tag);
+    
+    // Drop entries built from a catalog row, tag rows included
+    @Transactional
+    default int deleteBySourceTag(String tag) {
+        List<String> keys = findKeysBySourceTag(tag);
+        if (!keys.isEmpty()) {
+            deleteAllByIdInBatch(keys);
+        }
+        return keys.size();
+    }
+    
+    // Newest live entries, to warm the in-heap tier at startup
+    @Query("SELECT e FROM LlmCacheEntry e WHERE e.expiresAt > :now ORDER BY e.createdAt DESC")
+    List<LlmCacheEntry> findLive(@Param("now") LocalDateTime now, Pageable page);
+}
@@ -0,0 +1,9 @@
+package az.dsa.chatbot.repository;
+
+import az.dsa.chatbot.entity.PregeneratedAnswer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PregeneratedAnswerRepository extends JpaRepository<PregeneratedAnswer, Long> {
+}
@@ -20,6 +20,12 @@ public interface TextRepository extends JpaRepository<Text, Long> {
            "LOWER(t.information) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<Text> searchByKeyword(@Param("keyword") String keyword);
     
+    /**
+     * Match any of the space-separated keywords in one query
+     * (named native query on the entity). Each row is {entity, matched keyword count}.
+     */
+    List<Object[]> searchByKeywords(@Param("keywords") String keywords);
+    
     /**
      * Find by trainings ID
      */
@@ -39,6 +39,12 @@ public interface TrainingRepository extends JpaRepository<Training, Long> {
     @Query("SELECT t FROM Training t WHERE LOWER(t.title) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<Training> searchByKeyword(@Param("keyword") String keyword);
     
+    /**
+     * Match any of the space-separated keywords in one query
+     * (named native query on the entity). Each row is {entity, matched keyword count}.
+     */
+    List<Object[]> searchByKeywords(@Param("keywords") String keywords);
+    
     
     /**
      * Find all active trainings
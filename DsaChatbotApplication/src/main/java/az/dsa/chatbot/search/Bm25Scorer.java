@@ -0,0 +1,135 @@
+package az.dsa.chatbot.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BM25F scorer over an {@link InvertedIndex}.
+ *
+ * Per query keyword, term frequencies are combined across fields with a
+ * per-field boost and length normalization, then saturated once:
+ *
+ *   tf~   = sum_f boost_f * tf_f / (1 - b + b * len_f / avgLen_f)
+ *   score = sum_k idf_k * tf~ * (k1 + 1) / (tf~ + k1)
+ *
+ * Field lengths and averages are precomputed by the index, so scoring a
+ * posting is a few array lookups. Keywords are prefix-expanded the same way
+ * retrieval does; the expanded terms count as one query term.
+ *
+ * Raw BM25 depends on the index it was computed in (document count, average
+ * lengths, IDF), and FAQ, Text and Training results are merged into one list.
+ * Scores are therefore returned as a fraction of the query's ceiling in that
+ * index - sum_k idf_k * (k1 + 1), the score of a document saturating every
+ * keyword, with df = 0 for keywords the index lacks - times {@code scale},
+ * which puts them on the range of the heuristic calculateRelevance scores.
+ */
+@Component
+public class Bm25Scorer {
+
+    @Value("${chatbot.search.bm25.k1:1.2}")
+    private double k1;
+
+    @Value("${chatbot.search.bm25.b:0.75}")
+    private double b;
+
+    @Value("${chatbot.search.bm25.boost.title:3.0}")
+    private double titleBoost;
+
+    @Value("${chatbot.search.bm25.boost.description:1.5}")
+    private double descriptionBoost;
+
+    @Value("${chatbot.search.bm25.boost.information:1.0}")
+    private double informationBoost;
+
+    @Value("${chatbot.search.bm25.boost.question:3.0}")
+    private double questionBoost;
+
+    @Value("${chatbot.search.bm25.boost.answer:1.0}")
+    private double answerBoost;
+
+    // Score of a document matching every query keyword as strongly as possible
+    @Value("${chatbot.search.bm25.scale:30.0}")
+    private double scale;
+
+    /**
+     * Score every document that matches at least one keyword
+     *
+     * @return document ordinal -> normalized BM25F score (0 to scale), in first-match order
+     */
+    public Map<Integer, Double> score(InvertedIndex<?> index, List<String> keywords) {
+        Map<Integer, Double> scores = new LinkedHashMap<>();
+        if (keywords == null || keywords.isEmpty() || index.documentCount() == 0) {
+            return scores;
+        }
+
+        double[] boosts = new double[index.fieldCount()];
+        for (int field = 0; field < boosts.length; field++) {
+            boosts[field] = boost(index.fieldName(field));
+        }
+
+        int documentCount = index.documentCount();
+        double ceiling = 0;
+
+        for (String keyword : keywords) {
+            for (String token : TextTokenizer.tokenize(keyword)) {
+                // Weighted, length-normalized term frequency per document
+                Map<Integer, Double> weightedTf = new HashMap<>();
+
+                for (String term : index.expandPrefix(token)) {
+                    for (InvertedIndex.Posting posting : index.postings(term).getPostings()) {
+                        int field = posting.getField();
+                        int document = posting.getDocument();
+
+                        double average = index.averageFieldLength(field);
+                        double norm = average > 0
+                                ? 1 - b + b * index.fieldLength(field, document) / average
+                                : 1.0;
+
+                        weightedTf.merge(document, boosts[field] * posting.getTermFrequency() / norm, Double::sum);
+                    }
+                }
+
+                double idf = idf(documentCount, weightedTf.size());
+                ceiling += idf * (k1 + 1);
+
+                for (Map.Entry<Integer, Double> entry : weightedTf.entrySet()) {
+                    double tf = entry.getValue();
+                    scores.merge(entry.getKey(), idf * tf * (k1 + 1) / (tf + k1), Double::sum);
+                }
+            }
+        }
+
+        double factor = scale / ceiling;
+        scores.replaceAll((document, score) -> score * factor);
+        return scores;
+    }
+
+    /**
+     * Robertson-Sparck Jones IDF, kept positive for very common terms
+     */
+    private double idf(int documentCount, int documentFrequency) {
+        return Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private double boost(String fieldName) {
+        switch (fieldName) {
+            case "title":
+                return titleBoost;
+            case "description":
+                return descriptionBoost;
+            case "information":
+                return informationBoost;
+            case "question":
+                return questionBoost;
+            case "answer":
+                return answerBoost;
+            default:
+                return 1.0;
+        }
+    }
+}
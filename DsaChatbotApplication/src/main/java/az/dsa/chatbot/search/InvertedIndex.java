@@ -0,0 +1,322 @@
+package az.dsa.chatbot.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable in-memory inverted index over a set of documents.
+ *
+ * Every document has a fixed number of named fields (e.g. title, description).
+ * Each term maps to a posting list with one entry per (document, field) pair,
+ * holding the term frequency and the term positions inside that field.
+ *
+ * Terms are kept in a sorted array so a keyword can be expanded to every term
+ * that starts with it. Azerbaijani is agglutinative ("python" / "python-un" /
+ * "kursunun"), and the old LIKE '%kw%' queries matched those suffixed forms.
+ *
+ * @param <T> payload type (the original entity)
+ */
+public final class InvertedIndex<T> {
+
+    /** Upper bound on how many index terms a single keyword may expand to */
+    private static final int MAX_PREFIX_EXPANSION = 64;
+
+    private final String[] fieldNames;
+    private final List<Document<T>> documents;
+    private final String[] terms;
+    private final PostingList[] postings;
+    private final Map<String, Integer> termOrdinals;
+    private final int[][] fieldLengths;
+    private final double[] averageFieldLengths;
+
+    private InvertedIndex(String[] fieldNames, List<Document<T>> documents,
+                          TreeMap<String, List<Posting>> termPostings, int[][] fieldLengths) {
+        this.fieldNames = fieldNames;
+        this.documents = Collections.unmodifiableList(documents);
+        this.fieldLengths = fieldLengths;
+
+        this.terms = new String[termPostings.size()];
+        this.postings = new PostingList[termPostings.size()];
+        this.termOrdinals = new HashMap<>(termPostings.size() * 2);
+
+        int ordinal = 0;
+        for (Map.Entry<String, List<Posting>> entry : termPostings.entrySet()) {
+            terms[ordinal] = entry.getKey();
+            postings[ordinal] = new PostingList(entry.getValue().toArray(new Posting[0]));
+            termOrdinals.put(entry.getKey(), ordinal);
+            ordinal++;
+        }
+
+        this.averageFieldLengths = new double[fieldNames.length];
+        for (int field = 0; field < fieldNames.length; field++) {
+            long total = 0;
+            for (int length : fieldLengths[field]) {
+                total += length;
+            }
+            averageFieldLengths[field] = documents.isEmpty() ? 0.0 : (double) total / documents.size();
+        }
+    }
+
+    public static <T> Builder<T> builder(String... fieldNames) {
+        return new Builder<>(fieldNames);
+    }
+
+    // ===== LOOKUPS =====
+
+    /**
+     * Posting list for an exact term, or null if the term is not indexed
+     */
+    public PostingList postings(String term) {
+        Integer ordinal = termOrdinals.get(term);
+        return ordinal != null ? postings[ordinal] : null;
+    }
+
+    /**
+     * All indexed terms starting with the given prefix (the prefix itself included)
+     */
+    public List<String> expandPrefix(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        int from = Arrays.binarySearch(terms, prefix);
+        if (from < 0) {
+            from = -from - 1;
+        }
+
+        List<String> expanded = new ArrayList<>();
+        for (int i = from; i < terms.length && expanded.size() < MAX_PREFIX_EXPANSION; i++) {
+            if (!terms[i].startsWith(prefix)) {
+                break;
+            }
+            expanded.add(terms[i]);
+        }
+        return expanded;
+    }
+
+    /**
+     * Match query keywords against the index.
+     * A keyword matches a document if every token of the keyword is a prefix
+     * of some term in the document (any field).
+     *
+     * @return document ordinal -> number of matched keywords, in first-match order
+     */
+    public Map<Integer, Integer> matchKeywords(List<String> keywords) {
+        Map<Integer, Integer> matches = new LinkedHashMap<>();
+        if (keywords == null) {
+            return matches;
+        }
+
+        for (String keyword : keywords) {
+            List<String> tokens = TextTokenizer.tokenize(keyword);
+            if (tokens.isEmpty()) {
+                continue;
+            }
+
+            Map<Integer, Integer> tokenHits = new HashMap<>();
+            for (String token : tokens) {
+                boolean[] seen = new boolean[documents.size()];
+                for (String term : expandPrefix(token)) {
+                    for (Posting posting : postings(term).getPostings()) {
+                        if (!seen[posting.getDocument()]) {
+                            seen[posting.getDocument()] = true;
+                            tokenHits.merge(posting.getDocument(), 1, Integer::sum);
+                        }
+                    }
+                }
+            }
+
+            for (Map.Entry<Integer, Integer> hit : tokenHits.entrySet()) {
+                if (hit.getValue() == tokens.size()) {
+                    matches.merge(hit.getKey(), 1, Integer::sum);
+                }
+            }
+        }
+
+        return matches;
+    }
+
+    // ===== ACCESSORS =====
+
+    public Document<T> document(int ordinal) {
+        return documents.get(ordinal);
+    }
+
+    public int documentCount() {
+        return documents.size();
+    }
+
+    public int fieldCount() {
+        return fieldNames.length;
+    }
+
+    public String fieldName(int field) {
+        return fieldNames[field];
+    }
+
+    public int fieldLength(int field, int document) {
+        return fieldLengths[field][document];
+    }
+
+    public double averageFieldLength(int field) {
+        return averageFieldLengths[field];
+    }
+
+    public int termCount() {
+        return terms.length;
+    }
+
+    public List<String> terms() {
+        return Collections.unmodifiableList(Arrays.asList(terms));
+    }
+
+    // ===== NESTED TYPES =====
+
+    /**
+     * Indexed document: database id plus the original entity
+     */
+    public static final class Document<T> {
+        private final Long id;
+        private final T payload;
+
+        Document(Long id, T payload) {
+            this.id = id;
+            this.payload = payload;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+    }
+
+    /**
+     * One (document, field) occurrence of a term
+     */
+    public static final class Posting {
+        private final int document;
+        private final int field;
+        private final int[] positions;
+
+        Posting(int document, int field, int[] positions) {
+            this.document = document;
+            this.field = field;
+            this.positions = positions;
+        }
+
+        public int getDocument() {
+            return document;
+        }
+
+        public int getField() {
+            return field;
+        }
+
+        public int getTermFrequency() {
+            return positions.length;
+        }
+
+        public int[] getPositions() {
+            return positions;
+        }
+    }
+
+    /**
+     * Postings of a single term, ordered by document then field
+     */
+    public static final class PostingList {
+        private final Posting[] postings;
+        private final int documentFrequency;
+
+        PostingList(Posting[] postings) {
+            this.postings = postings;
+
+            int df = 0;
+            int lastDocument = -1;
+            for (Posting posting : postings) {
+                if (posting.document != lastDocument) {
+                    df++;
+                    lastDocument = posting.document;
+                }
+            }
+            this.documentFrequency = df;
+        }
+
+        public Posting[] getPostings() {
+            return postings;
+        }
+
+        public int getDocumentFrequency() {
+            return documentFrequency;
+        }
+    }
+
+    /**
+     * Collects documents and builds the immutable index
+     */
+    public static final class Builder<T> {
+        private final String[] fieldNames;
+        private final List<Document<T>> documents = new ArrayList<>();
+        private final List<int[]> lengths = new ArrayList<>();
+        private final TreeMap<String, List<Posting>> termPostings = new TreeMap<>();
+
+        private Builder(String... fieldNames) {
+            if (fieldNames == null || fieldNames.length == 0) {
+                throw new IllegalArgumentException("At least one field is required");
+            }
+            this.fieldNames = fieldNames.clone();
+        }
+
+        /**
+         * Add a document; field values must follow the builder's field order
+         */
+        public Builder<T> add(Long id, T payload, String... fieldValues) {
+            if (fieldValues.length != fieldNames.length) {
+                throw new IllegalArgumentException(
+                    "Expected " + fieldNames.length + " field values but got " + fieldValues.length);
+            }
+
+            int ordinal = documents.size();
+            documents.add(new Document<>(id, payload));
+            int[] documentLengths = new int[fieldNames.length];
+
+            for (int field = 0; field < fieldNames.length; field++) {
+                List<String> tokens = TextTokenizer.tokenize(fieldValues[field]);
+                documentLengths[field] = tokens.size();
+
+                Map<String, List<Integer>> positions = new LinkedHashMap<>();
+                for (int position = 0; position < tokens.size(); position++) {
+                    positions.computeIfAbsent(tokens.get(position), t -> new ArrayList<>()).add(position);
+                }
+
+                for (Map.Entry<String, List<Integer>> entry : positions.entrySet()) {
+                    int[] termPositions = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+                    termPostings.computeIfAbsent(entry.getKey(), t -> new ArrayList<>())
+                            .add(new Posting(ordinal, field, termPositions));
+                }
+            }
+
+            lengths.add(documentLengths);
+            return this;
+        }
+
+        public InvertedIndex<T> build() {
+            int[][] fieldLengths = new int[fieldNames.length][documents.size()];
+            for (int document = 0; document < lengths.size(); document++) {
+                for (int field = 0; field < fieldNames.length; field++) {
+                    fieldLengths[field][document] = lengths.get(document)[field];
+                }
+            }
+            return new InvertedIndex<>(fieldNames, new ArrayList<>(documents), termPostings, fieldLengths);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package az.dsa.chatbot.search;
+
+import az.dsa.chatbot.catalog.CatalogRefreshedEvent;
+import az.dsa.chatbot.catalog.CatalogService;
+import az.dsa.chatbot.catalog.CatalogSnapshot;
+import az.dsa.chatbot.entity.Faq;
+import az.dsa.chatbot.entity.Text;
+import az.dsa.chatbot.entity.Training;
+import az.dsa.chatbot.util.FuzzyMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the in-memory inverted indexes over FAQ, Text and Training.
+ *
+ * Indexes are built from the catalog snapshot and rebuilt whenever a new
+ * snapshot is published, so retrieval in SearchServiceImpl does not touch the
+ * database. A rebuild swaps all three indexes at once; readers never see a
+ * half-built state.
+ */
+@Component
+public class SearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndex.class);
+
+    // Field layouts
+    public static final String[] FAQ_FIELDS = {"question", "answer"};
+    public static final String[] TEXT_FIELDS = {"title", "description", "information"};
+    public static final String[] TRAINING_FIELDS = {"title"};
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private FuzzyMatcher fuzzyMatcher;
+
+    private volatile Indexes indexes;
+
+    /**
+     * Whether the indexes have been built at least once
+     */
+    public boolean isReady() {
+        return indexes != null;
+    }
+
+    public InvertedIndex<Faq> faqIndex() {
+        return current().faq;
+    }
+
+    public InvertedIndex<Text> textIndex() {
+        return current().text;
+    }
+
+    /**
+     * Index over active trainings only
+     */
+    public InvertedIndex<Training> trainingIndex() {
+        return current().training;
+    }
+
+    @EventListener
+    public void onCatalogRefreshed(CatalogRefreshedEvent event) {
+        rebuild(event.getSnapshot());
+    }
+
+    /**
+     * Rebuild all indexes from a catalog snapshot and swap them in
+     */
+    public synchronized void rebuild(CatalogSnapshot catalog) {
+        long start = System.currentTimeMillis();
+
+        try {
+            List<Faq> faqs = catalog.getFaqs();
+            List<Text> texts = catalog.getTexts();
+            List<Training> trainings = catalog.getActiveTrainings();
+
+            InvertedIndex.Builder<Faq> faqBuilder = InvertedIndex.builder(FAQ_FIELDS);
+            for (Faq faq : faqs) {
+                faqBuilder.add(faq.getId(), faq, faq.getQuestion(), faq.getAnswer());
+            }
+
+            InvertedIndex.Builder<Text> textBuilder = InvertedIndex.builder(TEXT_FIELDS);
+            for (Text text : texts) {
+                textBuilder.add(text.getId(), text, text.getTitle(), text.getDescription(), text.getInformation());
+            }
+
+            InvertedIndex.Builder<Training> trainingBuilder = InvertedIndex.builder(TRAINING_FIELDS);
+            for (Training training : trainings) {
+                trainingBuilder.add(training.getId(), training, training.getTitle());
+            }
+
+            Indexes rebuilt = new Indexes(faqBuilder.build(), textBuilder.build(), trainingBuilder.build());
+            indexes = rebuilt;
+
+            // Typo dictionary follows the indexed vocabulary
+            fuzzyMatcher.rebuildDictionary(vocabulary(rebuilt));
+
+            logger.info("Search index built from catalog v{} in {} ms - FAQ: {}, Text: {}, Training: {} documents ({} terms)",
+                    catalog.getVersion(), System.currentTimeMillis() - start,
+                    rebuilt.faq.documentCount(), rebuilt.text.documentCount(), rebuilt.training.documentCount(),
+                    rebuilt.faq.termCount() + rebuilt.text.termCount() + rebuilt.training.termCount());
+
+        } catch (Exception e) {
+            // Keep serving the previous indexes if the rebuild fails
+            logger.error("Error building search index: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Term -> document frequency across all indexes
+     */
+    private Map<String, Integer> vocabulary(Indexes indexes) {
+        Map<String, Integer> vocabulary = new HashMap<>();
+        for (InvertedIndex<?> index : List.of(indexes.faq, indexes.text, indexes.training)) {
+            for (String term : index.terms()) {
+                vocabulary.merge(term, index.postings(term).getDocumentFrequency(), Integer::sum);
+            }
+        }
+        return vocabulary;
+    }
+
+    private Indexes current() {
+        Indexes current = indexes;
+        if (current == null) {
+            // Loading the catalog publishes the event that builds the indexes
+            CatalogSnapshot catalog = catalogService.current();
+            if (indexes == null) {
+                rebuild(catalog);
+            }
+            current = indexes;
+            if (current == null) {
+                throw new IllegalStateException("Search index is not available");
+            }
+        }
+        return current;
+    }
+
+    private static final class Indexes {
+        private final InvertedIndex<Faq> faq;
+        private final InvertedIndex<Text> text;
+        private final InvertedIndex<Training> training;
+
+        private Indexes(InvertedIndex<Faq> faq, InvertedIndex<Text> text, InvertedIndex<Training> training) {
+            this.faq = faq;
+            this.text = text;
+            this.training = training;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package az.dsa.chatbot.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits text into lowercase terms for the search index.
+ * Letters and digits form terms, everything else is a separator,
+ * so "Python-u," and "python" share the same leading term.
+ */
+public final class TextTokenizer {
+
+    private TextTokenizer() {
+    }
+
+    /**
+     * Tokenize text into lowercase terms (in order, duplicates kept)
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        String lower = text.toLowerCase();
+        List<String> terms = new ArrayList<>();
+
+        int start = -1;
+        for (int i = 0; i < lower.length(); i++) {
+            if (Character.isLetterOrDigit(lower.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                terms.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+
+        if (start >= 0) {
+            terms.add(lower.substring(start));
+        }
+
+        return terms;
+    }
+}
@@ -3,6 +3,8 @@ package az.dsa.chatbot.service;
 import az.dsa.chatbot.dto.ChatRequest;
 import az.dsa.chatbot.dto.ChatResponse;
 
+import java.util.function.Consumer;
+
 public interface ChatService {
     
     /**
@@ -10,6 +12,12 @@ public interface ChatService {
      */
     ChatResponse processMessage(ChatRequest request);
     
+    /**
+     * Process incoming chat message, handing reply tokens to onToken as they are
+     * generated. The session is saved before this returns
+     */
+    ChatResponse processMessageStreaming(ChatRequest request, Consumer<String> onToken);
+    
     /**
      * Reset user session
      */
@@ -9,6 +9,18 @@ public interface IntentService {
      */
     Intent determineIntent(String normalizedText);
     
+    /**
+     * Determine intent without an AI call: keywords, then the local classifier
+     * Returns UNCLEAR when neither is confident
+     */
+    Intent determineIntentLocally(String normalizedText);
+    
+    /**
+     * Record an intent decided by the AI (e.g. the combined analysis call),
+     * as a training example for the local classifier
+     */
+    void recordIntent(String normalizedText, Intent intent);
+    
     /**
      * Check if keywords match intent
      */
@@ -1,7 +1,20 @@
 package az.dsa.chatbot.service;
 
+import az.dsa.chatbot.dto.MessageAnalysis;
+
+import java.util.List;
+import java.util.function.Consumer;
+
 public interface OpenAIService {
     
+    /**
+     * Normalize, classify and extract entities in one call
+     * (replaces normalizeText + detectIntent when analysis-mode=combined).
+     * Returns null if the call fails or the reply is not valid JSON,
+     * so the caller can fall back to the stepwise calls.
+     */
+    MessageAnalysis analyzeMessage(String text);
+    
     /**
      * Normalize text (fix spelling, grammar)
      * Input: "piton kursu ne qdr ckr?"
@@ -11,7 +24,8 @@ public interface OpenAIService {
     
     /**
      * Detect intent from message
-     * Returns: contact, consult, query, trainer, greeting, unclear
+     * Returns: contact, consult, query, trainer, greeting, unclear,
+     * or null if the call failed or the reply was not one of these
      */
     String detectIntent(String normalizedText);
     
@@ -22,6 +36,19 @@ public interface OpenAIService {
      */
     String formatResponse(String rawData, String userQuestion);
     
+    /**
+     * Format response; sourceTags name the catalog rows the data came from
+     * ("text:12", "faq:5") so cached answers are dropped when those rows change
+     */
+    String formatResponse(String rawData, String userQuestion, List<String> sourceTags);
+    
+    /**
+     * Format response as a stream: each token is handed to onToken as it arrives.
+     * Returns the full text once the stream ends
+     */
+    String formatResponseStreaming(String rawData, String userQuestion, List<String> sourceTags,
+                                   Consumer<String> onToken);
+    
     /**
      * Check if question is ambiguous
      */
@@ -27,7 +27,7 @@ public interface SearchService {
     List<String> extractKeywords(String query);
     
     /**
-     * Calculate relevance score
+     * Calculate relevance score (heuristic ranking mode)
      */
     double calculateRelevance(String query, String content);
     
@@ -14,11 +14,6 @@ public interface SessionService {
      */
     SessionData getSession(String sessionId);
     
-    /**
-     * Update session activity timestamp
-     */
-    void updateSessionActivity(String sessionId);
-    
     /**
      * Save session data
      */
@@ -40,7 +35,7 @@ public interface SessionService {
     void cleanExpiredSessions();
     
     /**
-     * Get total active sessions count
+     * Sessions with a turn within the session timeout (live count from memory)
      */
     int getActiveSessionsCount();
 }
\ No newline at end of file
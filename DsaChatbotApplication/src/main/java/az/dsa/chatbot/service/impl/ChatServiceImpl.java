@@ -1,7 +1,9 @@
 package az.dsa.chatbot.service.impl;
 
+import az.dsa.chatbot.catalog.CatalogService;
 import az.dsa.chatbot.dto.ChatRequest;
 import az.dsa.chatbot.dto.ChatResponse;
+import az.dsa.chatbot.dto.MessageAnalysis;
 import az.dsa.chatbot.dto.SearchFilters;
 import az.dsa.chatbot.dto.SearchResult;
 import az.dsa.chatbot.dto.SessionData;
@@ -10,6 +12,9 @@ import az.dsa.chatbot.entity.Graduate;
 import az.dsa.chatbot.entity.Text;
 import az.dsa.chatbot.entity.Trainer;
 import az.dsa.chatbot.entity.Training;
+import az.dsa.chatbot.exception.LlmUnavailableException;
+import az.dsa.chatbot.llm.PregeneratedAnswerService;
+import az.dsa.chatbot.llm.RawDataBuilder;
 import az.dsa.chatbot.model.Intent;
 import az.dsa.chatbot.model.Mode;
 import az.dsa.chatbot.service.ChatService;
@@ -21,18 +26,23 @@ import az.dsa.chatbot.service.RecommendationService;
 import az.dsa.chatbot.service.SearchService;
 import az.dsa.chatbot.service.SessionService;
 import az.dsa.chatbot.service.TrainerService;
-import az.dsa.chatbot.util.TrainingTextMapper;
+import az.dsa.chatbot.session.SessionLocks;
+import az.dsa.chatbot.util.AzerbaijaniNormalizer;
+import az.dsa.chatbot.util.Deadline;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 public class ChatServiceImpl implements ChatService {
@@ -52,7 +62,16 @@ public class ChatServiceImpl implements ChatService {
 	private SearchService searchService;
 
 	@Autowired
-	private TrainingTextMapper trainingTextMapper;
+	private CatalogService catalogService;
+
+	@Autowired
+	private RawDataBuilder rawDataBuilder;
+
+	@Autowired
+	private PregeneratedAnswerService pregeneratedAnswers;
+
+	@Autowired
+	private SessionLocks sessionLocks;
 	
 	@Autowired
 	private LeadService leadService;
@@ -60,6 +79,9 @@ public class ChatServiceImpl implements ChatService {
 	@Autowired
 	private RecommendationService recommendationService;
 	
+	@Autowired
+	private AzerbaijaniNormalizer textNormalizer;
+	
 	// my false addition check it later important ****************************************************
 	// ***********************************************************************************************
 	// ***********************************************************************************************
@@ -72,6 +94,14 @@ public class ChatServiceImpl implements ChatService {
 	@Autowired(required = false)
 	private GraduateService graduateService;
 	
+	// combined: one OpenAI call for normalization + intent + entities
+	// stepwise: separate normalizeText and detectIntent calls (fallback)
+	@Value("${chatbot.pipeline.analysis-mode:combined}")
+	private String analysisMode;
+	
+	// Set while processMessageStreaming runs: the LLM formatting step sends tokens here
+	private final ThreadLocal<TokenStream> tokenSink = new ThreadLocal<>();
+	
 	// ***********************************************************************************************
 	// ***********************************************************************************************
 	
@@ -83,8 +113,41 @@ public class ChatServiceImpl implements ChatService {
 	// @Autowired
 	// private IntentService intentService;
 
+	@Override
+	public ChatResponse processMessageStreaming(ChatRequest request, Consumer<String> onToken) {
+		TokenStream stream = new TokenStream(onToken);
+		tokenSink.set(stream);
+		ChatResponse response;
+		try {
+			response = processMessage(request);
+		} finally {
+			tokenSink.remove();
+		}
+
+		if (stream.disconnect != null) {
+			// The turn was saved with the part the client received; nobody is listening for the rest
+			throw stream.disconnect;
+		}
+
+		// Replies built without the LLM (and text appended after it) are sent as one
+		// last chunk; if the reply diverged from what was streamed, the final event wins
+		String reply = response.getReply() != null ? response.getReply() : "";
+		String prefix = stream.delivered.toString().strip();
+		if (stream.delivered.length() == 0) {
+			onToken.accept(reply);
+		} else if (reply.startsWith(prefix) && reply.length() > prefix.length()) {
+			onToken.accept(reply.substring(prefix.length()));
+		}
+		return response;
+	}
+
 	@Override
 	public ChatResponse processMessage(ChatRequest request) {
+		// Turns of one session run in order: each loads, mutates and saves the whole session
+		return sessionLocks.withLock(request.getSessionId(), () -> processTurn(request));
+	}
+
+	private ChatResponse processTurn(ChatRequest request) {
 		String sessionId = request.getSessionId();
 		String message = request.getMessage().trim();
 
@@ -124,13 +187,19 @@ public class ChatServiceImpl implements ChatService {
 		// Save session
 		sessionService.saveSession(session);
 
+		// Report stages skipped or cut short to stay within the turn deadline
+		Deadline deadline = Deadline.current();
+		if (deadline.isBounded()) {
+			response.setDegradations(deadline.getDegradations());
+		}
+
 		return response;
 	}
 
 	@Override
 	public void resetSession(String sessionId) {
 		logger.info("Resetting session: {}", maskSessionId(sessionId));
-		sessionService.deleteSession(sessionId);
+		sessionLocks.runWithLock(sessionId, () -> sessionService.deleteSession(sessionId));
 	}
 
 	@Override
@@ -193,8 +262,25 @@ public class ChatServiceImpl implements ChatService {
 
 	private ChatResponse handleInitialMessage(SessionData session, String message) {
 
-		// Step 1: Normalize text
-		String normalizedText = openAIService.normalizeText(message);
+		// Step 1: Normalize locally; if unsure, analyze (normalize + classify) in one call,
+		// or normalize only in stepwise mode
+		MessageAnalysis analysis = null;
+		String normalizedText = null;
+
+		if ("combined".equalsIgnoreCase(analysisMode)) {
+			AzerbaijaniNormalizer.Result local = textNormalizer.normalize(message);
+			if (textNormalizer.shouldCallLlm(local)) {
+				analysis = openAIService.analyzeMessage(message);
+			} else {
+				normalizedText = local.getText();
+			}
+		}
+
+		if (analysis != null) {
+			normalizedText = analysis.getNormalizedText();
+		} else if (normalizedText == null) {
+			normalizedText = openAIService.normalizeText(message);
+		}
 		logger.debug("Normalized: {} -> {}", message, normalizedText);
 
 		// Step 2: Check if ambiguous
@@ -203,8 +289,10 @@ public class ChatServiceImpl implements ChatService {
 					+ "• Machine Learning təlimləri\n" + "• AI və Deep Learning\n" + "• Qeydiyyat və əlaqə");
 		}
 
-		// Step 3: Determine intent
-		Intent intent = intentService.determineIntent(normalizedText);
+		// Step 3: Determine intent (keywords, local classifier, then the analysis or a separate AI call)
+		Intent intent = analysis != null
+				? resolveIntent(normalizedText, analysis)
+				: intentService.determineIntent(normalizedText);
 		logger.info("Detected intent: {}", intent);
 
 		// Step 4: Route based on intent
@@ -227,7 +315,7 @@ public class ChatServiceImpl implements ChatService {
 
 		case QUERY:
 		case TRAINER:
-			return handleQueryIntent(session, normalizedText);
+			return handleQueryIntent(session, normalizedText, analysis);
 
 		case UNCLEAR:
 		default:
@@ -238,18 +326,34 @@ public class ChatServiceImpl implements ChatService {
 		}
 	}
 
+	private Intent resolveIntent(String normalizedText, MessageAnalysis analysis) {
+		Intent localIntent = intentService.determineIntentLocally(normalizedText);
+		if (localIntent != Intent.UNCLEAR) {
+			return localIntent;
+		}
+		if (analysis.getIntent() == null) {
+			return Intent.UNCLEAR;
+		}
+		Intent intent = Intent.fromString(analysis.getIntent());
+		intentService.recordIntent(normalizedText, intent);
+		return intent;
+	}
+
 	// ******************
 
-	private ChatResponse handleQueryIntent(SessionData session, String normalizedText) {
+	private ChatResponse handleQueryIntent(SessionData session, String normalizedText, MessageAnalysis analysis) {
 	    logger.info("Handling query: {}", normalizedText);
 	    
-	    // Detect query type
+	    // Detect query type; the analysis only decides when no keyword matched
 	    String queryType = searchService.detectQueryType(normalizedText);
+	    if ("TRAINING".equals(queryType) && analysis != null && analysis.getQueryType() != null) {
+	        queryType = analysis.getQueryType();
+	    }
 	    logger.debug("Query type detected: {}", queryType);
 	    
 	    switch (queryType) {
 	        case "TRAINER":
-	            return handleTrainerQuery(session, normalizedText);
+	            return handleTrainerQuery(session, normalizedText, analysis);
 	            
 	        case "GRADUATE":
 	            return handleGraduateQuery(session, normalizedText);
@@ -258,13 +362,13 @@ public class ChatServiceImpl implements ChatService {
 	            return handleBootcampQuery(session);
 	            
 	        case "PRICE":
-	            return handlePriceQuery(session, normalizedText);
+	            return handlePriceQuery(session, normalizedText, analysis);
 	            
 	        case "SCHEDULE":
-	            return handleScheduleQuery(session, normalizedText);
+	            return handleScheduleQuery(session, normalizedText, analysis);
 	            
 	        default:
-	            return handleTrainingQuery(session, normalizedText);
+	            return handleTrainingQuery(session, normalizedText, analysis);
 	    }
 	}
 	
@@ -381,7 +485,7 @@ public class ChatServiceImpl implements ChatService {
 	private void enrichSearchResult(SearchResult result) {
 		if ("TRAINING".equals(result.getSource()) && result.getRawData() instanceof Training) {
 			Training training = (Training) result.getRawData();
-			Text text = trainingTextMapper.getTextForTraining(training);
+			Text text = catalogService.current().getTextForTraining(training.getId());
 
 			if (text != null) {
 				result.setContent(text.getDescription());
@@ -394,14 +498,32 @@ public class ChatServiceImpl implements ChatService {
 		}
 	}
 
-	private String formatSearchResultResponse(SearchResult result, String query) {
+	private String formatSearchResultResponse(SearchResult result, SearchResult runnerUp, String query) {
+		// Pre-generated answer when the query clearly maps to one document
+		String pregenerated = pregeneratedAnswers.find(result, runnerUp, query);
+		if (pregenerated != null) {
+			return pregenerated;
+		}
+
 		// Prepare raw data for OpenAI
-		String rawData = buildRawData(result);
+		String rawData = rawDataBuilder.build(result, query);
 
 		// Format with OpenAI
 		try {
-			String formatted = openAIService.formatResponse(rawData, query);
+			TokenStream sink = tokenSink.get();
+			String formatted = sink != null
+					? openAIService.formatResponseStreaming(rawData, query, rawDataBuilder.sourceTags(result), sink)
+					: openAIService.formatResponse(rawData, query, rawDataBuilder.sourceTags(result));
 			return formatted;
+		} catch (UncheckedIOException e) {
+			// Client went away mid-stream: the turn is still saved, with the reply it received
+			logger.info("Client disconnected during streaming, keeping partial reply");
+			String partial = tokenSink.get().delivered.toString().strip();
+			return partial.isEmpty() ? formatManually(result) : partial + " …";
+		} catch (LlmUnavailableException e) {
+			// Deadline too close or OpenAI guarded off - expected, not an error
+			logger.info("Formatting without OpenAI ({}): {}", e.getReason(), e.getMessage());
+			return formatManually(result);
 		} catch (Exception e) {
 			logger.error("Error formatting response with OpenAI: {}", e.getMessage());
 			// Fallback to manual formatting
@@ -409,68 +531,6 @@ public class ChatServiceImpl implements ChatService {
 		}
 	}
 
-	private String buildRawData(SearchResult result) {
-		StringBuilder sb = new StringBuilder();
-
-		if ("FAQ".equals(result.getSource()) && result.getRawData() instanceof Faq) {
-			Faq faq = (Faq) result.getRawData();
-			sb.append("Sual: ").append(faq.getQuestion()).append("\n");
-			sb.append("Cavab: ").append(faq.getAnswer());
-
-		} else if ("TEXT".equals(result.getSource()) && result.getRawData() instanceof Text) {
-			Text text = (Text) result.getRawData();
-			sb.append("Təlim: ").append(text.getTitle()).append("\n\n");
-
-			if (text.getDescription() != null && !text.getDescription().isEmpty()) {
-				sb.append("Təsvir: ").append(text.getDescription()).append("\n\n");
-			}
-
-			if (text.getMoney() != null) {
-				sb.append("Qiymət: ").append(text.getMoney()).append(" AZN\n");
-			}
-
-			if (text.getInformation() != null && !text.getInformation().isEmpty()) {
-				String info = text.getInformation();
-				if (info.length() > 800) {
-					info = info.substring(0, 800) + "...";
-				}
-				sb.append("\nƏtraflı məlumat:\n").append(info);
-			}
-
-		} else if (result.getRawData() instanceof Map) {
-			// Enriched Training+Text data
-			@SuppressWarnings("unchecked")
-			Map<String, Object> enriched = (Map<String, Object>) result.getRawData();
-
-			Training training = (Training) enriched.get("training");
-			Text text = (Text) enriched.get("text");
-
-			if (training != null) {
-				sb.append("Təlim: ").append(training.getTitle()).append("\n\n");
-			}
-
-			if (text != null) {
-				if (text.getDescription() != null) {
-					sb.append("Təsvir: ").append(text.getDescription()).append("\n\n");
-				}
-
-				if (text.getMoney() != null) {
-					sb.append("Qiymət: ").append(text.getMoney()).append(" AZN\n");
-				}
-
-				if (text.getInformation() != null) {
-					String info = text.getInformation();
-					if (info.length() > 800) {
-						info = info.substring(0, 800) + "...";
-					}
-					sb.append("\nƏtraflı məlumat:\n").append(info);
-				}
-			}
-		}
-
-		return sb.toString();
-	}
-
 	private String formatManually(SearchResult result) {
 		StringBuilder response = new StringBuilder();
 
@@ -514,8 +574,7 @@ public class ChatServiceImpl implements ChatService {
 				sb.append("Qiymət: ").append(text.getMoney()).append(" AZN\n");
 			}
 			if (text.getInformation() != null) {
-				sb.append("Ətraflı: ")
-						.append(text.getInformation().substring(0, Math.min(500, text.getInformation().length())));
+				sb.append("Ətraflı: ").append(rawDataBuilder.information(text, result.getTitle()));
 			}
 		}
 
@@ -772,11 +831,11 @@ public class ChatServiceImpl implements ChatService {
 	//addition new methods after phase  3.3
 	
 	// NEW: Handle trainer queries
-	private ChatResponse handleTrainerQuery(SessionData session, String query) {
+	private ChatResponse handleTrainerQuery(SessionData session, String query, MessageAnalysis analysis) {
 	    logger.debug("Handling trainer query");
 	    
 	    // Extract trainer name if mentioned
-	    String keyword = extractKeyword(query);
+	    String keyword = extractKeyword(query, analysis, "trainer");
 	    
 	    List<Trainer> trainers = trainerService.searchTrainers(keyword);
 	    
@@ -813,14 +872,17 @@ public class ChatServiceImpl implements ChatService {
 	}
 
 	// NEW: Handle price queries
-	private ChatResponse handlePriceQuery(SessionData session, String query) {
+	private ChatResponse handlePriceQuery(SessionData session, String query, MessageAnalysis analysis) {
 	    logger.debug("Handling price query");
 	    
 	    // Check if specific training mentioned
-	    String keyword = extractKeyword(query);
+	    String keyword = extractKeyword(query, analysis, "training");
 	    
 	    // Extract price range if specified
 	    Integer[] priceRange = extractPriceRange(query);
+	    if (priceRange == null && analysis != null) {
+	        priceRange = priceRangeFromEntities(analysis);
+	    }
 	    
 	    List<SearchResult> results;
 	    
@@ -837,10 +899,10 @@ public class ChatServiceImpl implements ChatService {
 	}
 
 	// NEW: Handle schedule queries
-	private ChatResponse handleScheduleQuery(SessionData session, String query) {
+	private ChatResponse handleScheduleQuery(SessionData session, String query, MessageAnalysis analysis) {
 	    logger.debug("Handling schedule query");
 	    
-	    String keyword = extractKeyword(query);
+	    String keyword = extractKeyword(query, analysis, "training");
 	    
 	    List<SearchResult> results = searchService.searchTrainingsDetailed(keyword);
 	    
@@ -870,7 +932,7 @@ public class ChatServiceImpl implements ChatService {
 	}
 
 	// NEW: Handle general training queries (existing logic enhanced)
-	private ChatResponse handleTrainingQuery(SessionData session, String query) {
+	private ChatResponse handleTrainingQuery(SessionData session, String query, MessageAnalysis analysis) {
 	    logger.debug("Handling training query");
 	    
 	    // Detect if user is asking for categories/list
@@ -880,6 +942,9 @@ public class ChatServiceImpl implements ChatService {
 	    
 	    // Detect category
 	    String category = searchService.detectCategory(query);
+	    if (category == null && analysis != null) {
+	        category = analysis.getCategory();
+	    }
 	    if (category != null) {
 	        logger.debug("Detected category: {}", category);
 	    }
@@ -914,7 +979,8 @@ public class ChatServiceImpl implements ChatService {
 	    enrichSearchResult(bestResult);
 	    
 	    // Format response
-	    String formattedResponse = formatSearchResultResponse(bestResult, query);
+	    String formattedResponse = formatSearchResultResponse(bestResult,
+	            results.size() > 1 ? results.get(1) : null, query);
 	    
 	    // Add additional results if available
 	    if (results.size() > 1) {
@@ -929,6 +995,29 @@ public class ChatServiceImpl implements ChatService {
 	    return createResponse(session, formattedResponse);
 	}
 
+	// Prefer the entity extracted by the analysis call, if any
+	private String extractKeyword(String query, MessageAnalysis analysis, String entity) {
+	    if (analysis != null && analysis.getEntity(entity) != null) {
+	        return analysis.getEntity(entity);
+	    }
+	    return extractKeyword(query);
+	}
+
+	private Integer[] priceRangeFromEntities(MessageAnalysis analysis) {
+	    Integer min = parsePrice(analysis.getEntity("minPrice"));
+	    Integer max = parsePrice(analysis.getEntity("maxPrice"));
+	    return min != null || max != null ? new Integer[] { min, max } : null;
+	}
+
+	private Integer parsePrice(String value) {
+	    if (value == null) return null;
+	    try {
+	        return (int) Math.round(Double.parseDouble(value.replaceAll("[^0-9.]", "")));
+	    } catch (NumberFormatException e) {
+	        return null;
+	    }
+	}
+
 	// Helper method to extract main keyword from query
 	private String extractKeyword(String query) {
 	    if (query == null) return "";
@@ -949,4 +1038,31 @@ public class ChatServiceImpl implements ChatService {
 	    return cleaned;
 	}
 	
-}
\ No newline at end of file
+	/**
+	 * Tokens of one streamed turn: forwards them to the client and keeps what it
+	 * received, or the error from when it went away
+	 */
+	private static final class TokenStream implements Consumer<String> {
+		private final Consumer<String> client;
+		private final StringBuilder delivered = new StringBuilder();
+		private UncheckedIOException disconnect;
+
+		private TokenStream(Consumer<String> client) {
+			this.client = client;
+		}
+
+		@Override
+		public void accept(String token) {
+			if (disconnect != null) {
+				throw disconnect;
+			}
+			try {
+				client.accept(token);
+			} catch (UncheckedIOException e) {
+				disconnect = e;
+				throw e;
+			}
+			delivered.append(token);
+		}
+	}
+}
@@ -3,14 +3,18 @@ package az.dsa.chatbot.service.impl;
 import az.dsa.chatbot.model.Intent;
 import az.dsa.chatbot.service.IntentService;
 import az.dsa.chatbot.service.OpenAIService;
+import az.dsa.chatbot.util.Deadline;
+import az.dsa.chatbot.util.IntentClassifier;
+import az.dsa.chatbot.util.IntentModel;
+import az.dsa.chatbot.util.KeywordClassifier;
+import az.dsa.chatbot.util.KeywordClassifier.Dimension;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
-import java.util.List;
-
 @Service
 public class IntentServiceImpl implements IntentService {
     
@@ -19,6 +23,22 @@ public class IntentServiceImpl implements IntentService {
     @Autowired
     private OpenAIService openAIService;
     
+    @Autowired
+    private KeywordClassifier keywordClassifier;
+    
+    @Autowired
+    private IntentClassifier intentClassifier;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Classifier predictions below this confidence (0..1) go to the LLM
+    @Value("${chatbot.intent.classifier.min-confidence:0.7}")
+    private double minConfidence;
+    
+    @Value("${chatbot.deadline.min-llm-ms:2000}")
+    private long minLlmMs;
+    
     @Override
     public Intent determineIntent(String normalizedText) {
         if (normalizedText == null || normalizedText.trim().isEmpty()) {
@@ -31,15 +51,36 @@ public class IntentServiceImpl implements IntentService {
         Intent keywordIntent = matchByKeywords(lower);
         if (keywordIntent != Intent.UNCLEAR) {
             logger.debug("Intent determined by keywords: {}", keywordIntent);
-            return keywordIntent;
+            return decided("keyword", keywordIntent);
+        }
+        
+        // Second: Local classifier, if it is confident enough
+        Intent classified = classifyConfidently(normalizedText);
+        if (classified != null) {
+            return decided("classifier", classified);
         }
         
-        // Second: Use AI (more accurate but slower)
+        // Not enough turn budget left for the LLM: take the classifier's best guess
+        Deadline deadline = Deadline.current();
+        if (!deadline.hasAtLeast(minLlmMs)) {
+            deadline.degrade("intent:deadline");
+            IntentModel.Prediction guess = intentClassifier.classify(normalizedText);
+            Intent intent = guess != null ? Intent.fromString(guess.getLabel()) : Intent.UNCLEAR;
+            logger.debug("Intent guessed by classifier under deadline: {}", intent);
+            return decided("deadline", intent);
+        }
+        
+        // Third: Use AI (more accurate but slower); its answer becomes a training example
         try {
             String aiIntent = openAIService.detectIntent(normalizedText);
+            if (aiIntent == null) {
+                // Call failed or reply unusable: no decision, nothing to learn from
+                return Intent.UNCLEAR;
+            }
             Intent intent = Intent.fromString(aiIntent);
             logger.debug("Intent determined by AI: {}", intent);
-            return intent;
+            intentClassifier.record(normalizedText, intent);
+            return decided("llm", intent);
             
         } catch (Exception e) {
             logger.error("Error in AI intent detection: {}", e.getMessage());
@@ -48,93 +89,55 @@ public class IntentServiceImpl implements IntentService {
     }
     
     @Override
-    public boolean matchesKeywords(String text, Intent intent) {
-        if (text == null) return false;
-        
-        String lower = text.toLowerCase();
-        
-        switch (intent) {
-            case GREETING:
-                return getGreetingKeywords().stream().anyMatch(lower::contains);
-                
-            case CONTACT:
-                return getContactKeywords().stream().anyMatch(lower::contains);
-                
-            case CONSULT:
-                return getConsultKeywords().stream().anyMatch(lower::contains);
-                
-            case QUERY:
-                return getQueryKeywords().stream().anyMatch(lower::contains);
-                
-            case TRAINER:
-                return getTrainerKeywords().stream().anyMatch(lower::contains);
-                
-            default:
-                return false;
-        }
-    }
-    
-    // ===== PRIVATE HELPERS =====
-    
-    private Intent matchByKeywords(String text) {
-        // Check in priority order
-        
-        if (getGreetingKeywords().stream().anyMatch(text::contains)) {
-            return Intent.GREETING;
-        }
-        
-        if (getContactKeywords().stream().anyMatch(text::contains)) {
-            return Intent.CONTACT;
-        }
-        
-        if (getConsultKeywords().stream().anyMatch(text::contains)) {
-            return Intent.CONSULT;
-        }
-        
-        if (getTrainerKeywords().stream().anyMatch(text::contains)) {
-            return Intent.TRAINER;
+    public Intent determineIntentLocally(String normalizedText) {
+        if (normalizedText == null || normalizedText.trim().isEmpty()) {
+            return Intent.UNCLEAR;
         }
         
-        if (getQueryKeywords().stream().anyMatch(text::contains)) {
-            return Intent.QUERY;
+        Intent keywordIntent = matchByKeywords(normalizedText.toLowerCase());
+        if (keywordIntent != Intent.UNCLEAR) {
+            return decided("keyword", keywordIntent);
         }
         
-        return Intent.UNCLEAR;
+        Intent classified = classifyConfidently(normalizedText);
+        return classified != null ? decided("classifier", classified) : Intent.UNCLEAR;
     }
     
-    private List<String> getGreetingKeywords() {
-        return Arrays.asList(
-            "salam", "salamlar", "sabah", "sabahınız xeyir",
-            "axşamınız xeyir", "gün aydın", "hello", "hi", "hey"
-        );
+    @Override
+    public void recordIntent(String normalizedText, Intent intent) {
+        meterRegistry.counter("chatbot.intent.decisions", "path", "llm").increment();
+        intentClassifier.record(normalizedText, intent);
     }
     
-    private List<String> getContactKeywords() {
-        return Arrays.asList(
-            "əlaqə", "zəng", "telefon", "contact",
-            "müraciət", "əməkdaş", "yazın", "email"
-        );
+    @Override
+    public boolean matchesKeywords(String text, Intent intent) {
+        if (text == null || intent == null) return false;
+        
+        return keywordClassifier.classify(text).has(Dimension.INTENT, intent.name());
     }
     
-    private List<String> getConsultKeywords() {
-        return Arrays.asList(
-            "öyrənmək istəyirəm", "təlim seç", "kurs seç",
-            "öyrənmək", "məsləhət", "konsultasiya", "tövsiyə",
-            "başlamaq istəyirəm"
-        );
+    // ===== PRIVATE HELPERS =====
+    
+    private Intent classifyConfidently(String text) {
+        IntentModel.Prediction prediction = intentClassifier.classify(text);
+        if (prediction == null || prediction.getConfidence() < minConfidence) {
+            return null;
+        }
+        Intent intent = Intent.fromString(prediction.getLabel());
+        logger.debug("Intent determined by classifier: {} ({})", intent, prediction.getConfidence());
+        return intent;
     }
     
-    private List<String> getQueryKeywords() {
-        return Arrays.asList(
-            "nə qədər", "qiymət", "haqqında", "müddət",
-            "nə vaxt", "tələb", "sertifikat", "bootcamp"
-        );
+    private Intent decided(String path, Intent intent) {
+        meterRegistry.counter("chatbot.intent.decisions", "path", path).increment();
+        return intent;
     }
     
-    private List<String> getTrainerKeywords() {
-        return Arrays.asList(
-            "təlimçi", "müəllim", "trainer", "kim tədris edir",
-            "kim öyrədir"
-        );
+    private Intent matchByKeywords(String text) {
+        // Highest-priority intent whose keywords occur in the text
+        // (priority = order in the keyword dictionary)
+        String label = keywordClassifier.classify(text).best(Dimension.INTENT);
+        
+        return label != null ? Intent.fromString(label) : Intent.UNCLEAR;
     }
-}
\ No newline at end of file
+}
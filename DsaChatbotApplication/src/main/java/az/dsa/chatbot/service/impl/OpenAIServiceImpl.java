@@ -1,10 +1,22 @@
 package az.dsa.chatbot.service.impl;
 
+import az.dsa.chatbot.dto.MessageAnalysis;
+import az.dsa.chatbot.exception.LlmUnavailableException;
+import az.dsa.chatbot.llm.LlmResponseCache;
+import az.dsa.chatbot.llm.OpenAIClient;
 import az.dsa.chatbot.service.OpenAIService;
+import az.dsa.chatbot.util.AzerbaijaniNormalizer;
+import az.dsa.chatbot.util.Deadline;
+import az.dsa.chatbot.util.KeywordClassifier;
+import az.dsa.chatbot.util.KeywordClassifier.Dimension;
+import az.dsa.chatbot.util.SingleFlight;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.theokanning.openai.completion.chat.ChatCompletionRequest;
 import com.theokanning.openai.completion.chat.ChatMessage;
 import com.theokanning.openai.completion.chat.ChatMessageRole;
-import com.theokanning.openai.service.OpenAiService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,15 +25,36 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 public class OpenAIServiceImpl implements OpenAIService {
     
     private static final Logger logger = LoggerFactory.getLogger(OpenAIServiceImpl.class);
     
-    @Autowired(required = false)
-    private com.theokanning.openai.service.OpenAiService openAiService;
+    @Autowired
+    private OpenAIClient openAIClient;
+    
+    @Autowired
+    private KeywordClassifier keywordClassifier;
+    
+    @Autowired
+    private AzerbaijaniNormalizer textNormalizer;
+    
+    @Autowired
+    private LlmResponseCache responseCache;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    // Identical prompts in flight at the same time share one OpenAI call
+    private SingleFlight<String, String> llmFlights;
     
     @Value("${openai.model:gpt-4o-mini}")
     private String model;
@@ -32,11 +65,20 @@ public class OpenAIServiceImpl implements OpenAIService {
     @Value("${openai.temperature:0.3}")
     private double temperature;
     
-    @Value("${openai.max-retries:3}")
-    private int maxRetries;
+    @Value("${openai.analysis.max-tokens:300}")
+    private int analysisMaxTokens;
+    
+    // An LLM call is not started with less of the turn budget left than this
+    @Value("${chatbot.deadline.min-llm-ms:2000}")
+    private long minLlmMs;
     
-    @Value("${openai.retry-delay-ms:1000}")
-    private long retryDelayMs;
+    private static final List<String> VALID_INTENTS = List.of(
+        "contact", "consult", "query", "trainer", "greeting", "unclear"
+    );
+    
+    private static final List<String> VALID_QUERY_TYPES = List.of(
+        "TRAINER", "GRADUATE", "BOOTCAMP", "PRICE", "SCHEDULE", "TRAINING"
+    );
     
     // System prompts
     private static final String SYSTEM_PROMPT = 
@@ -45,6 +87,11 @@ public class OpenAIServiceImpl implements OpenAIService {
         "Əgər cavab tapılmazsa, \"Bu məlumatı əməkdaşlarımızdan öyrənə bilərik\" de. " +
         "Dil: Azərbaycan dili.";
     
+    @PostConstruct
+    public void init() {
+        llmFlights = new SingleFlight<>("openai", meterRegistry);
+    }
+    
     @Override
     public String normalizeText(String text) {
         if (text == null || text.trim().isEmpty()) {
@@ -53,6 +100,14 @@ public class OpenAIServiceImpl implements OpenAIService {
         
         logger.debug("Normalizing text: {}", maskText(text));
         
+        // Local fast path; the LLM only sees messages the normalizer is unsure about
+        AzerbaijaniNormalizer.Result local = textNormalizer.normalize(text);
+        if (!textNormalizer.shouldCallLlm(local)) {
+            logger.debug("Normalized locally (confidence {}): {}",
+                        String.format("%.2f", local.getConfidence()), maskText(local.getText()));
+            return local.getText();
+        }
+        
         String prompt = String.format(
             "Bu yazını qrammatik və semantik baxımdan düzəlt, mənanı dəyişmə. " +
             "Yalnız düzəldilmiş mətni ver, heç bir əlavə izahat verme.\n\n" +
@@ -60,13 +115,13 @@ public class OpenAIServiceImpl implements OpenAIService {
         );
         
         try {
-            String normalized = callOpenAI(prompt, 100, 0.1);
+            String normalized = cachedCall("normalize", prompt, 100, 0.1, Collections.emptyList());
             logger.debug("Normalized result: {}", maskText(normalized));
-            return normalized != null ? normalized.trim() : text;
+            return normalized != null ? normalized.trim() : local.getText();
             
         } catch (Exception e) {
             logger.error("Error normalizing text: {}", e.getMessage());
-            return text; // Return original if normalization fails
+            return local.getText(); // Best local effort if normalization fails
         }
     }
     
@@ -92,17 +147,13 @@ public class OpenAIServiceImpl implements OpenAIService {
         );
         
         try {
-            String intent = callOpenAI(prompt, 20, 0.2);
-            intent = intent != null ? intent.trim().toLowerCase() : "unclear";
-            
-            // Validate intent
-            List<String> validIntents = List.of(
-                "contact", "consult", "query", "trainer", "greeting", "unclear"
-            );
+            String intent = cachedCall("intent", prompt, 20, 0.2, Collections.emptyList());
+            intent = intent != null ? intent.trim().toLowerCase() : null;
             
-            if (!validIntents.contains(intent)) {
-                logger.warn("Invalid intent detected: {}, defaulting to unclear", intent);
-                intent = "unclear";
+            // Validate intent; null tells the caller this is no real decision
+            if (intent == null || !VALID_INTENTS.contains(intent)) {
+                logger.warn("Invalid intent detected: {}", intent);
+                return null;
             }
             
             logger.debug("Detected intent: {}", intent);
@@ -110,38 +161,159 @@ public class OpenAIServiceImpl implements OpenAIService {
             
         } catch (Exception e) {
             logger.error("Error detecting intent: {}", e.getMessage());
-            return "unclear";
+            return null;
+        }
+    }
+    
+    @Override
+    public MessageAnalysis analyzeMessage(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return null;
+        }
+        
+        logger.debug("Analyzing message: {}", maskText(text));
+        
+        String prompt = String.format(
+            "Aşağıdakı mesajı təhlil et. Yalnız JSON obyekti qaytar, heç bir əlavə izahat vermə.\n\n" +
+            "Sahələr:\n" +
+            "- normalizedText: mesajın qrammatik və semantik baxımdan düzəldilmiş forması (mənanı dəyişmə)\n" +
+            "- intent: contact (əlaqə saxlamaq, zəng etmək, müraciət etmək), " +
+            "consult (təlim seçmək, məsləhət almaq), " +
+            "query (konkret sual: qiymət, müddət, tələb və s.), " +
+            "trainer (təlimçilər haqqında), greeting (salamlaşma), unclear (məqsəd aydın deyil)\n" +
+            "- queryType: %s\n" +
+            "- category: %s və ya null\n" +
+            "- entities: obyekt, yalnız mesajda olanlar: " +
+            "training (təlim adı), trainer (təlimçi adı), minPrice, maxPrice (AZN, rəqəm)\n\n" +
+            "Mesaj: %s\n\n" +
+            "JSON:",
+            String.join(", ", VALID_QUERY_TYPES),
+            String.join(", ", keywordClassifier.labels(Dimension.SEARCH_CATEGORY)),
+            text
+        );
+        
+        String key = LlmResponseCache.key("analyze", model, 0.1, analysisMaxTokens, prompt);
+        try {
+            String reply = cachedCall(key, "analyze", prompt, analysisMaxTokens, 0.1, Collections.emptyList());
+            MessageAnalysis analysis;
+            try {
+                analysis = parseAnalysis(reply, text);
+            } catch (Exception e) {
+                analysis = null;
+                logger.warn("Analysis reply is not valid JSON: {}", e.getMessage());
+            }
+            if (analysis == null) {
+                // Do not keep serving an unusable reply from the cache
+                responseCache.evict(key);
+            }
+            logger.debug("Analysis result: {}", analysis);
+            return analysis;
+            
+        } catch (Exception e) {
+            logger.error("Error analyzing message: {}", e.getMessage());
+            return null;
         }
     }
     
     @Override
     public String formatResponse(String rawData, String userQuestion) {
+        return formatResponse(rawData, userQuestion, Collections.emptyList());
+    }
+    
+    @Override
+    public String formatResponse(String rawData, String userQuestion, List<String> sourceTags) {
         if (rawData == null || rawData.trim().isEmpty()) {
             return "Üzr istəyirik, məlumat tapılmadı.";
         }
         
         logger.debug("Formatting response for question: {}", maskText(userQuestion));
         
-        String prompt = String.format(
-            "%s\n\n" +
-            "Bu məlumat əsasında istifadəçiyə təbii və aydın cavab yaz. " +
-            "Cavab qısa və konkret olsun.\n\n" +
-            "İstifadəçinin sualı: %s\n\n" +
-            "Məlumat: %s\n\n" +
-            "Cavab:",
-            SYSTEM_PROMPT, userQuestion, rawData
-        );
+        String prompt = formatPrompt(rawData, userQuestion);
         
         try {
-            String response = callOpenAI(prompt, maxTokens, temperature);
+            String response = cachedCall("format", prompt, maxTokens, temperature, sourceTags);
             return response != null ? response.trim() : rawData;
             
+        } catch (LlmUnavailableException e) {
+            // Let the caller build its own non-LLM reply
+            logger.warn("OpenAI unavailable, skipping formatting: {}", e.getMessage());
+            throw e;
+            
         } catch (Exception e) {
             logger.error("Error formatting response: {}", e.getMessage());
             return rawData; // Return raw data if formatting fails
         }
     }
     
+    @Override
+    public String formatResponseStreaming(String rawData, String userQuestion, List<String> sourceTags,
+                                          Consumer<String> onToken) {
+        if (rawData == null || rawData.trim().isEmpty()) {
+            String reply = "Üzr istəyirik, məlumat tapılmadı.";
+            onToken.accept(reply);
+            return reply;
+        }
+        
+        logger.debug("Streaming response for question: {}", maskText(userQuestion));
+        
+        String prompt = formatPrompt(rawData, userQuestion);
+        String key = LlmResponseCache.key("format", model, temperature, maxTokens, prompt);
+        
+        // A cached answer is already complete - send it as one chunk
+        String cached = responseCache.get(key, "format");
+        if (cached != null) {
+            String reply = cached.trim();
+            onToken.accept(reply);
+            return reply;
+        }
+        
+        checkDeadline("format");
+        
+        StringBuilder reply = new StringBuilder();
+        RuntimeException[] consumerFailure = new RuntimeException[1];
+        try {
+            openAIClient.streamChatCompletion(chatRequest(prompt, maxTokens, temperature), chunk -> {
+                if (chunk.getChoices() == null || chunk.getChoices().isEmpty()) {
+                    return;
+                }
+                ChatMessage delta = chunk.getChoices().get(0).getMessage();
+                String token = delta != null ? delta.getContent() : null;
+                if (token != null && !token.isEmpty()) {
+                    reply.append(token);
+                    try {
+                        onToken.accept(token);
+                    } catch (RuntimeException e) {
+                        consumerFailure[0] = e;
+                        throw e;
+                    }
+                }
+            });
+        } catch (LlmUnavailableException e) {
+            Deadline.current().degrade("format:" + e.getReason());
+            throw e;
+        } catch (Exception e) {
+            if (consumerFailure[0] != null) {
+                // The receiving side failed (e.g. client disconnected), not OpenAI: the caller decides
+                throw consumerFailure[0];
+            }
+            if (reply.length() > 0) {
+                // Tokens already reached the client - a retry would repeat them
+                throw new IllegalStateException("OpenAI stream interrupted: " + e.getMessage(), e);
+            }
+            logger.warn("OpenAI stream failed before first token, using blocking call: {}", e.getMessage());
+        }
+        
+        if (reply.length() == 0) {
+            String full = formatResponse(rawData, userQuestion, sourceTags);
+            onToken.accept(full);
+            return full;
+        }
+        
+        String full = reply.toString().trim();
+        responseCache.put(key, "format", model, full, null, sourceTags);
+        return full;
+    }
+    
     @Override
     public boolean isAmbiguous(String text) {
         if (text == null || text.trim().isEmpty()) {
@@ -179,62 +351,181 @@ public class OpenAIServiceImpl implements OpenAIService {
     // ===== HELPER METHODS =====
     
     /**
-     * Call OpenAI API with retry logic
+     * Serve a call from the response cache, or make it and cache the reply
+     */
+    private String cachedCall(String operation, String prompt, int maxTokens, double temperature,
+                              List<String> sourceTags) {
+        return cachedCall(LlmResponseCache.key(operation, model, temperature, maxTokens, prompt),
+                          operation, prompt, maxTokens, temperature, sourceTags);
+    }
+    
+    /**
+     * As above, with the cache key already built by the caller
      */
-    private String callOpenAI(String prompt, int maxTokens, double temperature) {
-        int attempt = 0;
-        Exception lastException = null;
+    private String cachedCall(String key, String operation, String prompt, int maxTokens, double temperature,
+                              List<String> sourceTags) {
+        if (responseCache.isEnabled()) {
+            String cached = responseCache.get(key, operation);
+            if (cached != null) {
+                logger.debug("LLM cache hit for {}", operation);
+                return cached;
+            }
+        }
         
-        while (attempt < maxRetries) {
-            try {
-                List<ChatMessage> messages = new ArrayList<>();
-                messages.add(new ChatMessage(ChatMessageRole.SYSTEM.value(), SYSTEM_PROMPT));
-                messages.add(new ChatMessage(ChatMessageRole.USER.value(), prompt));
-                
-                ChatCompletionRequest request = ChatCompletionRequest.builder()
-                        .model(model)
-                        .messages(messages)
-                        .maxTokens(maxTokens)
-                        .temperature(temperature)
-                        .build();
-                
-                var response = openAiService.createChatCompletion(request);
-                
-                if (response.getChoices() != null && !response.getChoices().isEmpty()) {
-                    String content = response.getChoices().get(0).getMessage().getContent();
-                    logger.debug("OpenAI API call successful (attempt {})", attempt + 1);
-                    return content;
+        checkDeadline(operation);
+        
+        try {
+            return llmFlights.execute(key, () -> {
+                Completion completion = callOpenAI(prompt, maxTokens, temperature);
+                if (completion == null) {
+                    return null;
                 }
-                
-                logger.warn("OpenAI returned empty response (attempt {})", attempt + 1);
-                
-            } catch (Exception e) {
-                lastException = e;
-                attempt++;
-                logger.warn("OpenAI API call failed (attempt {}): {}", 
-                           attempt, e.getMessage());
-                
-                if (attempt < maxRetries) {
-                    try {
-                        Thread.sleep(retryDelayMs * attempt); // Exponential backoff
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
+                responseCache.put(key, operation, model, completion.content, completion.totalTokens, sourceTags);
+                return completion.content;
+            });
+        } catch (LlmUnavailableException e) {
+            Deadline.current().degrade(operation + ":" + e.getReason());
+            throw e;
+        } catch (RuntimeException e) {
+            Deadline.current().degrade(operation + ":error");
+            throw e;
+        }
+    }
+    
+    /**
+     * Refuse to start an LLM call the turn deadline would cut off anyway
+     */
+    private void checkDeadline(String operation) {
+        Deadline deadline = Deadline.current();
+        if (!deadline.hasAtLeast(minLlmMs)) {
+            deadline.degrade(operation + ":deadline");
+            meterRegistry.counter("chatbot.deadline.skips", "stage", operation).increment();
+            throw new LlmUnavailableException("deadline",
+                "Skipping " + operation + ": " + deadline.remainingMillis() + " ms left in turn");
+        }
+    }
+    
+    /**
+     * Prompt that turns raw catalog data into an answer to the user's question
+     */
+    private String formatPrompt(String rawData, String userQuestion) {
+        return String.format(
+            "%s\n\n" +
+            "Bu məlumat əsasında istifadəçiyə təbii və aydın cavab yaz. " +
+            "Cavab qısa və konkret olsun.\n\n" +
+            "İstifadəçinin sualı: %s\n\n" +
+            "Məlumat: %s\n\n" +
+            "Cavab:",
+            SYSTEM_PROMPT, userQuestion, rawData
+        );
+    }
+    
+    private ChatCompletionRequest chatRequest(String prompt, int maxTokens, double temperature) {
+        List<ChatMessage> messages = new ArrayList<>();
+        messages.add(new ChatMessage(ChatMessageRole.SYSTEM.value(), SYSTEM_PROMPT));
+        messages.add(new ChatMessage(ChatMessageRole.USER.value(), prompt));
+        
+        return ChatCompletionRequest.builder()
+                .model(model)
+                .messages(messages)
+                .maxTokens(maxTokens)
+                .temperature(temperature)
+                .build();
+    }
+    
+    private Completion callOpenAI(String prompt, int maxTokens, double temperature) {
+        // Retries, backoff, bulkhead and circuit breaker live in OpenAIClient
+        var response = openAIClient.complete(chatRequest(prompt, maxTokens, temperature));
+        
+        if (response.getChoices() == null || response.getChoices().isEmpty()) {
+            logger.warn("OpenAI returned empty response");
+            return null;
+        }
+        
+        String content = response.getChoices().get(0).getMessage().getContent();
+        Integer totalTokens = response.getUsage() != null
+            ? (int) response.getUsage().getTotalTokens() : null;
+        return content != null ? new Completion(content, totalTokens) : null;
+    }
+    
+    /**
+     * Parse and validate the analysis JSON; unknown labels become null
+     * so downstream code falls back to its own detection
+     */
+    private MessageAnalysis parseAnalysis(String reply, String originalText) throws Exception {
+        if (reply == null) {
+            return null;
+        }
+        
+        // Models sometimes wrap JSON in code fences or a sentence
+        int start = reply.indexOf('{');
+        int end = reply.lastIndexOf('}');
+        if (start < 0 || end <= start) {
+            logger.warn("Analysis reply is not JSON: {}", maskText(reply));
+            return null;
+        }
+        
+        JsonNode root = objectMapper.readTree(reply.substring(start, end + 1));
+        MessageAnalysis analysis = new MessageAnalysis();
+        
+        String normalized = text(root, "normalizedText");
+        analysis.setNormalizedText(normalized != null ? normalized : originalText);
+        
+        // Left null when the model gave no valid intent, so it is not taken as a decision
+        String intent = text(root, "intent");
+        analysis.setIntent(intent != null && VALID_INTENTS.contains(intent.toLowerCase())
+                           ? intent.toLowerCase() : null);
+        
+        String queryType = text(root, "queryType");
+        if (queryType != null && VALID_QUERY_TYPES.contains(queryType.toUpperCase())) {
+            analysis.setQueryType(queryType.toUpperCase());
+        }
+        
+        String category = text(root, "category");
+        if (category != null) {
+            for (String label : keywordClassifier.labels(Dimension.SEARCH_CATEGORY)) {
+                if (label.equalsIgnoreCase(category)) {
+                    analysis.setCategory(label);
+                    break;
                 }
             }
         }
         
-        logger.error("OpenAI API call failed after {} attempts", maxRetries);
-        if (lastException != null) {
-            throw new RuntimeException("OpenAI API error", lastException);
+        JsonNode entities = root.get("entities");
+        if (entities != null && entities.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = entities.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (field.getValue().isValueNode() && !field.getValue().isNull()) {
+                    analysis.getEntities().put(field.getKey(), field.getValue().asText().trim());
+                }
+            }
         }
         
-        return null;
+        return analysis;
+    }
+    
+    private String text(JsonNode root, String field) {
+        JsonNode node = root.get(field);
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        String value = node.asText().trim();
+        return value.isEmpty() || "null".equalsIgnoreCase(value) ? null : value;
     }
     
     private String maskText(String text) {
         if (text == null || text.length() <= 20) return text;
         return text.substring(0, 20) + "...";
     }
+    
+    private static final class Completion {
+        private final String content;
+        private final Integer totalTokens;
+        
+        private Completion(String content, Integer totalTokens) {
+            this.content = content;
+            this.totalTokens = totalTokens;
+        }
+    }
 }
\ No newline at end of file
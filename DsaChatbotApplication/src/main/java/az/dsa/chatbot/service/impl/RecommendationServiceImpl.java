@@ -1,12 +1,14 @@
 package az.dsa.chatbot.service.impl;
 
+import az.dsa.chatbot.catalog.CatalogService;
+import az.dsa.chatbot.catalog.CatalogSnapshot;
 import az.dsa.chatbot.dto.SearchResult;
 import az.dsa.chatbot.dto.SessionData;
 import az.dsa.chatbot.entity.Text;
 import az.dsa.chatbot.entity.Training;
-import az.dsa.chatbot.repository.TrainingRepository;
 import az.dsa.chatbot.service.RecommendationService;
-import az.dsa.chatbot.util.TrainingTextMapper;
+import az.dsa.chatbot.util.KeywordClassifier;
+import az.dsa.chatbot.util.KeywordClassifier.Dimension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,19 +25,10 @@ public class RecommendationServiceImpl implements RecommendationService {
     private static final Logger logger = LoggerFactory.getLogger(RecommendationServiceImpl.class);
     
     @Autowired
-    private TrainingRepository trainingRepository;
+    private CatalogService catalogService;
     
     @Autowired
-    private TrainingTextMapper trainingTextMapper;
-    
-    // Category keywords
-    private static final Map<String, List<String>> CATEGORY_KEYWORDS = Map.of(
-        "Data Analytics", Arrays.asList("analytics", "analitika", "tableau", "power bi", "excel", "data"),
-        "Machine Learning", Arrays.asList("machine", "ml", "maşın", "python", "r"),
-        "Deep Learning", Arrays.asList("deep", "ai", "süni", "neural", "nlp"),
-        "Data Engineering", Arrays.asList("sql", "databaza", "database", "mühəndislik"),
-        "Programming", Arrays.asList("proqramlaşdırma", "kod", "python", "django")
-    );
+    private KeywordClassifier keywordClassifier;
     
     @Override
     public List<SearchResult> getRecommendations(SessionData session) {
@@ -53,11 +46,12 @@ public class RecommendationServiceImpl implements RecommendationService {
         Integer budget = parseBudget(budgetStr);
         
         // Get all active trainings
-        List<Training> allTrainings = trainingRepository.findAllActive();
+        CatalogSnapshot catalog = catalogService.current();
+        List<Training> allTrainings = catalog.getActiveTrainings();
         List<SearchResult> results = new ArrayList<>();
         
         for (Training training : allTrainings) {
-            Text textDetails = trainingTextMapper.getTextForTraining(training);
+            Text textDetails = catalog.getTextForTraining(training.getId());
             if (textDetails == null) continue;
             
             // Calculate match score
@@ -93,7 +87,7 @@ public class RecommendationServiceImpl implements RecommendationService {
         
         // 1. Category match (40 points)
         if (category != null) {
-            List<String> keywords = CATEGORY_KEYWORDS.getOrDefault(category, Collections.emptyList());
+            List<String> keywords = keywordClassifier.keywords(Dimension.RECOMMENDATION_CATEGORY, category);
             for (String keyword : keywords) {
                 if (trainingTitle.contains(keyword) || description.contains(keyword)) {
                     score += 40;
@@ -192,17 +186,7 @@ public class RecommendationServiceImpl implements RecommendationService {
     private String parseCategory(String input) {
         if (input == null) return null;
         
-        String lower = input.toLowerCase();
-        
-        for (Map.Entry<String, List<String>> entry : CATEGORY_KEYWORDS.entrySet()) {
-            for (String keyword : entry.getValue()) {
-                if (lower.contains(keyword)) {
-                    return entry.getKey();
-                }
-            }
-        }
-        
-        return null;
+        return keywordClassifier.classify(input).best(Dimension.RECOMMENDATION_CATEGORY);
     }
     
     private Integer parseBudget(String input) {
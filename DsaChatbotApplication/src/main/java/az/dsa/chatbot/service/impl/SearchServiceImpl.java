@@ -1,23 +1,46 @@
 package az.dsa.chatbot.service.impl;
 
+import az.dsa.chatbot.catalog.CatalogService;
+import az.dsa.chatbot.catalog.CatalogSnapshot;
 import az.dsa.chatbot.dto.SearchFilters;
 import az.dsa.chatbot.dto.SearchResult;
 import az.dsa.chatbot.entity.Faq;
 import az.dsa.chatbot.entity.Text;
 import az.dsa.chatbot.entity.Training;
+import az.dsa.chatbot.exception.LlmUnavailableException;
 import az.dsa.chatbot.repository.FaqRepository;
 import az.dsa.chatbot.repository.TextRepository;
 import az.dsa.chatbot.repository.TrainingRepository;
+import az.dsa.chatbot.search.Bm25Scorer;
+import az.dsa.chatbot.search.InvertedIndex;
+import az.dsa.chatbot.search.SearchIndex;
+import az.dsa.chatbot.search.TextTokenizer;
 import az.dsa.chatbot.service.SearchService;
+import az.dsa.chatbot.util.Deadline;
 import az.dsa.chatbot.util.FuzzyMatcher;
-import az.dsa.chatbot.util.TrainingTextMapper;
-
+import az.dsa.chatbot.util.KeywordClassifier;
+import az.dsa.chatbot.util.KeywordClassifier.Dimension;
+import az.dsa.chatbot.util.SingleFlight;
+import az.dsa.chatbot.util.SymSpellDictionary;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -38,32 +61,61 @@ public class SearchServiceImpl implements SearchService {
 	private FuzzyMatcher fuzzyMatcher;
 
 	@Autowired
-	private TrainingTextMapper trainingTextMapper;
+	private CatalogService catalogService;
 
-	// Category keywords mapping
-	private static final Map<String, List<String>> CATEGORY_KEYWORDS = new HashMap<>();
+	@Autowired
+	private SearchIndex searchIndex;
 
-	static {
-		CATEGORY_KEYWORDS.put("Data Analytics",
-				Arrays.asList("analytics", "analitika", "tableau", "power bi", "excel", "sql", "spss"));
+	@Autowired
+	private Bm25Scorer bm25Scorer;
 
-		CATEGORY_KEYWORDS.put("Machine Learning",
-				Arrays.asList("machine learning", "ml", "maşın öyrənməsi", "python machine", "r machine"));
+	@Autowired
+	private KeywordClassifier keywordClassifier;
 
-		CATEGORY_KEYWORDS.put("Deep Learning",
-				Arrays.asList("deep learning", "neural", "nlp", "computer vision", "transformers", "ai"));
+	@Value("${chatbot.search.retrieval-mode:index}")
+	private String retrievalMode;
 
-		CATEGORY_KEYWORDS.put("Data Engineering",
-				Arrays.asList("engineering", "sql", "database", "databaza", "pl/sql", "t-sql", "warehouse"));
+	@Value("${chatbot.search.ranking-mode:bm25}")
+	private String rankingMode;
 
-		CATEGORY_KEYWORDS.put("AI Development",
-				Arrays.asList("frontend", "backend", "django", "react", "development", "n8n"));
-	}
+	@Autowired
+	@Qualifier("searchExecutor")
+	private AsyncTaskExecutor searchExecutor;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${chatbot.search.execution-mode:parallel}")
+	private String executionMode;
+
+	@Value("${chatbot.search.parallel.deadline-ms:1500}")
+	private long deadlineMs;
+
+	// Search is not optional: it gets at least this long even when the turn budget is spent
+	@Value("${chatbot.deadline.min-search-ms:300}")
+	private long minSearchMs;
+
+	// Identical searches running at the same time share one execution
+	private SingleFlight<String, List<SearchResult>> searchFlights;
+
+	// Sources cut off on this thread, so coalesce can tell a truncated result from a complete one
+	private final ThreadLocal<Integer> cutOffs = ThreadLocal.withInitial(() -> 0);
+
+	// Typo matches score at most this share of the weakest exact hit
+	private static final double FUZZY_PENALTY = 0.5;
+
+	// Base for typo matches when there is no exact hit to rank below
+	private static final double FUZZY_ONLY_SCALE = 10.0;
 
 	// Common stop words in Azerbaijani
 	private static final Set<String> STOP_WORDS = Set.of("və", "ilə", "üçün", "bir", "bu", "o", "ki", "nə", "necə",
 			"hansı", "haqqında", "üzrə", "kimi", "da", "də");
 
+	@PostConstruct
+	public void init() {
+		searchFlights = new SingleFlight<>("search", meterRegistry);
+	}
+
 	@Override
 	public List<SearchResult> searchFAQ(String query) {
 		if (query == null || query.trim().isEmpty()) {
@@ -75,25 +127,22 @@ public class SearchServiceImpl implements SearchService {
 		List<String> keywords = extractKeywords(query);
 		List<SearchResult> results = new ArrayList<>();
 
-		// Search for each keyword
-		for (String keyword : keywords) {
-			List<Faq> faqs = faqRepository.searchByKeyword(keyword);
+		for (Candidate<Faq> candidate : retrieveFaqs(keywords)) {
+			Faq faq = candidate.entity;
 
-			for (Faq faq : faqs) {
-				// Calculate relevance score
-				String searchableContent = faq.getQuestion() + " " + faq.getAnswer();
-				double score = calculateRelevance(query, searchableContent);
+			// Calculate relevance score
+			double score = candidate.score != null ? candidate.score
+					: calculateRelevance(query, faq.getQuestion() + " " + faq.getAnswer());
 
-				SearchResult result = new SearchResult();
-				result.setSource("FAQ");
-				result.setId(faq.getId());
-				result.setTitle(faq.getQuestion());
-				result.setContent(faq.getAnswer());
-				result.setRelevanceScore(score);
-				result.setRawData(faq);
+			SearchResult result = new SearchResult();
+			result.setSource("FAQ");
+			result.setId(faq.getId());
+			result.setTitle(faq.getQuestion());
+			result.setContent(faq.getAnswer());
+			result.setRelevanceScore(score);
+			result.setRawData(faq);
 
-				results.add(result);
-			}
+			results.add(result);
 		}
 
 		// Remove duplicates and sort by relevance
@@ -118,24 +167,23 @@ public class SearchServiceImpl implements SearchService {
 		List<String> keywords = extractKeywords(query);
 		List<SearchResult> results = new ArrayList<>();
 
-		for (String keyword : keywords) {
-			List<Text> texts = textRepository.searchByKeyword(keyword);
+		for (Candidate<Text> candidate : retrieveTexts(keywords)) {
+			Text text = candidate.entity;
 
-			for (Text text : texts) {
-				// Calculate relevance score
-				String searchableContent = text.getTitle() + " " + text.getDescription() + " " + text.getInformation();
-				double score = calculateRelevance(query, searchableContent);
+			// Calculate relevance score
+			double score = candidate.score != null ? candidate.score
+					: calculateRelevance(query,
+							text.getTitle() + " " + text.getDescription() + " " + text.getInformation());
 
-				SearchResult result = new SearchResult();
-				result.setSource("TEXT");
-				result.setId(text.getId());
-				result.setTitle(text.getTitle());
-				result.setContent(text.getDescription()); // Use description as preview
-				result.setRelevanceScore(score);
-				result.setRawData(text);
+			SearchResult result = new SearchResult();
+			result.setSource("TEXT");
+			result.setId(text.getId());
+			result.setTitle(text.getTitle());
+			result.setContent(text.getDescription()); // Use description as preview
+			result.setRelevanceScore(score);
+			result.setRawData(text);
 
-				results.add(result);
-			}
+			results.add(result);
 		}
 
 		// Remove duplicates and sort
@@ -153,16 +201,8 @@ public class SearchServiceImpl implements SearchService {
 	public List<SearchResult> searchAll(String query, int limit) {
 		logger.debug("Searching all tables for: {}", query);
 
-		List<SearchResult> allResults = new ArrayList<>();
-
-		// Search in FAQ
-		allResults.addAll(searchFAQ(query));
-
-		// Search in Text
-		allResults.addAll(searchText(query));
-
-		// Search in Training
-		allResults.addAll(searchTraining(query));
+		// Search in FAQ, Text and Training
+		List<SearchResult> allResults = searchSources(query, true, true, true);
 
 		// Sort by relevance and limit
 		List<SearchResult> topResults = allResults.stream()
@@ -194,6 +234,7 @@ public class SearchServiceImpl implements SearchService {
 	}
 
 	// updates on calculateRelevance method after phase 2.2
+	// Heuristic ranking; used when chatbot.search.ranking-mode=heuristic or for database retrieval
 	@Override
 	public double calculateRelevance(String query, String content) {
 		if (query == null || content == null) {
@@ -239,7 +280,7 @@ public class SearchServiceImpl implements SearchService {
 				// Try fuzzy matching for this keyword
 				String[] contentWords = contentLower.split("\\s+");
 				for (String word : contentWords) {
-					double similarity = fuzzyMatcher.similarity(keyword, word);
+					double similarity = fuzzyMatcher.similarity(keyword, word, 0.7);
 					if (similarity >= 0.7) { // 70% similar
 						matchCount++;
 						score += similarity * 2; // Partial credit
@@ -284,34 +325,38 @@ public class SearchServiceImpl implements SearchService {
 		List<String> keywords = extractKeywords(corrected);
 		List<SearchResult> results = new ArrayList<>();
 
-		for (String keyword : keywords) {
-			List<Training> trainings = trainingRepository.searchByKeyword(keyword);
+		for (Candidate<Training> candidate : retrieveTrainings(keywords)) {
+			Training training = candidate.entity;
 
-			for (Training training : trainings) {
-				// Only show active trainings
-				if (training.getIsActive() == null || !training.getIsActive()) {
-					continue;
-				}
+			// Only show active trainings
+			if (training.getIsActive() == null || !training.getIsActive()) {
+				continue;
+			}
 
+			double score;
+			if (candidate.score != null) {
+				score = candidate.score;
+			} else {
 				// Calculate relevance
 				String searchableContent = training.getTitle();
-				double score = calculateRelevance(query, searchableContent);
+				score = calculateRelevance(query, searchableContent);
 
 				// Bonus for exact training name match
-				if (searchableContent.toLowerCase().contains(keyword.toLowerCase())) {
+				String titleLower = searchableContent.toLowerCase();
+				if (keywords.stream().anyMatch(titleLower::contains)) {
 					score += 5.0;
 				}
+			}
 
-				SearchResult result = new SearchResult();
-				result.setSource("TRAINING");
-				result.setId(training.getId());
-				result.setTitle(training.getTitle());
-				result.setContent("Təlim ID: " + training.getId());
-				result.setRelevanceScore(score);
-				result.setRawData(training);
+			SearchResult result = new SearchResult();
+			result.setSource("TRAINING");
+			result.setId(training.getId());
+			result.setTitle(training.getTitle());
+			result.setContent("Təlim ID: " + training.getId());
+			result.setRelevanceScore(score);
+			result.setRawData(training);
 
-				results.add(result);
-			}
+			results.add(result);
 		}
 
 		// Remove duplicates and sort
@@ -327,6 +372,10 @@ public class SearchServiceImpl implements SearchService {
 
 	@Override
 	public List<SearchResult> fuzzySearch(String query, int limit) {
+		return coalesce("fuzzy|" + limit + "|" + query, () -> doFuzzySearch(query, limit));
+	}
+
+	private List<SearchResult> doFuzzySearch(String query, int limit) {
 		logger.debug("Fuzzy searching for: {}", query);
 
 		// Step 1: Correct common typos
@@ -339,31 +388,35 @@ public class SearchServiceImpl implements SearchService {
 		if (results.size() < limit) {
 			List<String> keywords = extractKeywords(query);
 
-			for (String keyword : keywords) {
-				// Try fuzzy matching against all training titles
-				List<Training> allTrainings = trainingRepository.findAllActive();
+			Set<Long> seenTrainings = new HashSet<>();
+			for (SearchResult result : results) {
+				if ("TRAINING".equals(result.getSource())) {
+					seenTrainings.add(result.getId());
+				}
+			}
 
-				for (Training training : allTrainings) {
-					// Check if already in results
-					boolean alreadyExists = results.stream()
-							.anyMatch(r -> r.getId().equals(training.getId()) && "TRAINING".equals(r.getSource()));
+			// Typo matches rank strictly after every exact hit
+			double fuzzyCeiling = results.stream().mapToDouble(SearchResult::getRelevanceScore).min()
+					.orElse(FUZZY_ONLY_SCALE) * FUZZY_PENALTY;
 
-					if (alreadyExists)
-						continue;
+			if (useIndex() && fuzzyMatcher.hasDictionary()) {
+				addTypoMatches(keywords, seenTrainings, results, fuzzyCeiling);
+			} else {
+				// Try fuzzy matching against all training titles
+				List<Training> allTrainings = catalogService.current().getActiveTrainings();
 
-					// Check fuzzy similarity
-					double similarity = fuzzyMatcher.similarity(keyword, training.getTitle());
+				for (String keyword : keywords) {
+					for (Training training : allTrainings) {
+						if (seenTrainings.contains(training.getId()))
+							continue;
 
-					if (similarity >= 0.6) { // 60% similarity threshold
-						SearchResult result = new SearchResult();
-						result.setSource("TRAINING");
-						result.setId(training.getId());
-						result.setTitle(training.getTitle());
-						result.setContent("Fuzzy match");
-						result.setRelevanceScore(similarity * 10); // Convert to 0-10 scale
-						result.setRawData(training);
+						// Check fuzzy similarity
+						double similarity = fuzzyMatcher.similarity(keyword, training.getTitle(), 0.6);
 
-						results.add(result);
+						if (similarity >= 0.6) { // 60% similarity threshold
+							seenTrainings.add(training.getId());
+							results.add(fuzzyResult(training, similarity, fuzzyCeiling));
+						}
 					}
 				}
 			}
@@ -378,11 +431,59 @@ public class SearchServiceImpl implements SearchService {
 		return topResults;
 	}
 
+	/**
+	 * Resolve each keyword to corpus terms through the typo dictionary and
+	 * collect the trainings whose titles contain those terms
+	 */
+	private void addTypoMatches(List<String> keywords, Set<Long> seenTrainings, List<SearchResult> results,
+			double fuzzyCeiling) {
+		InvertedIndex<Training> index = searchIndex.trainingIndex();
+
+		for (String keyword : keywords) {
+			for (String token : TextTokenizer.tokenize(keyword)) {
+				for (SymSpellDictionary.Suggestion suggestion : fuzzyMatcher.lookup(token, 2)) {
+					InvertedIndex.PostingList postings = index.postings(suggestion.getTerm());
+					if (postings == null) {
+						continue; // Term only occurs in FAQ/Text
+					}
+
+					double similarity = 1.0 - (double) suggestion.getDistance()
+							/ Math.max(token.length(), suggestion.getTerm().length());
+
+					if (similarity < 0.6) { // 60% similarity threshold
+						continue;
+					}
+
+					for (InvertedIndex.Posting posting : postings.getPostings()) {
+						Training training = index.document(posting.getDocument()).getPayload();
+						if (seenTrainings.add(training.getId())) {
+							results.add(fuzzyResult(training, similarity, fuzzyCeiling));
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Typo match scored below ceiling (the weakest exact hit, discounted)
+	 */
+	private SearchResult fuzzyResult(Training training, double similarity, double ceiling) {
+		SearchResult result = new SearchResult();
+		result.setSource("TRAINING");
+		result.setId(training.getId());
+		result.setTitle(training.getTitle());
+		result.setContent("Fuzzy match");
+		result.setRelevanceScore(similarity * ceiling);
+		result.setRawData(training);
+		return result;
+	}
+
 	@Override
 	public List<SearchResult> searchByPriceRange(Integer minPrice, Integer maxPrice) {
 		logger.debug("Searching by price range: {} - {}", minPrice, maxPrice);
 
-		List<Text> texts = textRepository.findAll();
+		List<Text> texts = catalogService.current().getTexts();
 		List<SearchResult> results = new ArrayList<>();
 
 		for (Text text : texts) {
@@ -413,13 +514,20 @@ public class SearchServiceImpl implements SearchService {
 
 	@Override
 	public List<SearchResult> searchByCategory(String category) {
+		return coalesce("category|" + category, () -> doSearchByCategory(category));
+	}
+
+	private List<SearchResult> doSearchByCategory(String category) {
 		if (category == null || category.trim().isEmpty()) {
 			return Collections.emptyList();
 		}
 
 		logger.debug("Searching by category: {}", category);
 
-		List<String> keywords = CATEGORY_KEYWORDS.getOrDefault(category, Collections.singletonList(category));
+		List<String> keywords = keywordClassifier.keywords(Dimension.SEARCH_CATEGORY, category);
+		if (keywords.isEmpty()) {
+			keywords = Collections.singletonList(category);
+		}
 
 		List<SearchResult> results = new ArrayList<>();
 
@@ -443,18 +551,18 @@ public class SearchServiceImpl implements SearchService {
 	public List<SearchResult> getPopularTrainings(int limit) {
 		logger.debug("Getting popular trainings (limit: {})", limit);
 
-		List<Training> activeTrainings = trainingRepository.findAllActive();
+		CatalogSnapshot catalog = catalogService.current();
+		List<Training> activeTrainings = catalog.getActiveTrainings();
 		List<SearchResult> results = new ArrayList<>();
 
 		// Popular training IDs (based on order field or manually defined)
 		List<Long> popularIds = Arrays.asList(5L, 4L, 14L, 8L, 1L); // Excel, Python, ML, Tableau, T-SQL
 
 		for (Long trainingId : popularIds) {
-			Training training = activeTrainings.stream().filter(t -> t.getId().equals(trainingId)).findFirst()
-					.orElse(null);
+			Training training = catalog.getTraining(trainingId);
 
-			if (training != null) {
-				Text text = trainingTextMapper.getTextForTraining(training);
+			if (training != null && Boolean.TRUE.equals(training.getIsActive())) {
+				Text text = catalog.getTextForTraining(training.getId());
 
 				SearchResult result = new SearchResult();
 				result.setSource("TRAINING");
@@ -481,7 +589,7 @@ public class SearchServiceImpl implements SearchService {
 					continue;
 				}
 
-				Text text = trainingTextMapper.getTextForTraining(training);
+				Text text = catalog.getTextForTraining(training.getId());
 
 				SearchResult result = new SearchResult();
 				result.setSource("TRAINING");
@@ -507,14 +615,16 @@ public class SearchServiceImpl implements SearchService {
 
 	@Override
 	public List<SearchResult> searchWithFilters(String query, SearchFilters filters) {
+		return coalesce("filters|" + filterKey(filters) + "|" + query, () -> doSearchWithFilters(query, filters));
+	}
+
+	private List<SearchResult> doSearchWithFilters(String query, SearchFilters filters) {
 		if (query == null || query.trim().isEmpty()) {
 			return Collections.emptyList();
 		}
 
 		logger.debug("Searching with filters - Query: {}, Filters: {}", query, filters != null ? "applied" : "none");
 
-		List<SearchResult> results = new ArrayList<>();
-
 		// Determine which sources to search
 		boolean searchFaq = filters == null || filters.getSource() == null
 				|| "FAQ".equalsIgnoreCase(filters.getSource());
@@ -524,17 +634,7 @@ public class SearchServiceImpl implements SearchService {
 				|| "TRAINING".equalsIgnoreCase(filters.getSource());
 
 		// Search each source
-		if (searchFaq) {
-			results.addAll(searchFAQ(query));
-		}
-
-		if (searchText) {
-			results.addAll(searchText(query));
-		}
-
-		if (searchTraining) {
-			results.addAll(searchTraining(query));
-		}
+		List<SearchResult> results = searchSources(query, searchFaq, searchText, searchTraining);
 
 		// Apply filters
 		if (filters != null) {
@@ -548,6 +648,241 @@ public class SearchServiceImpl implements SearchService {
 		return results;
 	}
 
+	// ===== COALESCING =====
+
+	/**
+	 * Run a search through the single-flight group. Callers may enrich or re-score
+	 * the results they get, so each receives its own list of copies. Results the
+	 * leader's deadline cut short are not shared; a follower whose own deadline
+	 * passes while it waits gets no results and records the cutoff.
+	 */
+	private List<SearchResult> coalesce(String key, Supplier<List<SearchResult>> search) {
+		int cutBefore = cutOffs.get();
+		List<SearchResult> shared;
+		try {
+			shared = searchFlights.execute(key, search, results -> cutOffs.get() == cutBefore);
+		} catch (LlmUnavailableException e) {
+			cutOff("COALESCED", e.getReason(), Deadline.current());
+			return new ArrayList<>();
+		}
+		List<SearchResult> copies = new ArrayList<>(shared.size());
+		for (SearchResult result : shared) {
+			SearchResult copy = new SearchResult(result.getSource(), result.getId(), result.getTitle(),
+					result.getContent(), result.getRelevanceScore());
+			copy.setRawData(result.getRawData() instanceof Map
+					? new HashMap<>((Map<?, ?>) result.getRawData())
+					: result.getRawData());
+			copies.add(copy);
+		}
+		return copies;
+	}
+
+	private String filterKey(SearchFilters filters) {
+		if (filters == null) {
+			return "-";
+		}
+		return filters.getSource() + "," + filters.getCategory() + "," + filters.getMinPrice() + ","
+				+ filters.getMaxPrice() + "," + filters.getActiveOnly();
+	}
+
+	// ===== SOURCE FAN-OUT =====
+
+	/**
+	 * Run the selected sources and collect their results. In parallel mode the
+	 * sources run concurrently on the search executor and the request waits at
+	 * most deadline-ms in total (less if the turn deadline is closer, but never
+	 * under min-search-ms); sources still running by then are cancelled and left
+	 * out, as are sources the executor rejected because it was saturated.
+	 */
+	private List<SearchResult> searchSources(String query, boolean faq, boolean text, boolean training) {
+		Map<String, Supplier<List<SearchResult>>> sources = new LinkedHashMap<>();
+		if (faq) {
+			sources.put("FAQ", () -> searchFAQ(query));
+		}
+		if (text) {
+			sources.put("TEXT", () -> searchText(query));
+		}
+		if (training) {
+			sources.put("TRAINING", () -> searchTraining(query));
+		}
+
+		List<SearchResult> results = new ArrayList<>();
+
+		if (!"parallel".equalsIgnoreCase(executionMode) || sources.size() < 2) {
+			for (Map.Entry<String, Supplier<List<SearchResult>>> source : sources.entrySet()) {
+				results.addAll(timed(source.getKey(), source.getValue()));
+			}
+			return results;
+		}
+
+		Deadline turn = Deadline.current();
+		long budgetMs = Math.min(deadlineMs, Math.max(minSearchMs, turn.remainingMillis()));
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+
+		Map<String, Future<List<SearchResult>>> futures = new LinkedHashMap<>();
+		for (Map.Entry<String, Supplier<List<SearchResult>>> source : sources.entrySet()) {
+			try {
+				futures.put(source.getKey(),
+						searchExecutor.submit(() -> timed(source.getKey(), source.getValue())));
+			} catch (RejectedExecutionException e) {
+				// Pool and queue full: the source is cut off like one that missed the deadline
+				cutOff(source.getKey(), "rejected", turn);
+				logger.warn("{} search rejected, search executor saturated", source.getKey());
+			}
+		}
+
+		for (Map.Entry<String, Future<List<SearchResult>>> future : futures.entrySet()) {
+			String source = future.getKey();
+			try {
+				long remaining = Math.max(0, deadline - System.nanoTime());
+				results.addAll(future.getValue().get(remaining, TimeUnit.NANOSECONDS));
+
+			} catch (TimeoutException e) {
+				// Stop the source (or drop it from the queue); its result would be discarded anyway
+				future.getValue().cancel(true);
+				cutOff(source, "deadline", turn);
+				logger.warn("{} search missed the {} ms deadline, returning without it", source, budgetMs);
+
+			} catch (ExecutionException e) {
+				logger.error("Error searching {}: {}", source, e.getCause().getMessage(), e.getCause());
+
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+
+		return results;
+	}
+
+	private void cutOff(String source, String reason, Deadline turn) {
+		cutOffs.set(cutOffs.get() + 1);
+		meterRegistry.counter("chatbot.search.deadline.cutoffs", "source", source, "reason", reason).increment();
+		turn.degrade("search:partial");
+	}
+
+	/**
+	 * Run one source search and record its latency
+	 */
+	private List<SearchResult> timed(String source, Supplier<List<SearchResult>> search) {
+		Timer.Sample sample = Timer.start(meterRegistry);
+		try {
+			return search.get();
+		} finally {
+			sample.stop(meterRegistry.timer("chatbot.search.source.latency", "source", source));
+		}
+	}
+
+	// ===== RETRIEVAL =====
+
+	/**
+	 * Index retrieval is the default; one batched LIKE query per table is kept as a
+	 * fallback (retrieval-mode=database, or the index could not be built)
+	 */
+	private boolean useIndex() {
+		return !"database".equalsIgnoreCase(retrievalMode) && searchIndex.isReady();
+	}
+
+	private List<Candidate<Faq>> retrieveFaqs(List<String> keywords) {
+		if (useIndex()) {
+			return candidates(searchIndex.faqIndex(), keywords);
+		}
+
+		if (keywords.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return databaseCandidates(faqRepository.searchByKeywords(String.join(" ", keywords)), Faq.class,
+				keywords.size());
+	}
+
+	private List<Candidate<Text>> retrieveTexts(List<String> keywords) {
+		if (useIndex()) {
+			return candidates(searchIndex.textIndex(), keywords);
+		}
+
+		if (keywords.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return databaseCandidates(textRepository.searchByKeywords(String.join(" ", keywords)), Text.class,
+				keywords.size());
+	}
+
+	private List<Candidate<Training>> retrieveTrainings(List<String> keywords) {
+		if (useIndex()) {
+			return candidates(searchIndex.trainingIndex(), keywords);
+		}
+
+		if (keywords.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return databaseCandidates(trainingRepository.searchByKeywords(String.join(" ", keywords)), Training.class,
+				keywords.size());
+	}
+
+	/**
+	 * Index candidates; pre-scored with BM25F unless the heuristic ranking is selected
+	 */
+	private <T> List<Candidate<T>> candidates(InvertedIndex<T> index, List<String> keywords) {
+		Map<Integer, Integer> matches = index.matchKeywords(keywords);
+		Map<Integer, Double> scores = useBm25() ? bm25Scorer.score(index, keywords) : null;
+
+		List<Candidate<T>> candidates = new ArrayList<>(matches.size());
+		for (Integer ordinal : matches.keySet()) {
+			Double score = scores != null ? scores.getOrDefault(ordinal, 0.0) : null;
+			candidates.add(new Candidate<>(index.document(ordinal).getPayload(), score));
+		}
+		return candidates;
+	}
+
+	/**
+	 * Candidates from a batched keyword query (rows of {entity, keyword hits}).
+	 * Without an index there is no BM25, so the bm25 ranking mode scores from the
+	 * hit count instead of rescanning the text; heuristic mode still rescans.
+	 */
+	private <T> List<Candidate<T>> databaseCandidates(List<Object[]> rows, Class<T> type, int keywordCount) {
+		List<Candidate<T>> candidates = new ArrayList<>(rows.size());
+		for (Object[] row : rows) {
+			int hits = ((Number) row[1]).intValue();
+			Double score = useBm25() ? keywordHitScore(hits, keywordCount) : null;
+			candidates.add(new Candidate<>(type.cast(row[0]), score));
+		}
+		return candidates;
+	}
+
+	/**
+	 * Coverage part of calculateRelevance (steps 3-5), from the matched keyword count
+	 */
+	private double keywordHitScore(int hits, int keywordCount) {
+		double score = (double) hits / keywordCount * 8.0;
+
+		if (hits > 1) {
+			score += hits * 2.0;
+		}
+
+		if (hits == keywordCount) {
+			score += 5.0;
+		}
+
+		return score;
+	}
+
+	private boolean useBm25() {
+		return !"heuristic".equalsIgnoreCase(rankingMode);
+	}
+
+	/**
+	 * Retrieved entity with its score (null = score with calculateRelevance)
+	 */
+	private static final class Candidate<T> {
+		private final T entity;
+		private final Double score;
+
+		private Candidate(T entity, Double score) {
+			this.entity = entity;
+			this.score = score;
+		}
+	}
+
 	private List<SearchResult> applyFilters(List<SearchResult> results, SearchFilters filters) {
 		return results.stream().filter(result -> {
 			// Price filter (only for TEXT source)
@@ -581,10 +916,12 @@ public class SearchServiceImpl implements SearchService {
 			// Category filter
 			if (filters.getCategory() != null && !filters.getCategory().isEmpty()) {
 				String title = result.getTitle().toLowerCase();
-				List<String> categoryKeywords = CATEGORY_KEYWORDS.getOrDefault(filters.getCategory(),
-						Collections.singletonList(filters.getCategory().toLowerCase()));
+				boolean knownCategory = !keywordClassifier.keywords(Dimension.SEARCH_CATEGORY, filters.getCategory())
+						.isEmpty();
 
-				boolean matchesCategory = categoryKeywords.stream().anyMatch(title::contains);
+				boolean matchesCategory = knownCategory
+						? keywordClassifier.classify(title).has(Dimension.SEARCH_CATEGORY, filters.getCategory())
+						: title.contains(filters.getCategory().toLowerCase());
 
 				if (!matchesCategory) {
 					return false;
@@ -602,17 +939,8 @@ public class SearchServiceImpl implements SearchService {
 		if (query == null)
 			return null;
 
-		String lower = query.toLowerCase();
-
-		for (Map.Entry<String, List<String>> entry : CATEGORY_KEYWORDS.entrySet()) {
-			for (String keyword : entry.getValue()) {
-				if (lower.contains(keyword)) {
-					return entry.getKey();
-				}
-			}
-		}
-
-		return null;
+		// First category (in dictionary order) with a keyword in the query
+		return keywordClassifier.classify(query).best(Dimension.SEARCH_CATEGORY);
 	}
 
 	/**
@@ -623,53 +951,28 @@ public class SearchServiceImpl implements SearchService {
 		if (query == null)
 			return "GENERAL";
 
-		String lower = query.toLowerCase();
-
-		// Trainer query
-		if (lower.contains("təlimçi") || lower.contains("müəllim") || lower.contains("trainer")
-				|| lower.contains("kim tədris")) {
-			return "TRAINER";
-		}
-
-		// Graduate query
-		if (lower.contains("məzun") || lower.contains("graduate") || lower.contains("uğur")
-				|| lower.contains("iş tapmış")) {
-			return "GRADUATE";
-		}
-
-		// Bootcamp structure
-		if (lower.contains("bootcamp") || lower.contains("struktur") || lower.contains("necə işləyir")
-				|| lower.contains("proqram")) {
-			return "BOOTCAMP";
-		}
-
-		// Price query
-		if (lower.contains("qiymət") || lower.contains("nə qədər") || lower.contains("pul") || lower.contains("azn")
-				|| lower.contains("manat")) {
-			return "PRICE";
-		}
-
-		// Schedule query
-		if (lower.contains("tarix") || lower.contains("vaxt") || lower.contains("nə vaxt") || lower.contains("başlayır")
-				|| lower.contains("cədvəl") || lower.contains("saat")) {
-			return "SCHEDULE";
-		}
+		// Trainer > graduate > bootcamp > price > schedule (dictionary order)
+		String queryType = keywordClassifier.classify(query).best(Dimension.QUERY_TYPE);
 
 		// Training query (default)
-		return "TRAINING";
+		return queryType != null ? queryType : "TRAINING";
 	}
 
 	/**
 	 * Search trainings with detailed information
 	 */
 	public List<SearchResult> searchTrainingsDetailed(String query) {
+		return coalesce("detailed|" + query, () -> doSearchTrainingsDetailed(query));
+	}
+
+	private List<SearchResult> doSearchTrainingsDetailed(String query) {
 		List<SearchResult> trainingResults = searchTraining(query);
 
 		// Enrich with Text details
 		for (SearchResult result : trainingResults) {
 			if (result.getRawData() instanceof Training) {
 				Training training = (Training) result.getRawData();
-				Text text = trainingTextMapper.getTextForTraining(training);
+				Text text = catalogService.current().getTextForTraining(training.getId());
 
 				if (text != null) {
 					// Store both
@@ -3,10 +3,11 @@ package az.dsa.chatbot.service.impl;
 import az.dsa.chatbot.dto.SessionData;
 import az.dsa.chatbot.entity.ChatSession;
 import az.dsa.chatbot.repository.ChatSessionRepository;
+import az.dsa.chatbot.repository.ConversationMessageRepository;
 import az.dsa.chatbot.service.SessionService;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import az.dsa.chatbot.session.ExpiredSessionReaper;
+import az.dsa.chatbot.session.SessionCache;
+import az.dsa.chatbot.session.SessionCodecs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +16,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -26,27 +28,35 @@ public class SessionServiceImpl implements SessionService {
     @Autowired
     private ChatSessionRepository chatSessionRepository;
     
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private ConversationMessageRepository conversationMessageRepository;
+    
+    @Autowired
+    private SessionCache sessionCache;
+    
+    @Autowired
+    private ExpiredSessionReaper expiredSessionReaper;
+    
+    @Autowired
+    private SessionCodecs sessionCodecs;
     
     @Value("${chatbot.session.timeout-minutes:30}")
     private int sessionTimeoutMinutes;
     
-    @Value("${chatbot.session.max-messages:20}")
-    private int maxMessagesPerSession;
+    // Messages read from chat_messages when a turn needs the conversation history
+    @Value("${chatbot.session.history.load-size:20}")
+    private int historyLoadSize;
     
     @Override
-    @Transactional
     public SessionData getOrCreateSession(String sessionId) {
-        Optional<ChatSession> existingSession = chatSessionRepository.findById(sessionId);
+        ChatSession session = sessionCache.get(sessionId);
         
-        if (existingSession.isPresent()) {
-            ChatSession session = existingSession.get();
-            
+        if (session != null) {
             // Check if expired
             if (session.getExpiresAt() != null && 
                 LocalDateTime.now().isAfter(session.getExpiresAt())) {
                 logger.info("Session expired, creating new: {}", maskSessionId(sessionId));
-                chatSessionRepository.delete(session);
+                sessionCache.delete(sessionId);
                 return createNewSession(sessionId);
             }
             
@@ -66,14 +76,12 @@ public class SessionServiceImpl implements SessionService {
     
     @Override
     public SessionData getSession(String sessionId) {
-        Optional<ChatSession> session = chatSessionRepository.findById(sessionId);
+        ChatSession chatSession = sessionCache.get(sessionId);
         
-        if (session.isEmpty()) {
+        if (chatSession == null) {
             return null;
         }
         
-        ChatSession chatSession = session.get();
-        
         // Check expiration
         if (chatSession.getExpiresAt() != null && 
             LocalDateTime.now().isAfter(chatSession.getExpiresAt())) {
@@ -85,23 +93,6 @@ public class SessionServiceImpl implements SessionService {
     }
     
     @Override
-    @Transactional
-    public void updateSessionActivity(String sessionId) {
-        Optional<ChatSession> sessionOpt = chatSessionRepository.findById(sessionId);
-        
-        if (sessionOpt.isPresent()) {
-            ChatSession session = sessionOpt.get();
-            session.setLastActivity(LocalDateTime.now());
-            session.setExpiresAt(LocalDateTime.now().plusMinutes(sessionTimeoutMinutes));
-            session.incrementMessageCount();
-            
-            chatSessionRepository.save(session);
-            logger.debug("Updated session activity: {}", maskSessionId(sessionId));
-        }
-    }
-    
-    @Override
-    @Transactional
     public void saveSession(SessionData sessionData) {
         if (sessionData == null || sessionData.getSessionId() == null) {
             logger.warn("Attempted to save null session");
@@ -109,11 +100,19 @@ public class SessionServiceImpl implements SessionService {
         }
         
         try {
-            ChatSession chatSession = convertToChatSession(sessionData);
-            chatSession.setLastActivity(LocalDateTime.now());
-            chatSession.setExpiresAt(LocalDateTime.now().plusMinutes(sessionTimeoutMinutes));
+            // Serialize outside the row lock; only the field copy happens under it
+            byte[] userData = encodeUserData(sessionData.getCollectedData());
+            
+            // Only this turn's messages are written (appended to chat_messages)
+            List<String> newMessages = sessionData.drainNewMessages();
             
-            chatSessionRepository.save(chatSession);
+            sessionCache.update(sessionData.getSessionId(), existing -> {
+                ChatSession chatSession = existing != null ? existing : new ChatSession();
+                applySessionData(chatSession, sessionData, userData, !newMessages.isEmpty());
+                chatSession.setLastActivity(LocalDateTime.now());
+                chatSession.setExpiresAt(LocalDateTime.now().plusMinutes(sessionTimeoutMinutes));
+                return chatSession;
+            }, newMessages);
             logger.debug("Session saved: {}", maskSessionId(sessionData.getSessionId()));
             
         } catch (Exception e) {
@@ -124,34 +123,22 @@ public class SessionServiceImpl implements SessionService {
     @Override
     @Transactional
     public void deleteSession(String sessionId) {
-        chatSessionRepository.deleteById(sessionId);
+        sessionCache.delete(sessionId);
         logger.info("Session deleted: {}", maskSessionId(sessionId));
     }
     
     @Override
     public boolean sessionExists(String sessionId) {
-        return chatSessionRepository.existsById(sessionId);
+        return sessionCache.read(sessionId, session -> session != null);
     }
     
     @Override
-    @Transactional
     @Scheduled(fixedRate = 3600000) // Every 1 hour
     public void cleanExpiredSessions() {
         logger.info("Starting expired sessions cleanup...");
         
         try {
-            List<ChatSession> expiredSessions = 
-                chatSessionRepository.findExpiredSessions(LocalDateTime.now());
-            
-            int count = expiredSessions.size();
-            
-            if (count > 0) {
-                chatSessionRepository.deleteAll(expiredSessions);
-                logger.info("Cleaned {} expired sessions", count);
-            } else {
-                logger.debug("No expired sessions to clean");
-            }
-            
+            expiredSessionReaper.reap();
         } catch (Exception e) {
             logger.error("Error cleaning expired sessions: {}", e.getMessage(), e);
         }
@@ -159,59 +146,20 @@ public class SessionServiceImpl implements SessionService {
     
     @Override
     public int getActiveSessionsCount() {
-        return (int) chatSessionRepository.count();
+        return sessionCache.activeCount();
     }
     
-    // ===== NEW: Rate Limiting Methods =====
+    // ===== Blocking =====
     
-    public boolean isRateLimitExceeded(String sessionId) {
-        Optional<ChatSession> sessionOpt = chatSessionRepository.findById(sessionId);
-        
-        if (sessionOpt.isEmpty()) {
-            return false;
-        }
-        
-        ChatSession session = sessionOpt.get();
-        return session.isRateLimitExceeded(maxMessagesPerSession, 60); // 60 minutes window
-    }
-    
-    @Transactional
     public void blockSession(String sessionId, String reason) {
-        Optional<ChatSession> sessionOpt = chatSessionRepository.findById(sessionId);
-        
-        if (sessionOpt.isPresent()) {
-            ChatSession session = sessionOpt.get();
+        sessionCache.update(sessionId, session -> {
+            if (session == null) {
+                return null;
+            }
             session.setIsBlocked(true);
-            chatSessionRepository.save(session);
-            
             logger.warn("Session blocked: {} - Reason: {}", maskSessionId(sessionId), reason);
-        }
-    }
-    
-    @Transactional
-    @Scheduled(cron = "0 0 * * * *") // Every hour at minute 0
-    public void resetRateLimitCounters() {
-        logger.debug("Resetting rate limit counters for active sessions");
-        
-        try {
-            List<ChatSession> activeSessions = chatSessionRepository.findAll();
-            
-            for (ChatSession session : activeSessions) {
-                if (session.getLastMessageTime() != null) {
-                    LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-                    
-                    if (session.getLastMessageTime().isBefore(oneHourAgo)) {
-                        session.resetMessageCount();
-                    }
-                }
-            }
-            
-            chatSessionRepository.saveAll(activeSessions);
-            logger.debug("Rate limit counters reset");
-            
-        } catch (Exception e) {
-            logger.error("Error resetting rate limit counters: {}", e.getMessage());
-        }
+            return session;
+        });
     }
     
     // ===== CONVERSION METHODS =====
@@ -232,74 +180,83 @@ public class SessionServiceImpl implements SessionService {
         sessionData.setCurrentMode(chatSession.getCurrentMode());
         sessionData.setCurrentStep(chatSession.getCurrentStep());
         sessionData.setCreatedAt(chatSession.getCreatedAt());
-        sessionData.setLastActivity(chatSession.getLastActivity());
         
-        // Deserialize collected data
-        if (chatSession.getUserData() != null && !chatSession.getUserData().isEmpty()) {
+        // Deserialize collected data (binary column, else JSON from the TEXT column)
+        byte[] userData = chatSession.getUserDataBin();
+        if ((userData == null || userData.length == 0) &&
+            chatSession.getUserData() != null && !chatSession.getUserData().isEmpty()) {
+            userData = chatSession.getUserData().getBytes(StandardCharsets.UTF_8);
+        }
+        if (userData != null && userData.length > 0) {
             try {
-                Map<String, String> userData = objectMapper.readValue(
-                    chatSession.getUserData(), 
-                    new TypeReference<Map<String, String>>() {}
-                );
-                sessionData.setCollectedData(userData);
-            } catch (JsonProcessingException e) {
+                sessionData.setCollectedData(sessionCodecs.readerFor(userData).decodeMap(userData));
+            } catch (RuntimeException e) {
                 logger.error("Error deserializing user data: {}", e.getMessage());
             }
         }
         
-        // Deserialize conversation history
-        if (chatSession.getConversationHistory() != null && 
-            !chatSession.getConversationHistory().isEmpty()) {
+        if (chatSession.getHistorySeq() != null) {
+            // History lives in chat_messages; read it only if this turn asks for it
+            String sessionId = chatSession.getId();
+            sessionData.setHistoryLoader(() -> sessionCache.recentMessages(sessionId, historyLoadSize));
+            
+        } else if (chatSession.getConversationHistory() != null && 
+                   !chatSession.getConversationHistory().isEmpty()) {
+            // Legacy JSON history: re-added as new messages, so the next save
+            // moves it to chat_messages
             try {
-                List<String> history = objectMapper.readValue(
-                    chatSession.getConversationHistory(), 
-                    new TypeReference<List<String>>() {}
-                );
-                sessionData.setConversationHistory(history);
-            } catch (JsonProcessingException e) {
+                List<String> history = sessionCodecs.json().decodeList(
+                    chatSession.getConversationHistory().getBytes(StandardCharsets.UTF_8));
+                history.forEach(sessionData::addMessage);
+            } catch (RuntimeException e) {
                 logger.error("Error deserializing conversation history: {}", e.getMessage());
             }
         }
         
+        sessionData.setLastActivity(chatSession.getLastActivity());
+        
         return sessionData;
     }
     
-    private ChatSession convertToChatSession(SessionData sessionData) {
-        ChatSession chatSession = chatSessionRepository.findById(sessionData.getSessionId())
-            .orElse(new ChatSession());
-        
+    private void applySessionData(ChatSession chatSession, SessionData sessionData,
+                                  byte[] userData, boolean appendsMessages) {
         chatSession.setId(sessionData.getSessionId());
         chatSession.setCurrentMode(sessionData.getCurrentMode());
         chatSession.setCurrentStep(sessionData.getCurrentStep());
-        chatSession.setCreatedAt(sessionData.getCreatedAt());
+        if (chatSession.getCreatedAt() == null) {
+            chatSession.setCreatedAt(sessionData.getCreatedAt() != null
+                ? sessionData.getCreatedAt() : LocalDateTime.now());
+        }
         chatSession.setLastActivity(sessionData.getLastActivity());
         
-        // Serialize collected data
-        try {
-            String userDataJson = objectMapper.writeValueAsString(
-                sessionData.getCollectedData()
-            );
-            chatSession.setUserData(userDataJson);
-        } catch (JsonProcessingException e) {
-            logger.error("Error serializing user data: {}", e.getMessage());
+        if (userData != null) {
+            // Written in one format only, so a stale copy in the other column cannot win
+            if (sessionCodecs.writesBinary()) {
+                chatSession.setUserDataBin(userData);
+                chatSession.setUserData(null);
+            } else {
+                chatSession.setUserData(new String(userData, StandardCharsets.UTF_8));
+                chatSession.setUserDataBin(null);
+            }
         }
-        
-        // Serialize conversation history
-        try {
-            String historyJson = objectMapper.writeValueAsString(
-                sessionData.getConversationHistory()
-            );
-            chatSession.setConversationHistory(historyJson);
-        } catch (JsonProcessingException e) {
-            logger.error("Error serializing conversation history: {}", e.getMessage());
+        if (appendsMessages || chatSession.getHistorySeq() != null) {
+            // Legacy JSON copy is superseded once messages go to chat_messages
+            chatSession.setConversationHistory(null);
         }
         
         // Set expiration
         if (chatSession.getExpiresAt() == null) {
             chatSession.setExpiresAt(LocalDateTime.now().plusMinutes(sessionTimeoutMinutes));
         }
-        
-        return chatSession;
+    }
+    
+    private byte[] encodeUserData(Map<String, String> userData) {
+        try {
+            return sessionCodecs.writer().encodeMap(userData);
+        } catch (RuntimeException e) {
+            logger.error("Error serializing user data: {}", e.getMessage());
+            return null;
+        }
     }
     
     // Helper method
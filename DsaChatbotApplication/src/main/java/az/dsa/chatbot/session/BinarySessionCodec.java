@@ -0,0 +1,227 @@
+package az.dsa.chatbot.session;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary session encoding.
+ *
+ * Layout: one header byte (PLAIN or DEFLATED), then the body - a varint count
+ * followed by each string as varint (UTF-8 length + 1) and its bytes, with 0
+ * standing for null. Maps are stored as alternating keys and values. Bodies
+ * longer than the deflate threshold are compressed (raw deflate) when that
+ * actually makes them smaller; the uncompressed length follows the header then.
+ *
+ * Header bytes never collide with '{' / '[', so payloads can be told apart from
+ * JSON written by {@link JsonSessionCodec}.
+ */
+public class BinarySessionCodec implements SessionCodec {
+
+    static final byte PLAIN = 1;
+    static final byte DEFLATED = 2;
+
+    private final int deflateThreshold;
+
+    public BinarySessionCodec(int deflateThreshold) {
+        this.deflateThreshold = deflateThreshold;
+    }
+
+    public static boolean isBinary(byte[] payload) {
+        return payload != null && payload.length > 0 && (payload[0] == PLAIN || payload[0] == DEFLATED);
+    }
+
+    @Override
+    public String name() {
+        return "binary";
+    }
+
+    @Override
+    public byte[] encodeMap(Map<String, String> map) {
+        Writer writer = new Writer();
+        writer.varint(map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            writer.string(entry.getKey());
+            writer.string(entry.getValue());
+        }
+        return frame(writer.toByteArray());
+    }
+
+    @Override
+    public Map<String, String> decodeMap(byte[] payload) {
+        Reader reader = new Reader(unframe(payload));
+        int size = reader.varint();
+        Map<String, String> map = new LinkedHashMap<>(Math.max(4, size * 2));
+        for (int i = 0; i < size; i++) {
+            map.put(reader.string(), reader.string());
+        }
+        return map;
+    }
+
+    @Override
+    public byte[] encodeList(List<String> list) {
+        Writer writer = new Writer();
+        writer.varint(list.size());
+        for (String value : list) {
+            writer.string(value);
+        }
+        return frame(writer.toByteArray());
+    }
+
+    @Override
+    public List<String> decodeList(byte[] payload) {
+        Reader reader = new Reader(unframe(payload));
+        int size = reader.varint();
+        List<String> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(reader.string());
+        }
+        return list;
+    }
+
+    // ===== FRAMING =====
+
+    private byte[] frame(byte[] body) {
+        if (body.length > deflateThreshold) {
+            byte[] compressed = deflate(body);
+            // Worth it only if it pays for the length prefix (at most 5 bytes)
+            if (compressed.length + 5 < body.length) {
+                Writer writer = new Writer();
+                writer.out.write(DEFLATED);
+                writer.varint(body.length);
+                writer.out.write(compressed, 0, compressed.length);
+                return writer.toByteArray();
+            }
+        }
+        byte[] framed = new byte[body.length + 1];
+        framed[0] = PLAIN;
+        System.arraycopy(body, 0, framed, 1, body.length);
+        return framed;
+    }
+
+    private static byte[] unframe(byte[] payload) {
+        if (!isBinary(payload)) {
+            throw new IllegalArgumentException("Not a binary session payload");
+        }
+        if (payload[0] == PLAIN) {
+            byte[] body = new byte[payload.length - 1];
+            System.arraycopy(payload, 1, body, 0, body.length);
+            return body;
+        }
+
+        Reader header = new Reader(payload);
+        header.position = 1;
+        int length = header.varint();
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(payload, header.position, payload.length - header.position);
+            byte[] body = new byte[length];
+            int read = 0;
+            while (read < length) {
+                int n = inflater.inflate(body, read, length - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length) {
+                throw new IllegalArgumentException("Truncated session payload");
+            }
+            return body;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt session payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] deflate(byte[] body) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(body);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2 + 16);
+            byte[] buffer = new byte[Math.max(64, Math.min(body.length, 8192))];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    // ===== PRIMITIVES =====
+
+    private static final class Writer {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+
+        private void varint(int value) {
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+
+        private void string(String value) {
+            if (value == null) {
+                varint(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length + 1);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        private byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        private Reader(byte[] data) {
+            this.data = data;
+        }
+
+        private int varint() {
+            int value = 0;
+            int shift = 0;
+            while (true) {
+                if (position >= data.length || shift > 28) {
+                    throw new IllegalArgumentException("Corrupt session payload");
+                }
+                byte b = data[position++];
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+                shift += 7;
+            }
+        }
+
+        private String string() {
+            int length = varint();
+            if (length == 0) {
+                return null;
+            }
+            length--;
+            if (length > data.length - position) {
+                throw new IllegalArgumentException("Corrupt session payload");
+            }
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package az.dsa.chatbot.session;
+
+import az.dsa.chatbot.entity.ChatSession;
+import az.dsa.chatbot.entity.ConversationMessage;
+import az.dsa.chatbot.repository.ChatSessionRepository;
+import az.dsa.chatbot.repository.ConversationMessageRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Removes expired sessions from chat_sessions in small batches.
+ *
+ * Each batch selects the ids of the oldest expired rows (via the expires_at
+ * index), then in one short transaction locks those still expired, optionally
+ * archives them with their messages to a gzipped JSON-lines file, and deletes
+ * the rows and their messages. Locked rows cannot be renewed before the delete,
+ * so the archive holds exactly the deleted sessions; if archiving fails the
+ * batch is rolled back.
+ * Batches are separated by a pause so the cleanup never holds locks or I/O for
+ * long, and a run stops after max-run-ms; whatever is left is picked up by the
+ * next run.
+ */
+@Component
+public class ExpiredSessionReaper {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpiredSessionReaper.class);
+
+    private static final DateTimeFormatter ARCHIVE_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @Autowired
+    private ChatSessionRepository chatSessionRepository;
+
+    @Autowired
+    private ConversationMessageRepository conversationMessageRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${chatbot.session.reaper.batch-size:500}")
+    private int batchSize;
+
+    // Pause between batches, leaves the database to foreground traffic
+    @Value("${chatbot.session.reaper.pause-ms:200}")
+    private long pauseMs;
+
+    @Value("${chatbot.session.reaper.max-run-ms:60000}")
+    private long maxRunMs;
+
+    @Value("${chatbot.session.reaper.archive-enabled:false}")
+    private boolean archiveEnabled;
+
+    @Value("${chatbot.session.reaper.archive-dir:./data/session-archive}")
+    private String archiveDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Counter deleted;
+    private Timer batchTimer;
+
+    @PostConstruct
+    public void registerMetrics() {
+        deleted = meterRegistry.counter("chatbot.session.reaper.deleted");
+        batchTimer = meterRegistry.timer("chatbot.session.reaper.batch");
+    }
+
+    /**
+     * Delete sessions that expired before now, batch by batch; returns how many were deleted
+     */
+    public int reap() {
+        LocalDateTime now = LocalDateTime.now();
+        long start = System.nanoTime();
+        long stopAt = start + maxRunMs * 1_000_000L;
+        int total = 0;
+        int batches = 0;
+
+        try (Archive archive = archiveEnabled ? new Archive(now) : null) {
+            while (true) {
+                long batchStart = System.nanoTime();
+                List<String> ids = chatSessionRepository.findExpiredIds(now, batchSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                // Session rows and their messages go together, or not at all
+                List<String> removed = new TransactionTemplate(transactionManager).execute(status -> {
+                    List<String> locked = chatSessionRepository.lockExpired(ids, now);
+                    if (archive != null) {
+                        archive.write(locked);
+                    }
+                    List<String> deletedIds = chatSessionRepository.deleteExpired(locked, now);
+                    conversationMessageRepository.deleteBySessionIds(deletedIds);
+                    return deletedIds;
+                });
+                batchTimer.record(System.nanoTime() - batchStart, TimeUnit.NANOSECONDS);
+
+                total += removed.size();
+                batches++;
+                deleted.increment(removed.size());
+
+                // Short batch: nothing older is left. Also stop if a batch removed
+                // nothing (all renewed meanwhile) so the loop cannot spin on them.
+                if (ids.size() < batchSize || removed.isEmpty() || System.nanoTime() >= stopAt) {
+                    break;
+                }
+                Thread.sleep(pauseMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | UncheckedIOException e) {
+            // A batch whose archive failed was rolled back
+            logger.error("Error archiving expired sessions to {}: {}", archiveDir, e.getMessage(), e);
+        } catch (DataAccessException | TransactionException e) {
+            // The failed batch was rolled back; the next run retries it
+            logger.error("Error deleting expired sessions: {}", e.getMessage(), e);
+        }
+
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000L);
+        if (total > 0) {
+            logger.info("Reaped {} expired sessions in {} batches, {} ms ({} rows/s)",
+                       total, batches, elapsedMs, total * 1000L / elapsedMs);
+        } else {
+            logger.debug("No expired sessions to reap");
+        }
+        return total;
+    }
+
+    /**
+     * One gzipped JSON-lines file per run: a line per session with its messages
+     */
+    private final class Archive implements AutoCloseable {
+
+        private final Path path;
+        private BufferedWriter writer;
+
+        private Archive(LocalDateTime now) {
+            this.path = Paths.get(archiveDir, "sessions-" + ARCHIVE_NAME.format(now) + ".jsonl.gz");
+        }
+
+        /**
+         * Write the given (locked) sessions; IOException is rethrown unchecked to roll the batch back
+         */
+        private void write(List<String> ids) {
+            try {
+                writeLines(ids);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeLines(List<String> ids) throws IOException {
+            if (ids.isEmpty()) {
+                return;
+            }
+            if (writer == null) {
+                Files.createDirectories(path.getParent());
+                writer = new BufferedWriter(new OutputStreamWriter(
+                        new GZIPOutputStream(Files.newOutputStream(path)), StandardCharsets.UTF_8));
+            }
+
+            Map<String, List<String>> messages = new HashMap<>();
+            for (ConversationMessage message : conversationMessageRepository.findBySessionIds(ids)) {
+                messages.computeIfAbsent(message.getSessionId(), id -> new ArrayList<>()).add(message.getContent());
+            }
+
+            for (ChatSession session : chatSessionRepository.findAllById(ids)) {
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("id", session.getId());
+                line.put("createdAt", Objects.toString(session.getCreatedAt(), null));
+                line.put("lastActivity", Objects.toString(session.getLastActivity(), null));
+                line.put("expiresAt", Objects.toString(session.getExpiresAt(), null));
+                line.put("messageCount", session.getMessageCount());
+                line.put("messages", messages.getOrDefault(session.getId(), List.of()));
+                if (session.getConversationHistory() != null) {
+                    line.put("legacyHistory", session.getConversationHistory());
+                }
+                writer.write(objectMapper.writeValueAsString(line));
+                writer.newLine();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+                logger.info("Archived expired sessions to {}", path);
+            }
+        }
+    }
+}
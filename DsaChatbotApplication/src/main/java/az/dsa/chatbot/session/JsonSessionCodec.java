@@ -0,0 +1,64 @@
+package az.dsa.chatbot.session;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON session encoding (UTF-8), the format of the original TEXT columns.
+ * Kept to read rows written before the binary codec and as a fallback format.
+ */
+public class JsonSessionCodec implements SessionCodec {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Readers are immutable and thread-safe; built once instead of per call
+    private static final ObjectReader MAP_READER = MAPPER.readerFor(new TypeReference<Map<String, String>>() {});
+    private static final ObjectReader LIST_READER = MAPPER.readerFor(new TypeReference<List<String>>() {});
+
+    @Override
+    public String name() {
+        return "json";
+    }
+
+    @Override
+    public byte[] encodeMap(Map<String, String> map) {
+        return write(map);
+    }
+
+    @Override
+    public Map<String, String> decodeMap(byte[] payload) {
+        return read(MAP_READER, payload);
+    }
+
+    @Override
+    public byte[] encodeList(List<String> list) {
+        return write(list);
+    }
+
+    @Override
+    public List<String> decodeList(byte[] payload) {
+        return read(LIST_READER, payload);
+    }
+
+    private static byte[] write(Object value) {
+        try {
+            return MAPPER.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> T read(ObjectReader reader, byte[] payload) {
+        try {
+            return reader.readValue(payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
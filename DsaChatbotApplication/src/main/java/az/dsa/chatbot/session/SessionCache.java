@@ -0,0 +1,540 @@
+package az.dsa.chatbot.session;
+
+import az.dsa.chatbot.entity.ChatSession;
+import az.dsa.chatbot.entity.ConversationMessage;
+import az.dsa.chatbot.repository.ChatSessionRepository;
+import az.dsa.chatbot.repository.ConversationMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory tier in front of the chat_sessions table.
+ *
+ * Reads are served from memory after the first load. Writes mutate the cached
+ * row and mark it dirty; in write-behind mode dirty rows are flushed together
+ * as one batched upsert every {@code max-lag-ms}, in write-through mode each
+ * write is upserted immediately. Everything still dirty is flushed on shutdown.
+ *
+ * Conversation messages are appended, not rewritten: each write queues its new
+ * messages with the next per-session seq, and the flush inserts them into
+ * chat_messages in the same batch as the session rows.
+ *
+ * The cache is bounded: every row is scheduled on a timing wheel for the
+ * session timeout after its last access. When it comes due the row is flushed
+ * if dirty and dropped, or rescheduled if it was used in the meantime, so idle
+ * sessions leave memory within a tick of expiring. Once {@code max-size} is
+ * exceeded the least recently used clean rows are dropped as well, by the flush
+ * job right after it has written them, so requests never flush or scan the cache
+ * themselves and max-size may be overshot for up to {@code max-lag-ms}. Dirty
+ * rows are never evicted before they have been flushed.
+ */
+@Component
+public class SessionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionCache.class);
+
+    private static final String WRITE_THROUGH = "write-through";
+
+    @Autowired
+    private ChatSessionRepository chatSessionRepository;
+
+    @Autowired
+    private ConversationMessageRepository conversationMessageRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chatbot.session.cache.write-mode:write-behind}")
+    private String writeMode;
+
+    @Value("${chatbot.session.cache.max-size:10000}")
+    private int maxSize;
+
+    // Idle time after which a session leaves memory
+    @Value("${chatbot.session.timeout-minutes:30}")
+    private int timeoutMinutes;
+
+    @Value("${chatbot.session.expiry.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${chatbot.session.cache.batch-size:200}")
+    private int batchSize;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private TimingWheel<Entry> expiry;
+
+    /** Serialises flushes with deletes so a flush in flight cannot resurrect a deleted row */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private Counter hits;
+    private Counter misses;
+    private Counter flushFailures;
+    private Counter expired;
+    private Timer flushTimer;
+
+    @PostConstruct
+    public void registerMetrics() {
+        long timeoutTicks = TimeUnit.MINUTES.toMillis(timeoutMinutes) / tickMs + 1;
+        expiry = new TimingWheel<>(TimeUnit.MILLISECONDS.toNanos(tickMs),
+                                   (int) Math.min(timeoutTicks, 1 << 16), System.nanoTime());
+
+        hits = meterRegistry.counter("chatbot.session.cache.requests", "result", "hit");
+        misses = meterRegistry.counter("chatbot.session.cache.requests", "result", "miss");
+        flushFailures = meterRegistry.counter("chatbot.session.cache.flush.failures");
+        expired = meterRegistry.counter("chatbot.session.cache.expired");
+        flushTimer = meterRegistry.timer("chatbot.session.cache.flush");
+        Gauge.builder("chatbot.session.cache.size", entries, Map::size).register(meterRegistry);
+        Gauge.builder("chatbot.session.cache.dirty", this, SessionCache::dirtyCount).register(meterRegistry);
+        Gauge.builder("chatbot.session.active", this, SessionCache::activeCount).register(meterRegistry);
+
+        logger.info("Session cache: mode={}, max-size={}, timeout={} min, expiry wheel {} x {} ms",
+                   writeMode, maxSize, timeoutMinutes, expiry.length(), tickMs);
+    }
+
+    /**
+     * Read the cached row (loading it on a miss) under its lock.
+     * The reader receives null when the session does not exist and must not keep the row.
+     */
+    public <R> R read(String sessionId, Function<ChatSession, R> reader) {
+        while (true) {
+            Entry entry = entryFor(sessionId);
+            if (entry == null) {
+                return reader.apply(null);
+            }
+            synchronized (entry) {
+                if (!entry.removed) {
+                    entry.touch();
+                    return reader.apply(entry.row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Detached copy of the cached row, or null when the session does not exist
+     */
+    public ChatSession get(String sessionId) {
+        return read(sessionId, row -> row != null ? copy(row) : null);
+    }
+
+    /**
+     * Mutate the row in place under its lock and mark it dirty.
+     * The updater receives null when the session does not exist; returning a
+     * row then creates it, returning null leaves the session absent.
+     */
+    public void update(String sessionId, UnaryOperator<ChatSession> updater) {
+        update(sessionId, updater, List.of());
+    }
+
+    /**
+     * As {@link #update(String, UnaryOperator)}, also appending messages to the
+     * session's conversation (numbered after the row's history_seq)
+     */
+    public void update(String sessionId, UnaryOperator<ChatSession> updater, List<String> messages) {
+        Entry written = null;
+
+        while (written == null) {
+            Entry entry = entryFor(sessionId);
+
+            if (entry == null) {
+                ChatSession created = updater.apply(null);
+                if (created == null) {
+                    return;
+                }
+                created.setId(sessionId);
+                Entry fresh = new Entry(sessionId, created);
+                fresh.version = 1;
+                fresh.lastTurn = fresh.lastAccess;
+                fresh.append(messages);
+                if (entries.putIfAbsent(sessionId, fresh) == null) {
+                    written = fresh;
+                    scheduleExpiry(fresh);
+                }
+                continue;
+            }
+
+            synchronized (entry) {
+                if (entry.removed) {
+                    continue;
+                }
+                ChatSession updated = updater.apply(entry.row);
+                if (updated == null) {
+                    return;
+                }
+                entry.row = updated;
+                entry.version++;
+                entry.append(messages);
+                entry.touch();
+                entry.lastTurn = entry.lastAccess;
+                written = entry;
+            }
+        }
+
+        if (WRITE_THROUGH.equalsIgnoreCase(writeMode)) {
+            flushEntries(List.of(written));
+        }
+    }
+
+    /**
+     * Last limit messages of the session, oldest first: stored rows plus those
+     * still waiting for the next flush
+     */
+    public List<String> recentMessages(String sessionId, int limit) {
+        TreeMap<Integer, String> bySeq = new TreeMap<>();
+
+        // Snapshot the queue before reading the table, so a flush in between
+        // leaves each message in at least one of the two
+        Entry entry = entries.get(sessionId);
+        if (entry != null) {
+            synchronized (entry) {
+                entry.pendingMessages.forEach(m -> bySeq.put(m.getSeq(), m.getContent()));
+            }
+        }
+        for (ConversationMessage stored : conversationMessageRepository.findRecent(sessionId, limit)) {
+            bySeq.putIfAbsent(stored.getSeq(), stored.getContent());
+        }
+
+        List<String> messages = new ArrayList<>(bySeq.values());
+        return messages.size() > limit ? messages.subList(messages.size() - limit, messages.size()) : messages;
+    }
+
+    /**
+     * Drop the session from memory and delete its row and messages
+     */
+    public void delete(String sessionId) {
+        flushLock.lock();
+        try {
+            Entry entry = entries.remove(sessionId);
+            if (entry != null) {
+                synchronized (entry) {
+                    entry.removed = true;
+                }
+            }
+            chatSessionRepository.deleteById(sessionId);
+            conversationMessageRepository.deleteBySessionIds(List.of(sessionId));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Write every dirty row to the database in batches, then bring the cache back
+     * under max-size. Runs every {@code max-lag-ms}, which bounds how far the
+     * table lags behind memory.
+     */
+    @Scheduled(fixedDelayString = "${chatbot.session.cache.max-lag-ms:2000}")
+    public void flush() {
+        flushEntries(entries.values());
+        evictOverCapacity();
+    }
+
+    /**
+     * Expire the rows that come due on the wheel this tick: rows used since they
+     * were scheduled go back on the wheel, idle ones are flushed and dropped
+     */
+    @Scheduled(fixedDelayString = "${chatbot.session.expiry.tick-ms:1000}")
+    public void expireIdle() {
+        long now = System.nanoTime();
+        List<Entry> idle = new ArrayList<>();
+
+        for (Entry entry : expiry.advance(now)) {
+            synchronized (entry) {
+                if (entry.removed) {
+                    continue;
+                }
+                if (idleDeadline(entry) > now) {
+                    scheduleExpiry(entry);
+                } else {
+                    idle.add(entry);
+                }
+            }
+        }
+        if (idle.isEmpty()) {
+            return;
+        }
+
+        flushEntries(idle);
+
+        int evicted = 0;
+        for (Entry entry : idle) {
+            synchronized (entry) {
+                if (entry.removed) {
+                    continue;
+                }
+                // Touched during the flush, or the flush failed: check again later
+                if (idleDeadline(entry) > now || entry.isDirty()) {
+                    scheduleExpiry(entry);
+                } else if (entries.remove(entry.sessionId, entry)) {
+                    entry.removed = true;
+                    evicted++;
+                }
+            }
+        }
+
+        expired.increment(evicted);
+        if (evicted > 0) {
+            logger.debug("Expired {} idle sessions from cache", evicted);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        logger.info("Flushing {} dirty sessions before shutdown", dirtyCount());
+        flush();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Sessions written to within the timeout. Rows only loaded to be read (session
+     * info, history) and rows idle past the timeout but not yet expired by the
+     * next tick are not counted, nor are sessions pushed out early by max-size.
+     */
+    public int activeCount() {
+        long since = System.nanoTime() - TimeUnit.MINUTES.toNanos(timeoutMinutes);
+        int active = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.lastTurn - since > 0) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    // ===== INTERNALS =====
+
+    private Entry entryFor(String sessionId) {
+        Entry entry = entries.get(sessionId);
+        if (entry != null) {
+            hits.increment();
+            return entry;
+        }
+
+        misses.increment();
+        ChatSession loaded = chatSessionRepository.findById(sessionId).map(SessionCache::copy).orElse(null);
+        if (loaded == null) {
+            return null;
+        }
+
+        Entry fresh = new Entry(sessionId, loaded);
+        fresh.lastTurn = lastTurnNanos(loaded.getLastActivity());
+        Entry existing = entries.putIfAbsent(sessionId, fresh);
+        if (existing != null) {
+            return existing;
+        }
+        scheduleExpiry(fresh);
+        return fresh;
+    }
+
+    /**
+     * Stored last activity as a System.nanoTime() value; long past when unknown
+     */
+    private long lastTurnNanos(LocalDateTime lastActivity) {
+        long timeout = TimeUnit.MINUTES.toNanos(timeoutMinutes);
+        long ago = lastActivity != null
+                ? Math.min(Duration.between(lastActivity, LocalDateTime.now()).toNanos(), timeout)
+                : timeout;
+        return System.nanoTime() - Math.max(0, ago);
+    }
+
+    private long idleDeadline(Entry entry) {
+        return entry.lastAccess + TimeUnit.MINUTES.toNanos(timeoutMinutes);
+    }
+
+    private void scheduleExpiry(Entry entry) {
+        expiry.schedule(entry, idleDeadline(entry));
+    }
+
+    private void flushEntries(Iterable<Entry> candidates) {
+        flushLock.lock();
+        try {
+            List<Entry> batchEntries = new ArrayList<>();
+            List<ChatSession> batchRows = new ArrayList<>();
+            List<Long> batchVersions = new ArrayList<>();
+            List<List<ConversationMessage>> batchMessages = new ArrayList<>();
+
+            for (Entry entry : candidates) {
+                synchronized (entry) {
+                    if (entry.removed || !entry.isDirty()) {
+                        continue;
+                    }
+                    batchEntries.add(entry);
+                    batchRows.add(copy(entry.row));
+                    batchVersions.add(entry.version);
+                    batchMessages.add(new ArrayList<>(entry.pendingMessages));
+                }
+            }
+
+            if (batchRows.isEmpty()) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            for (int from = 0; from < batchRows.size(); from += batchSize) {
+                int to = Math.min(from + batchSize, batchRows.size());
+                chatSessionRepository.upsertAll(batchRows.subList(from, to));
+
+                List<ConversationMessage> messages = new ArrayList<>();
+                batchMessages.subList(from, to).forEach(messages::addAll);
+                conversationMessageRepository.insertAll(messages);
+
+                // Only rows unchanged since the snapshot become clean
+                for (int i = from; i < to; i++) {
+                    Entry entry = batchEntries.get(i);
+                    List<ConversationMessage> flushed = batchMessages.get(i);
+                    synchronized (entry) {
+                        entry.flushedVersion = Math.max(entry.flushedVersion, batchVersions.get(i));
+                        if (!flushed.isEmpty()) {
+                            int lastSeq = flushed.get(flushed.size() - 1).getSeq();
+                            entry.pendingMessages.removeIf(m -> m.getSeq() <= lastSeq);
+                        }
+                    }
+                }
+            }
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            logger.debug("Flushed {} sessions", batchRows.size());
+
+        } catch (Exception e) {
+            // Rows stay dirty and are retried on the next flush
+            flushFailures.increment();
+            logger.error("Error flushing sessions: {}", e.getMessage(), e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Drop the least recently used clean rows beyond max-size. Only the excess
+     * oldest rows are kept in a heap, so a pass is O(n log excess).
+     */
+    private void evictOverCapacity() {
+        int excess = entries.size() - maxSize;
+        if (excess <= 0) {
+            return;
+        }
+
+        // Max-heap on last access (read once per row) holding the excess least recently used rows
+        PriorityQueue<Map.Entry<Long, Entry>> oldest = new PriorityQueue<>(excess + 1,
+                Map.Entry.<Long, Entry>comparingByKey().reversed());
+        for (Entry entry : entries.values()) {
+            oldest.add(Map.entry(entry.lastAccess, entry));
+            if (oldest.size() > excess) {
+                oldest.poll();
+            }
+        }
+
+        int evicted = 0;
+        for (Map.Entry<Long, Entry> candidate : oldest) {
+            Entry entry = candidate.getValue();
+            synchronized (entry) {
+                if (!entry.isDirty() && entries.remove(entry.sessionId, entry)) {
+                    entry.removed = true;
+                    evicted++;
+                }
+            }
+        }
+        logger.debug("Evicted {} sessions over max-size", evicted);
+    }
+
+    private int dirtyCount() {
+        int dirty = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.isDirty()) {
+                dirty++;
+            }
+        }
+        return dirty;
+    }
+
+    private static ChatSession copy(ChatSession source) {
+        return ChatSession.builder()
+            .id(source.getId())
+            .userData(source.getUserData())
+            .userDataBin(source.getUserDataBin())
+            .conversationHistory(source.getConversationHistory())
+            .historySeq(source.getHistorySeq())
+            .currentMode(source.getCurrentMode())
+            .currentStep(source.getCurrentStep())
+            .createdAt(source.getCreatedAt())
+            .lastActivity(source.getLastActivity())
+            .expiresAt(source.getExpiresAt())
+            .messageCount(source.getMessageCount())
+            .lastMessageTime(source.getLastMessageTime())
+            .ipAddress(source.getIpAddress())
+            .userAgent(source.getUserAgent())
+            .isBlocked(source.getIsBlocked())
+            .build();
+    }
+
+    /**
+     * Cached row plus its write state; fields are guarded by the entry's monitor
+     */
+    private static final class Entry {
+        private final String sessionId;
+        private ChatSession row;
+        private long version;
+        private long flushedVersion;
+        private boolean removed;
+        private volatile long lastAccess = System.nanoTime();
+        // Last write (a turn), for activeCount; reads only move lastAccess
+        private volatile long lastTurn;
+        private final List<ConversationMessage> pendingMessages = new ArrayList<>();
+
+        private Entry(String sessionId, ChatSession row) {
+            this.sessionId = sessionId;
+            this.row = row;
+        }
+
+        private void append(List<String> messages) {
+            if (messages.isEmpty()) {
+                return;
+            }
+            int seq = row.getHistorySeq() != null ? row.getHistorySeq() : 0;
+            LocalDateTime now = LocalDateTime.now();
+            for (String message : messages) {
+                pendingMessages.add(ConversationMessage.builder()
+                    .sessionId(sessionId)
+                    .seq(++seq)
+                    .content(message)
+                    .createdAt(now)
+                    .build());
+            }
+            row.setHistorySeq(seq);
+        }
+
+        private void touch() {
+            lastAccess = System.nanoTime();
+        }
+
+        private boolean isDirty() {
+            return version != flushedVersion;
+        }
+    }
+}
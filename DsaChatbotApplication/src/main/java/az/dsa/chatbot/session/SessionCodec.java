@@ -0,0 +1,21 @@
+package az.dsa.chatbot.session;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serialized form of the session fields stored in chat_sessions
+ * (collected user data; legacy conversation history)
+ */
+public interface SessionCodec {
+
+    String name();
+
+    byte[] encodeMap(Map<String, String> map);
+
+    Map<String, String> decodeMap(byte[] payload);
+
+    byte[] encodeList(List<String> list);
+
+    List<String> decodeList(byte[] payload);
+}
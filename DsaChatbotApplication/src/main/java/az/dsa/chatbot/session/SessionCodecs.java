@@ -0,0 +1,58 @@
+package az.dsa.chatbot.session;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Picks the codec sessions are written with ({@code chatbot.session.codec.format})
+ * and the one a stored payload was written with. Binary payloads go to the
+ * user_data_bin (bytea) column, JSON keeps using the user_data TEXT column.
+ */
+@Component
+public class SessionCodecs {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionCodecs.class);
+
+    @Value("${chatbot.session.codec.format:binary}")
+    private String format;
+
+    // Binary bodies larger than this are deflated
+    @Value("${chatbot.session.codec.deflate-threshold-bytes:512}")
+    private int deflateThreshold;
+
+    private final JsonSessionCodec json = new JsonSessionCodec();
+    private SessionCodec binary;
+    private SessionCodec writer;
+
+    @PostConstruct
+    public void init() {
+        binary = new BinarySessionCodec(deflateThreshold);
+        writer = "json".equalsIgnoreCase(format) ? json : binary;
+        logger.info("Session codec: {} (deflate above {} bytes)", writer.name(), deflateThreshold);
+    }
+
+    /**
+     * Codec for new writes
+     */
+    public SessionCodec writer() {
+        return writer;
+    }
+
+    public boolean writesBinary() {
+        return writer == binary;
+    }
+
+    /**
+     * Codec that can read a stored payload
+     */
+    public SessionCodec readerFor(byte[] payload) {
+        return BinarySessionCodec.isBinary(payload) ? binary : json;
+    }
+
+    public SessionCodec json() {
+        return json;
+    }
+}
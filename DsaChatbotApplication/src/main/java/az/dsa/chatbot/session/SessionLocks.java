@@ -0,0 +1,126 @@
+package az.dsa.chatbot.session;
+
+import az.dsa.chatbot.exception.SessionBusyException;
+import az.dsa.chatbot.util.Deadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * One fair lock per active session, so turns of the same session run one after
+ * another (in arrival order) while different sessions never wait for each other.
+ *
+ * A lock exists only while some thread holds or waits for it: entries are
+ * reference-counted and removed by the last user, so the table stays as small
+ * as the number of sessions currently being processed.
+ */
+@Component
+public class SessionLocks {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Give up on a session stuck behind a turn longer than this (or the turn deadline, if sooner)
+    @Value("${chatbot.session.lock.wait-timeout-ms:30000}")
+    private long waitTimeoutMs;
+
+    private final Map<String, SessionLock> locks = new ConcurrentHashMap<>();
+
+    private Timer waitTimer;
+    private Counter contended;
+    private Counter timeouts;
+
+    public SessionLocks() {
+    }
+
+    // For tests
+    SessionLocks(MeterRegistry meterRegistry, long waitTimeoutMs) {
+        this.meterRegistry = meterRegistry;
+        this.waitTimeoutMs = waitTimeoutMs;
+        registerMetrics();
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        waitTimer = meterRegistry.timer("chatbot.session.lock.wait");
+        contended = meterRegistry.counter("chatbot.session.lock.contended");
+        timeouts = meterRegistry.counter("chatbot.session.lock.timeouts");
+        Gauge.builder("chatbot.session.lock.active", locks, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Run work while holding the session's lock.
+     *
+     * @throws SessionBusyException if the lock could not be taken within the wait
+     *         timeout or the remaining turn deadline, whichever is shorter
+     */
+    public <T> T withLock(String sessionId, Supplier<T> work) {
+        SessionLock lock = locks.compute(sessionId, (id, existing) -> {
+            SessionLock acquired = existing != null ? existing : new SessionLock();
+            acquired.users++;
+            return acquired;
+        });
+
+        try {
+            long start = System.nanoTime();
+            boolean free = false;
+            try {
+                // Timed form even with zero wait: the untimed tryLock() barges past queued turns
+                free = lock.tryLock(0, TimeUnit.MILLISECONDS);
+                if (!free) {
+                    contended.increment();
+                    long waitMs = Math.min(waitTimeoutMs, Deadline.current().remainingMillis());
+                    free = lock.tryLock(waitMs, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!free) {
+                timeouts.increment();
+                throw new SessionBusyException("Session is busy with an earlier message");
+            }
+
+            try {
+                return work.get();
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            locks.computeIfPresent(sessionId, (id, existing) -> --existing.users == 0 ? null : existing);
+        }
+    }
+
+    public void runWithLock(String sessionId, Runnable work) {
+        withLock(sessionId, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    int activeCount() {
+        return locks.size();
+    }
+
+    /**
+     * Fair lock plus the number of threads holding or waiting for it (guarded by the map's compute)
+     */
+    private static final class SessionLock extends ReentrantLock {
+        private int users;
+
+        private SessionLock() {
+            super(true);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package az.dsa.chatbot.session;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed timing wheel: timers are hashed by their deadline tick into a ring of
+ * buckets, and each tick only looks at its own bucket, so scheduling is O(1)
+ * and a tick costs the timers that fall into it rather than all of them.
+ *
+ * A deadline further away than one revolution simply stays in its bucket until
+ * the wheel comes round to its tick. There is no cancel: owners check on expiry
+ * whether the item is still due and schedule it again if it is not.
+ *
+ * Time is passed in by the caller (System.nanoTime() values), which keeps the
+ * wheel deterministic under test.
+ */
+final class TimingWheel<T> {
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final List<List<Timer<T>>> buckets;
+    private final int mask;
+
+    // Last tick whose bucket has been expired
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param minTicks ticks the wheel should cover in one revolution (rounded up to a power of two)
+     */
+    TimingWheel(long tickNanos, int minTicks, long startNanos) {
+        int length = Integer.highestOneBit(Math.max(1, minTicks - 1)) << 1;
+        this.tickNanos = tickNanos;
+        this.startNanos = startNanos;
+        this.mask = length - 1;
+        this.buckets = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Expire item at the first tick at or after deadlineNanos (the next tick if that has passed)
+     */
+    synchronized void schedule(T item, long deadlineNanos) {
+        long tick = Math.max(currentTick + 1, Math.floorDiv(deadlineNanos - startNanos + tickNanos - 1, tickNanos));
+        buckets.get((int) (tick & mask)).add(new Timer<>(item, tick));
+        size++;
+    }
+
+    /**
+     * Advance to nowNanos and return the items whose deadline has passed
+     */
+    synchronized List<T> advance(long nowNanos) {
+        long targetTick = Math.floorDiv(nowNanos - startNanos, tickNanos);
+        List<T> expired = new ArrayList<>();
+        if (targetTick <= currentTick) {
+            return expired;
+        }
+
+        // After a long stall one revolution visits every bucket
+        long steps = Math.min(targetTick - currentTick, buckets.size());
+        for (long tick = currentTick + 1; tick <= currentTick + steps; tick++) {
+            List<Timer<T>> bucket = buckets.get((int) (tick & mask));
+            int kept = 0;
+            for (Timer<T> timer : bucket) {
+                if (timer.tick <= targetTick) {
+                    expired.add(timer.item);
+                } else {
+                    bucket.set(kept++, timer);
+                }
+            }
+            size -= bucket.size() - kept;
+            bucket.subList(kept, bucket.size()).clear();
+        }
+        currentTick = targetTick;
+        return expired;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    int length() {
+        return buckets.size();
+    }
+
+    private static final class Timer<T> {
+        private final T item;
+        private final long tick;
+
+        private Timer(T item, long tick) {
+            this.item = item;
+            this.tick = tick;
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package az.dsa.chatbot.util;
+
+import az.dsa.chatbot.catalog.CatalogRefreshedEvent;
+import az.dsa.chatbot.catalog.CatalogSnapshot;
+import az.dsa.chatbot.entity.Faq;
+import az.dsa.chatbot.entity.Text;
+import az.dsa.chatbot.entity.Training;
+import az.dsa.chatbot.search.TextTokenizer;
+import az.dsa.chatbot.util.KeywordClassifier.Dimension;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Deterministic normalizer for Azerbaijani chat messages.
+ *
+ * Lowercases with the Azerbaijani locale (İ -> i, I -> ı), collapses whitespace and
+ * repeated punctuation, and resolves each word against a lexicon: exact match,
+ * chat-speak typo table, diacritic folding ("qiymet" -> "qiymət", "muellim" -> "müəllim"),
+ * suffix stripping for inflected forms, and finally a distance-1 lookup in the
+ * corpus typo dictionary. Every word gets a score for how it was resolved; their
+ * mean is the confidence, and only messages below the threshold go to the LLM.
+ *
+ * The lexicon is the bundled word list, the keyword dictionaries and the catalog
+ * vocabulary (training/text titles, FAQ questions), rebuilt on every catalog refresh.
+ */
+@Component
+public class AzerbaijaniNormalizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AzerbaijaniNormalizer.class);
+
+    public static final Locale AZERBAIJANI = Locale.forLanguageTag("az");
+
+    private static final String DEFAULT_LOCATION = "classpath:normalizer-dictionary.json";
+
+    // Per-word scores by resolution path
+    private static final double EXACT = 1.0;
+    private static final double TYPO_TABLE = 1.0;
+    private static final double FOLDED = 0.9;
+    private static final double STEMMED = 0.8;
+    private static final double EDIT_DISTANCE = 0.5;
+    private static final double UNKNOWN = 0.0;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Autowired
+    private KeywordClassifier keywordClassifier;
+
+    @Autowired
+    private FuzzyMatcher fuzzyMatcher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chatbot.normalizer.dictionary:" + DEFAULT_LOCATION + "}")
+    private String location;
+
+    @Value("${chatbot.normalizer.llm-threshold:0.75}")
+    private double llmThreshold;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private List<String> baseWords = Collections.emptyList();
+    private Map<String, String> typos = Collections.emptyMap();
+    private List<String> suffixes = Collections.emptyList();
+
+    private volatile Lexicon lexicon = new Lexicon(Collections.emptySet(), Collections.emptyMap(),
+            Collections.emptyMap(), Collections.emptyList());
+
+    private Counter localCounter;
+    private Counter llmCounter;
+    private DistributionSummary confidenceSummary;
+
+    @PostConstruct
+    public void init() {
+        localCounter = meterRegistry.counter("chatbot.normalizer.decisions", "path", "local");
+        llmCounter = meterRegistry.counter("chatbot.normalizer.decisions", "path", "llm");
+        confidenceSummary = DistributionSummary.builder("chatbot.normalizer.confidence")
+                .publishPercentiles(0.1, 0.5, 0.9)
+                .register(meterRegistry);
+
+        try (InputStream in = resourceLoader.getResource(location).getInputStream()) {
+            Map<String, Object> dictionary = objectMapper.readValue(in, new TypeReference<Map<String, Object>>() {});
+            baseWords = castList(dictionary.get("words"));
+            typos = castMap(dictionary.get("typos"));
+            suffixes = castList(dictionary.get("suffixes"));
+        } catch (Exception e) {
+            logger.error("Error loading normalizer dictionary from {}: {}", location, e.getMessage());
+        }
+
+        lexicon = buildLexicon(Collections.emptyList());
+    }
+
+    @EventListener
+    public void onCatalogRefreshed(CatalogRefreshedEvent event) {
+        CatalogSnapshot catalog = event.getSnapshot();
+        List<String> catalogText = new ArrayList<>();
+        for (Training training : catalog.getTrainings()) {
+            catalogText.add(training.getTitle());
+        }
+        for (Text text : catalog.getTexts()) {
+            catalogText.add(text.getTitle());
+        }
+        for (Faq faq : catalog.getFaqs()) {
+            catalogText.add(faq.getQuestion());
+        }
+        lexicon = buildLexicon(catalogText);
+    }
+
+    /**
+     * Normalize a message and score how confidently it was understood
+     */
+    public Result normalize(String text) {
+        if (text == null || text.isBlank()) {
+            return new Result(text, 1.0, 0);
+        }
+
+        Lexicon current = lexicon;
+        String lower = text.trim().toLowerCase(AZERBAIJANI);
+        StringBuilder out = new StringBuilder(lower.length());
+
+        double score = 0;
+        int words = 0;
+        int corrections = 0;
+        boolean pendingSpace = false;
+
+        int i = 0;
+        while (i < lower.length()) {
+            char c = lower.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                pendingSpace = out.length() > 0;
+                i++;
+                continue;
+            }
+
+            if (Character.isLetterOrDigit(c)) {
+                int end = i;
+                while (end < lower.length() && isWordChar(lower, end)) {
+                    end++;
+                }
+                String word = lower.substring(i, end);
+                Resolution resolution = resolve(word, current);
+
+                if (pendingSpace) {
+                    out.append(' ');
+                }
+                out.append(resolution.text);
+                score += resolution.score;
+                words++;
+                if (!resolution.text.equals(word)) {
+                    corrections++;
+                }
+                pendingSpace = false;
+                i = end;
+                continue;
+            }
+
+            // Punctuation: drop repeats ("???" -> "?") and the space before closing marks
+            boolean repeat = out.length() > 0 && out.charAt(out.length() - 1) == c;
+            if (!repeat) {
+                if (pendingSpace && ",.?!:;)".indexOf(c) < 0) {
+                    out.append(' ');
+                }
+                out.append(c);
+            }
+            pendingSpace = false;
+            i++;
+        }
+
+        double confidence = words == 0 ? 1.0 : score / words;
+        return new Result(out.toString(), confidence, corrections);
+    }
+
+    /**
+     * Whether the local result is good enough to skip the LLM;
+     * records the decision for the bypass-rate metric
+     */
+    public boolean shouldCallLlm(Result result) {
+        confidenceSummary.record(result.getConfidence());
+        boolean callLlm = result.getConfidence() < llmThreshold;
+        (callLlm ? llmCounter : localCounter).increment();
+        return callLlm;
+    }
+
+    /**
+     * Strip Azerbaijani diacritics (ə ö ü ş ç ğ ı -> e o u s c g i)
+     */
+    public static String fold(String word) {
+        StringBuilder folded = null;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            char f = foldChar(c);
+            if (f != c && folded == null) {
+                folded = new StringBuilder(word.length()).append(word, 0, i);
+            }
+            if (folded != null) {
+                folded.append(f);
+            }
+        }
+        return folded != null ? folded.toString() : word;
+    }
+
+    // ===== RESOLUTION =====
+
+    private Resolution resolve(String word, Lexicon current) {
+        if (isNumber(word)) {
+            return new Resolution(word, EXACT);
+        }
+
+        // Suffix after an apostrophe ("python'u") is kept as typed
+        int apostrophe = indexOfApostrophe(word);
+        if (apostrophe > 0) {
+            Resolution stem = resolve(word.substring(0, apostrophe), current);
+            return new Resolution(stem.text + word.substring(apostrophe), stem.score);
+        }
+
+        if (isKnown(word, current)) {
+            return new Resolution(word, EXACT);
+        }
+
+        String typo = current.typos.get(word);
+        if (typo == null) {
+            typo = current.typos.get(fold(word));
+        }
+        if (typo != null) {
+            return new Resolution(typo, TYPO_TABLE);
+        }
+
+        String folded = fold(word);
+        String restored = current.folded.get(folded);
+        if (restored != null) {
+            return new Resolution(restored, FOLDED);
+        }
+
+        for (String suffix : current.suffixes) {
+            if (word.length() - suffix.length() < 3) {
+                continue;
+            }
+            String stem = null;
+            if (word.endsWith(suffix)) {
+                stem = word.substring(0, word.length() - suffix.length());
+            } else if (folded.endsWith(fold(suffix))) {
+                stem = folded.substring(0, folded.length() - suffix.length());
+            }
+            if (stem == null) {
+                continue;
+            }
+            if (isKnown(stem, current)) {
+                return new Resolution(word, STEMMED);
+            }
+            String restoredStem = current.folded.get(fold(stem));
+            if (restoredStem != null) {
+                return new Resolution(restoredStem + word.substring(stem.length()), STEMMED * FOLDED);
+            }
+        }
+
+        if (word.length() >= 4) {
+            List<SymSpellDictionary.Suggestion> suggestions = fuzzyMatcher.lookup(word, 1);
+            if (!suggestions.isEmpty()) {
+                return new Resolution(suggestions.get(0).getTerm(), EDIT_DISTANCE);
+            }
+        }
+
+        return new Resolution(word, UNKNOWN);
+    }
+
+    private boolean isKnown(String word, Lexicon current) {
+        return current.words.contains(word) || fuzzyMatcher.isKnownWord(word);
+    }
+
+    private Lexicon buildLexicon(List<String> catalogText) {
+        Set<String> words = new HashSet<>();
+        // First word seen for a folded form wins: bundled words, then keywords, then catalog
+        Map<String, String> folded = new HashMap<>();
+
+        List<String> sources = new ArrayList<>(baseWords);
+        for (Dimension dimension : Dimension.values()) {
+            for (String label : keywordClassifier.labels(dimension)) {
+                sources.addAll(keywordClassifier.keywords(dimension, label));
+            }
+        }
+        sources.addAll(catalogText);
+
+        for (String source : sources) {
+            if (source == null) {
+                continue;
+            }
+            for (String word : TextTokenizer.tokenize(source.toLowerCase(AZERBAIJANI))) {
+                if (words.add(word)) {
+                    folded.putIfAbsent(fold(word), word);
+                }
+            }
+        }
+
+        Map<String, String> typoTable = new HashMap<>();
+        for (Map.Entry<String, String> typo : typos.entrySet()) {
+            typoTable.put(typo.getKey().toLowerCase(AZERBAIJANI), typo.getValue());
+        }
+
+        // Longest suffix first so "ları" is tried before "ı"
+        List<String> sortedSuffixes = new ArrayList<>(suffixes);
+        sortedSuffixes.sort(Comparator.comparingInt(String::length).reversed());
+
+        logger.info("Normalizer lexicon built with {} words", words.size());
+        return new Lexicon(words, folded, typoTable, sortedSuffixes);
+    }
+
+    private static char foldChar(char c) {
+        switch (c) {
+            case 'ə': return 'e';
+            case 'ö': return 'o';
+            case 'ü': return 'u';
+            case 'ş': return 's';
+            case 'ç': return 'c';
+            case 'ğ': return 'g';
+            case 'ı': return 'i';
+            default: return c;
+        }
+    }
+
+    private static boolean isWordChar(String text, int index) {
+        char c = text.charAt(index);
+        if (Character.isLetterOrDigit(c)) {
+            return true;
+        }
+        // Apostrophe inside a word ("python'u")
+        return (c == '\'' || c == '’') && index + 1 < text.length()
+                && Character.isLetter(text.charAt(index + 1)) && Character.isLetter(text.charAt(index - 1));
+    }
+
+    private static int indexOfApostrophe(String word) {
+        int plain = word.indexOf('\'');
+        return plain >= 0 ? plain : word.indexOf('’');
+    }
+
+    private static boolean isNumber(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isDigit(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> castList(Object value) {
+        return value instanceof List ? (List<String>) value : Collections.emptyList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> castMap(Object value) {
+        return value instanceof Map ? (Map<String, String>) value : Collections.emptyMap();
+    }
+
+    private static final class Resolution {
+        private final String text;
+        private final double score;
+
+        private Resolution(String text, double score) {
+            this.text = text;
+            this.score = score;
+        }
+    }
+
+    private static final class Lexicon {
+        private final Set<String> words;
+        private final Map<String, String> folded;
+        private final Map<String, String> typos;
+        private final List<String> suffixes;
+
+        private Lexicon(Set<String> words, Map<String, String> folded, Map<String, String> typos,
+                        List<String> suffixes) {
+            this.words = words;
+            this.folded = folded;
+            this.typos = typos;
+            this.suffixes = suffixes;
+        }
+    }
+
+    /**
+     * Normalized text with its confidence (0..1) and number of corrected words
+     */
+    public static final class Result {
+        private final String text;
+        private final double confidence;
+        private final int corrections;
+
+        public Result(String text, double confidence, int corrections) {
+            this.text = text;
+            this.confidence = confidence;
+            this.corrections = corrections;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public double getConfidence() {
+            return confidence;
+        }
+
+        public int getCorrections() {
+            return corrections;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package az.dsa.chatbot.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency budget of one chat turn.
+ *
+ * Created when the request arrives and bound to the thread that processes it, so
+ * every stage can ask how much time is left via {@link #current()} without the
+ * budget being threaded through each service signature. Stages that give up
+ * optional work because of it (or because OpenAI is unavailable) record a
+ * degradation, which is reported back in the ChatResponse.
+ *
+ * Work handed to other threads must read the remaining budget before the hand-off.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    // Unbounded budget for work outside a chat turn (scheduled jobs, warm-up)
+    private static final Deadline NONE = new Deadline(Long.MAX_VALUE);
+
+    private final long expiresAtNanos;
+    private final List<String> degradations = Collections.synchronizedList(new ArrayList<>());
+
+    private Deadline(long budgetMillis) {
+        this.expiresAtNanos = budgetMillis == Long.MAX_VALUE
+            ? Long.MAX_VALUE
+            : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    /**
+     * New deadline budgetMillis from now (not yet bound to any thread)
+     */
+    public static Deadline after(long budgetMillis) {
+        return new Deadline(budgetMillis);
+    }
+
+    /**
+     * Deadline bound to this thread, or an unbounded one
+     */
+    public static Deadline current() {
+        Deadline deadline = CURRENT.get();
+        return deadline != null ? deadline : NONE;
+    }
+
+    /**
+     * Make this the current deadline of the calling thread; pair with {@link #clear()}
+     */
+    public Deadline bind() {
+        CURRENT.set(this);
+        return this;
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public long remainingMillis() {
+        if (expiresAtNanos == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean hasAtLeast(long millis) {
+        return remainingMillis() >= millis;
+    }
+
+    public boolean isBounded() {
+        return this != NONE;
+    }
+
+    /**
+     * Note a stage that was skipped or cut short, e.g. "format:deadline"
+     */
+    public void degrade(String degradation) {
+        if (this != NONE && !degradations.contains(degradation)) {
+            degradations.add(degradation);
+        }
+    }
+
+    public List<String> getDegradations() {
+        synchronized (degradations) {
+            return new ArrayList<>(degradations);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package az.dsa.chatbot.util;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
@@ -7,40 +10,75 @@ import java.util.*;
 @Component
 public class FuzzyMatcher {
     
+    private static final Logger logger = LoggerFactory.getLogger(FuzzyMatcher.class);
+    
+    @Value("${chatbot.search.typo.max-edit-distance:2}")
+    private int maxEditDistance;
+    
+    @Value("${chatbot.search.typo.prefix-length:7}")
+    private int prefixLength;
+    
+    // Typo dictionary built from the corpus vocabulary (null until first build)
+    private volatile SymSpellDictionary dictionary;
+    
+    // Reused per thread so distance calls stay allocation-free
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+    
     /**
-     * Calculate Levenshtein distance between two strings
+     * Calculate Levenshtein distance between two strings (case-insensitive)
      * Used for typo tolerance
      */
     public int levenshteinDistance(String s1, String s2) {
         if (s1 == null || s2 == null) return Integer.MAX_VALUE;
         
-        s1 = s1.toLowerCase();
-        s2 = s2.toLowerCase();
+        // The distance never exceeds the longer length, so this bound is exact
+        return levenshteinDistance(s1, s2, Math.max(s1.length(), s2.length()));
+    }
+    
+    /**
+     * Bounded, case-insensitive Levenshtein distance.
+     * Returns maxDistance + 1 as soon as the distance is known to exceed the bound.
+     * 
+     * Common prefix/suffix are skipped first. If the shorter remainder fits in 64 chars
+     * Myers' bit-vector algorithm processes a whole DP column per step; otherwise only
+     * the diagonal band of width 2 * maxDistance + 1 is computed (Ukkonen).
+     * Scratch space is per thread, so calls do not allocate.
+     */
+    public int levenshteinDistance(String s1, String s2, int maxDistance) {
+        if (s1 == null || s2 == null) return Integer.MAX_VALUE;
+        if (maxDistance < 0) maxDistance = 0;
         
-        int[] costs = new int[s2.length() + 1];
+        // Pattern is the shorter string
+        String pattern = s1.length() <= s2.length() ? s1 : s2;
+        String text = pattern == s1 ? s2 : s1;
         
-        for (int i = 0; i <= s1.length(); i++) {
-            int lastValue = i;
-            for (int j = 0; j <= s2.length(); j++) {
-                if (i == 0) {
-                    costs[j] = j;
-                } else {
-                    if (j > 0) {
-                        int newValue = costs[j - 1];
-                        if (s1.charAt(i - 1) != s2.charAt(j - 1)) {
-                            newValue = Math.min(Math.min(newValue, lastValue), costs[j]) + 1;
-                        }
-                        costs[j - 1] = lastValue;
-                        lastValue = newValue;
-                    }
-                }
-            }
-            if (i > 0) {
-                costs[s2.length()] = lastValue;
-            }
+        if (text.length() - pattern.length() > maxDistance) {
+            return maxDistance + 1;
         }
         
-        return costs[s2.length()];
+        // Skip common prefix and suffix
+        int start = 0;
+        int patternEnd = pattern.length();
+        int textEnd = text.length();
+        
+        while (start < patternEnd && lower(pattern.charAt(start)) == lower(text.charAt(start))) {
+            start++;
+        }
+        while (patternEnd > start && lower(pattern.charAt(patternEnd - 1)) == lower(text.charAt(textEnd - 1))) {
+            patternEnd--;
+            textEnd--;
+        }
+        
+        int m = patternEnd - start;
+        int n = textEnd - start;
+        
+        if (m == 0) {
+            return n; // n <= maxDistance, checked above
+        }
+        
+        return m <= Long.SIZE
+                ? myersDistance(pattern, text, start, m, n, maxDistance)
+                : bandedDistance(pattern, text, start, m, n, maxDistance);
     }
     
     /**
@@ -49,20 +87,45 @@ public class FuzzyMatcher {
     public double similarity(String s1, String s2) {
         if (s1 == null || s2 == null) return 0.0;
         
-        int distance = levenshteinDistance(s1, s2);
         int maxLen = Math.max(s1.length(), s2.length());
         
         if (maxLen == 0) return 1.0;
         
+        int distance = levenshteinDistance(s1, s2, maxLen);
         return 1.0 - ((double) distance / maxLen);
     }
     
+    /**
+     * Similarity ratio if it reaches the threshold, otherwise 0.0.
+     * Stops computing as soon as the threshold can no longer be reached.
+     */
+    public double similarity(String s1, String s2, double threshold) {
+        if (s1 == null || s2 == null) return 0.0;
+        
+        int maxLen = Math.max(s1.length(), s2.length());
+        
+        if (maxLen == 0) return 1.0 >= threshold ? 1.0 : 0.0;
+        
+        int bound = maxDistanceFor(threshold, maxLen);
+        if (bound < 0) return 0.0;
+        
+        int distance = levenshteinDistance(s1, s2, bound);
+        return distance <= bound ? 1.0 - ((double) distance / maxLen) : 0.0;
+    }
+    
     /**
      * Check if strings are similar within threshold
      * @param threshold 0.8 means 80% similarity required
      */
     public boolean isSimilar(String s1, String s2, double threshold) {
-        return similarity(s1, s2) >= threshold;
+        if (s1 == null || s2 == null) return 0.0 >= threshold;
+        
+        int maxLen = Math.max(s1.length(), s2.length());
+        
+        if (maxLen == 0) return 1.0 >= threshold;
+        
+        int bound = maxDistanceFor(threshold, maxLen);
+        return bound >= 0 && levenshteinDistance(s1, s2, bound) <= bound;
     }
     
     /**
@@ -70,11 +133,30 @@ public class FuzzyMatcher {
      * Returns null if no match above threshold
      */
     public String findBestMatch(String query, List<String> options, double threshold) {
+        if (query == null) return null;
+        
         String bestMatch = null;
         double bestScore = threshold;
         
         for (String option : options) {
-            double score = similarity(query, option);
+            if (option == null) continue;
+            
+            int maxLen = Math.max(query.length(), option.length());
+            double score;
+            
+            if (maxLen == 0) {
+                score = 1.0;
+            } else {
+                // Only distances that can beat the current best are worth finishing
+                int bound = maxDistanceFor(bestScore, maxLen);
+                if (bound < 0) continue;
+                
+                int distance = levenshteinDistance(query, option, bound);
+                if (distance > bound) continue;
+                
+                score = 1.0 - ((double) distance / maxLen);
+            }
+            
             if (score > bestScore) {
                 bestScore = score;
                 bestMatch = option;
@@ -84,6 +166,241 @@ public class FuzzyMatcher {
         return bestMatch;
     }
     
+    /**
+     * Rebuild the typo dictionary from corpus term frequencies
+     */
+    public void rebuildDictionary(Map<String, Integer> termFrequencies) {
+        long start = System.currentTimeMillis();
+        
+        dictionary = SymSpellDictionary.build(termFrequencies, maxEditDistance, prefixLength,
+                this::levenshteinDistance);
+        
+        logger.info("Typo dictionary built with {} terms in {} ms", 
+                   termFrequencies.size(), System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * Look up corpus terms within maxDistance edits of a word
+     * (closest first, then most frequent). Empty if the dictionary is not built yet.
+     */
+    public List<SymSpellDictionary.Suggestion> lookup(String word, int maxDistance) {
+        SymSpellDictionary current = dictionary;
+        if (current == null || word == null) {
+            return Collections.emptyList();
+        }
+        return current.lookup(word, maxDistance);
+    }
+    
+    /**
+     * Closest corpus term for a word, or null if nothing is close enough
+     */
+    public String correctWord(String word) {
+        List<SymSpellDictionary.Suggestion> suggestions = lookup(word, maxEditDistance);
+        return suggestions.isEmpty() ? null : suggestions.get(0).getTerm();
+    }
+    
+    /**
+     * Whether the word occurs in the corpus vocabulary
+     */
+    public boolean isKnownWord(String word) {
+        SymSpellDictionary current = dictionary;
+        return current != null && word != null && current.contains(word);
+    }
+    
+    /**
+     * Whether the typo dictionary has been built
+     */
+    public boolean hasDictionary() {
+        return dictionary != null;
+    }
+    
+    // ===== DISTANCE INTERNALS =====
+    
+    /**
+     * Largest distance whose similarity (1 - d / maxLen) still reaches the threshold, -1 if none
+     */
+    private static int maxDistanceFor(double threshold, int maxLen) {
+        int bound = (int) Math.min(maxLen, Math.max(-1, Math.floor((1.0 - threshold) * maxLen)));
+        
+        // Correct floating point rounding at the edges
+        while (bound < maxLen && 1.0 - ((double) (bound + 1) / maxLen) >= threshold) {
+            bound++;
+        }
+        while (bound >= 0 && 1.0 - ((double) bound / maxLen) < threshold) {
+            bound--;
+        }
+        return bound;
+    }
+    
+    /**
+     * Myers / Hyyrö bit-parallel edit distance for a pattern of at most 64 chars.
+     * Vertical deltas of the DP column are kept in two bit vectors (pv/mv); the
+     * score tracks the bottom cell. The score drops by at most one per remaining
+     * text char, which gives the early exit.
+     */
+    private static int myersDistance(String pattern, String text, int offset, int m, int n, int maxDistance) {
+        Scratch scratch = SCRATCH.get();
+        
+        try {
+            for (int i = 0; i < m; i++) {
+                scratch.addMask(lower(pattern.charAt(offset + i)), 1L << i);
+            }
+            
+            long pv = -1L;
+            long mv = 0L;
+            long last = 1L << (m - 1);
+            int score = m;
+            
+            for (int j = 0; j < n; j++) {
+                long eq = scratch.mask(lower(text.charAt(offset + j)));
+                long xv = eq | mv;
+                long xh = (((eq & pv) + pv) ^ pv) | eq;
+                long ph = mv | ~(xh | pv);
+                long mh = pv & xh;
+                
+                if ((ph & last) != 0) {
+                    score++;
+                } else if ((mh & last) != 0) {
+                    score--;
+                }
+                
+                if (score - (n - j - 1) > maxDistance) {
+                    return maxDistance + 1;
+                }
+                
+                ph = (ph << 1) | 1L;
+                mh <<= 1;
+                pv = mh | ~(xv | ph);
+                mv = ph & xv;
+            }
+            
+            return score <= maxDistance ? score : maxDistance + 1;
+            
+        } finally {
+            scratch.clearMasks();
+        }
+    }
+    
+    /**
+     * Banded DP for long strings: only cells within maxDistance of the diagonal
+     * can lead to a result within the bound. Stops when a whole row exceeds it.
+     */
+    private static int bandedDistance(String pattern, String text, int offset, int m, int n, int maxDistance) {
+        int over = maxDistance + 1;
+        
+        Scratch scratch = SCRATCH.get();
+        int[] previous = scratch.row(0, n + 1);
+        int[] current = scratch.row(1, n + 1);
+        
+        for (int j = 0; j <= n; j++) {
+            previous[j] = Math.min(j, over);
+        }
+        
+        for (int i = 1; i <= m; i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(n, i + maxDistance);
+            
+            current[from - 1] = from == 1 ? Math.min(i, over) : over;
+            int rowMin = current[from - 1];
+            char patternChar = lower(pattern.charAt(offset + i - 1));
+            
+            for (int j = from; j <= to; j++) {
+                int cost = patternChar == lower(text.charAt(offset + j - 1)) ? 0 : 1;
+                int value = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+                current[j] = Math.min(value, over);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < n) {
+                current[to + 1] = over;
+            }
+            
+            if (rowMin > maxDistance) {
+                return over;
+            }
+            
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        
+        return Math.min(previous[n], over);
+    }
+    
+    private static char lower(char c) {
+        return c < 128
+                ? (c >= 'A' && c <= 'Z' ? (char) (c + 32) : c)
+                : Character.toLowerCase(c);
+    }
+    
+    /**
+     * Per-thread working memory: pattern char masks for Myers and DP rows for the banded path.
+     * ASCII chars index a flat array; other chars go to a small open-addressing table.
+     */
+    private static final class Scratch {
+        private static final int TABLE_SIZE = 128; // > 2 * 64 distinct pattern chars
+        
+        private final long[] asciiMasks = new long[128];
+        private final char[] keys = new char[TABLE_SIZE];
+        private final long[] masks = new long[TABLE_SIZE];
+        private final boolean[] used = new boolean[TABLE_SIZE];
+        private final char[] added = new char[Long.SIZE];
+        private int addedCount;
+        private final int[][] rows = new int[2][64];
+        
+        void addMask(char c, long bit) {
+            added[addedCount++] = c;
+            if (c < 128) {
+                asciiMasks[c] |= bit;
+                return;
+            }
+            int slot = c & (TABLE_SIZE - 1);
+            while (used[slot] && keys[slot] != c) {
+                slot = (slot + 1) & (TABLE_SIZE - 1);
+            }
+            used[slot] = true;
+            keys[slot] = c;
+            masks[slot] |= bit;
+        }
+        
+        long mask(char c) {
+            if (c < 128) {
+                return asciiMasks[c];
+            }
+            int slot = c & (TABLE_SIZE - 1);
+            while (used[slot]) {
+                if (keys[slot] == c) {
+                    return masks[slot];
+                }
+                slot = (slot + 1) & (TABLE_SIZE - 1);
+            }
+            return 0L;
+        }
+        
+        void clearMasks() {
+            for (int i = 0; i < addedCount; i++) {
+                char c = added[i];
+                if (c < 128) {
+                    asciiMasks[c] = 0L;
+                } else {
+                    int slot = c & (TABLE_SIZE - 1);
+                    while (used[slot]) {
+                        used[slot] = false;
+                        masks[slot] = 0L;
+                        slot = (slot + 1) & (TABLE_SIZE - 1);
+                    }
+                }
+            }
+            addedCount = 0;
+        }
+        
+        int[] row(int index, int length) {
+            if (rows[index].length < length) {
+                rows[index] = new int[Math.max(length, rows[index].length * 2)];
+            }
+            return rows[index];
+        }
+    }
+    
     /**
      * Common Azerbaijani typo corrections
      */
@@ -0,0 +1,327 @@
+package az.dsa.chatbot.util;
+
+import az.dsa.chatbot.model.Intent;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.regex.Pattern;
+
+/**
+ * On-box intent classifier (naive Bayes over character n-grams, see {@link IntentModel}).
+ *
+ * The model is read from {@code chatbot.intent.classifier.model-path} at startup; if
+ * there is none it is trained from the bundled seed examples plus the logged examples
+ * and written there. Intents decided by the LLM are appended to the example log, and
+ * the model is retrained from seeds + log periodically.
+ *
+ * Requests only queue an example (bounded; dropped when full); a scheduled job
+ * appends the queue to the log. Phone numbers, e-mails and long digit runs are
+ * masked before anything is stored. When the log passes its size cap it is
+ * rotated to {@code <examples-path>.1}, so at most two capped files are kept, and
+ * retraining reads them line by line.
+ */
+@Component
+public class IntentClassifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(IntentClassifier.class);
+
+    private static final Pattern EMAIL = Pattern.compile("[\\w.+-]+@[\\w-]+(\\.[\\w-]+)+");
+    // Phone numbers, FIN/ID and card numbers: 7+ digits, optionally split by spaces, dashes or brackets
+    private static final Pattern DIGITS = Pattern.compile("\\+?\\d[\\d\\s()-]{5,}\\d");
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chatbot.intent.classifier.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chatbot.intent.classifier.seed-location:classpath:intent-training.json}")
+    private String seedLocation;
+
+    @Value("${chatbot.intent.classifier.model-path:./data/intent-model.json}")
+    private String modelPath;
+
+    // Labelled messages (JSON lines) used for retraining
+    @Value("${chatbot.intent.classifier.examples-path:./data/intent-examples.jsonl}")
+    private String examplesPath;
+
+    @Value("${chatbot.intent.classifier.log-examples:true}")
+    private boolean logExamples;
+
+    // Most recent logged examples used for training
+    @Value("${chatbot.intent.classifier.max-logged-examples:20000}")
+    private int maxLoggedExamples;
+
+    // Examples waiting to be written; further ones are dropped while it is full
+    @Value("${chatbot.intent.classifier.examples-queue-size:1000}")
+    private int examplesQueueSize;
+
+    // Size at which the example log is rotated to examples-path.1
+    @Value("${chatbot.intent.classifier.max-examples-bytes:10485760}")
+    private long maxExamplesBytes;
+
+    @Value("${chatbot.intent.classifier.ngram-min:2}")
+    private int ngramMin;
+
+    @Value("${chatbot.intent.classifier.ngram-max:4}")
+    private int ngramMax;
+
+    @Value("${chatbot.intent.classifier.alpha:0.5}")
+    private double alpha;
+
+    @Value("${chatbot.intent.classifier.calibration-folds:5}")
+    private int calibrationFolds;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile IntentModel model;
+    private DistributionSummary confidence;
+    private Counter droppedExamples;
+    private BlockingQueue<String> pendingExamples;
+
+    @PostConstruct
+    public void init() {
+        confidence = DistributionSummary.builder("chatbot.intent.classifier.confidence")
+                .publishPercentiles(0.5, 0.9)
+                .register(meterRegistry);
+        droppedExamples = meterRegistry.counter("chatbot.intent.classifier.examples.dropped");
+        pendingExamples = new ArrayBlockingQueue<>(Math.max(1, examplesQueueSize));
+
+        if (!enabled) {
+            return;
+        }
+        if (!loadModel()) {
+            retrain();
+        }
+    }
+
+    /**
+     * Most likely intent with its calibrated confidence, or null if no model is loaded
+     */
+    public IntentModel.Prediction classify(String text) {
+        IntentModel current = model;
+        if (!enabled || current == null || text == null || text.isBlank()) {
+            return null;
+        }
+        IntentModel.Prediction prediction = current.predict(text);
+        confidence.record(prediction.getConfidence());
+        return prediction;
+    }
+
+    /**
+     * Queue a message whose intent was decided elsewhere (LLM) for the example log;
+     * never blocks, the example is dropped if the writer is behind
+     */
+    public void record(String text, Intent intent) {
+        if (!enabled || !logExamples || text == null || text.isBlank() || intent == null) {
+            return;
+        }
+        try {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("text", mask(text));
+            line.put("intent", intent.getValue());
+            line.put("at", LocalDateTime.now().toString());
+            if (!pendingExamples.offer(objectMapper.writeValueAsString(line))) {
+                droppedExamples.increment();
+            }
+        } catch (Exception e) {
+            logger.warn("Error logging intent example: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Append queued examples to the log, rotating it once it passes the size cap
+     */
+    @Scheduled(fixedDelayString = "${chatbot.intent.classifier.examples-flush-ms:5000}")
+    public synchronized void writeExamples() {
+        if (pendingExamples == null || pendingExamples.isEmpty()) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        pendingExamples.drainTo(lines);
+        try {
+            Path path = Paths.get(examplesPath);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (String line : lines) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+            if (Files.size(path) > maxExamplesBytes) {
+                Files.move(path, rotatedPath(path), StandardCopyOption.REPLACE_EXISTING);
+                logger.info("Rotated intent example log {}", examplesPath);
+            }
+        } catch (Exception e) {
+            droppedExamples.increment(lines.size());
+            logger.warn("Error writing {} intent examples: {}", lines.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writeExamples();
+    }
+
+    /**
+     * Train from seed + logged examples, swap the model in and store it
+     */
+    @Scheduled(fixedDelayString = "${chatbot.intent.classifier.retrain-interval-ms:86400000}",
+               initialDelayString = "${chatbot.intent.classifier.retrain-interval-ms:86400000}")
+    public void retrain() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            List<IntentModel.Example> seeds = readSeeds();
+            List<IntentModel.Example> logged = readLogged();
+            List<IntentModel.Example> examples = new ArrayList<>(seeds);
+            examples.addAll(logged);
+
+            IntentModel trained = IntentModel.train(examples, ngramMin, ngramMax, alpha, calibrationFolds);
+            model = trained;
+            saveModel(trained);
+
+            logger.info("Intent classifier trained on {} seed + {} logged examples in {} ms " +
+                       "(vocabulary {}, temperature {})",
+                       seeds.size(), logged.size(), System.currentTimeMillis() - start,
+                       trained.getVocabularySize(), trained.getTemperature());
+        } catch (Exception e) {
+            logger.error("Error training intent classifier: {}", e.getMessage(), e);
+        }
+    }
+
+    // ===== LOADING =====
+
+    private boolean loadModel() {
+        Path path = Paths.get(modelPath);
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try {
+            Map<String, Object> data = objectMapper.readValue(path.toFile(),
+                    new TypeReference<LinkedHashMap<String, Object>>() {});
+            model = IntentModel.fromData(data);
+            logger.info("Intent classifier loaded from {} (vocabulary {}, temperature {})",
+                       modelPath, model.getVocabularySize(), model.getTemperature());
+            return true;
+        } catch (Exception e) {
+            logger.warn("Error loading intent model from {}: {}", modelPath, e.getMessage());
+            return false;
+        }
+    }
+
+    private void saveModel(IntentModel trained) {
+        try {
+            Path path = Paths.get(modelPath);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            objectMapper.writeValue(temp.toFile(), trained.toData());
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            logger.warn("Error saving intent model to {}: {}", modelPath, e.getMessage());
+        }
+    }
+
+    private List<IntentModel.Example> readSeeds() throws Exception {
+        Resource resource = resourceLoader.getResource(seedLocation);
+        Map<String, List<String>> seeds;
+        try (InputStream in = resource.getInputStream()) {
+            seeds = objectMapper.readValue(in, new TypeReference<LinkedHashMap<String, List<String>>>() {});
+        }
+        List<IntentModel.Example> examples = new ArrayList<>();
+        seeds.forEach((label, texts) -> texts.forEach(text -> examples.add(new IntentModel.Example(text, label))));
+        return examples;
+    }
+
+    private List<IntentModel.Example> readLogged() {
+        Path path = Paths.get(examplesPath);
+
+        // Latest label per text, most recent maxLoggedExamples texts; rotated log first
+        LinkedHashMap<String, String> latest = new LinkedHashMap<>();
+        for (Path file : List.of(rotatedPath(path), path)) {
+            if (!Files.exists(file)) {
+                continue;
+            }
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        Map<String, Object> entry = objectMapper.readValue(line,
+                                new TypeReference<LinkedHashMap<String, Object>>() {});
+                        Object text = entry.get("text");
+                        Intent intent = Intent.fromString(String.valueOf(entry.get("intent")));
+                        if (text != null) {
+                            latest.remove(text.toString());
+                            latest.put(text.toString(), intent.getValue());
+                        }
+                    } catch (Exception e) {
+                        // Skip a damaged line
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("Error reading intent examples from {}: {}", file, e.getMessage());
+            }
+        }
+
+        List<IntentModel.Example> examples = new ArrayList<>();
+        int skip = Math.max(0, latest.size() - maxLoggedExamples);
+        for (Map.Entry<String, String> entry : latest.entrySet()) {
+            if (skip-- > 0) {
+                continue;
+            }
+            examples.add(new IntentModel.Example(entry.getKey(), entry.getValue()));
+        }
+        return examples;
+    }
+
+    private static Path rotatedPath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".1");
+    }
+
+    /**
+     * Replace contact details and ID-like numbers before a message is stored
+     */
+    static String mask(String text) {
+        String masked = EMAIL.matcher(text).replaceAll("<email>");
+        return DIGITS.matcher(masked).replaceAll("<number>");
+    }
+}
@@ -0,0 +1,309 @@
+package az.dsa.chatbot.util;
+
+import java.util.*;
+
+/**
+ * Multinomial naive Bayes over character n-grams.
+ *
+ * Text is lowercased, diacritic-folded and padded with spaces, so n-grams across
+ * word boundaries carry prefix/suffix information and typos only disturb a few
+ * features. Raw naive Bayes posteriors are far too confident; they are divided by
+ * a temperature fitted on cross-validated predictions, which makes the reported
+ * confidence usable as a threshold.
+ *
+ * Instances are immutable; the state is plain data (see {@link #toData()}) so the
+ * model can be stored as JSON.
+ */
+public final class IntentModel {
+
+    private static final Locale AZ = Locale.forLanguageTag("az");
+
+    private static final double[] TEMPERATURES = {
+        1, 1.5, 2, 3, 4, 6, 8, 12, 16, 24, 32, 48, 64, 96, 128
+    };
+
+    private final int minN;
+    private final int maxN;
+    private final double alpha;
+    private final double temperature;
+    private final List<String> labels;
+    private final int[] documents;
+    private final long[] totals;
+    private final List<Map<String, Integer>> counts;
+
+    // Derived
+    private final double[] logPriors;
+    private final double[] logUnseen;
+    private final Map<String, double[]> logLikelihoods;
+
+    private IntentModel(int minN, int maxN, double alpha, double temperature, List<String> labels,
+                        int[] documents, long[] totals, List<Map<String, Integer>> counts) {
+        this.minN = minN;
+        this.maxN = maxN;
+        this.alpha = alpha;
+        this.temperature = temperature;
+        this.labels = List.copyOf(labels);
+        this.documents = documents;
+        this.totals = totals;
+        this.counts = counts;
+
+        Set<String> vocabulary = new HashSet<>();
+        counts.forEach(c -> vocabulary.addAll(c.keySet()));
+        int vocabularySize = Math.max(1, vocabulary.size());
+        int totalDocuments = Arrays.stream(documents).sum();
+
+        int k = labels.size();
+        logPriors = new double[k];
+        logUnseen = new double[k];
+        for (int c = 0; c < k; c++) {
+            logPriors[c] = Math.log((documents[c] + 1.0) / (totalDocuments + k));
+            logUnseen[c] = Math.log(alpha / (totals[c] + alpha * vocabularySize));
+        }
+
+        logLikelihoods = new HashMap<>(vocabulary.size() * 2);
+        for (String gram : vocabulary) {
+            double[] values = new double[k];
+            for (int c = 0; c < k; c++) {
+                int n = counts.get(c).getOrDefault(gram, 0);
+                values[c] = Math.log((n + alpha) / (totals[c] + alpha * vocabularySize));
+            }
+            logLikelihoods.put(gram, values);
+        }
+    }
+
+    /**
+     * Train on labelled examples and fit the temperature by k-fold cross-validation
+     */
+    public static IntentModel train(List<Example> examples, int minN, int maxN, double alpha, int folds) {
+        if (examples.isEmpty()) {
+            throw new IllegalArgumentException("No training examples");
+        }
+        double temperature = folds > 1 && examples.size() >= folds * 2
+            ? calibrate(examples, minN, maxN, alpha, folds)
+            : 1.0;
+        return fit(examples, minN, maxN, alpha, temperature);
+    }
+
+    /**
+     * Most likely label and its calibrated probability
+     */
+    public Prediction predict(String text) {
+        double[] scores = logScores(text);
+        double[] probabilities = softmax(scores, temperature);
+
+        int best = 0;
+        for (int c = 1; c < probabilities.length; c++) {
+            if (probabilities[c] > probabilities[best]) {
+                best = c;
+            }
+        }
+        return new Prediction(labels.get(best), probabilities[best]);
+    }
+
+    public List<String> getLabels() {
+        return labels;
+    }
+
+    public double getTemperature() {
+        return temperature;
+    }
+
+    public int getVocabularySize() {
+        return logLikelihoods.size();
+    }
+
+    // ===== SERIALIZATION =====
+
+    /**
+     * Plain data for JSON storage
+     */
+    public Map<String, Object> toData() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("version", 1);
+        data.put("minN", minN);
+        data.put("maxN", maxN);
+        data.put("alpha", alpha);
+        data.put("temperature", temperature);
+        Map<String, Object> classes = new LinkedHashMap<>();
+        for (int c = 0; c < labels.size(); c++) {
+            Map<String, Object> cls = new LinkedHashMap<>();
+            cls.put("documents", documents[c]);
+            cls.put("total", totals[c]);
+            cls.put("counts", new TreeMap<>(counts.get(c)));
+            classes.put(labels.get(c), cls);
+        }
+        data.put("classes", classes);
+        return data;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static IntentModel fromData(Map<String, Object> data) {
+        Map<String, Object> classes = (Map<String, Object>) data.get("classes");
+        List<String> labels = new ArrayList<>(classes.keySet());
+        int[] documents = new int[labels.size()];
+        long[] totals = new long[labels.size()];
+        List<Map<String, Integer>> counts = new ArrayList<>();
+        for (int c = 0; c < labels.size(); c++) {
+            Map<String, Object> cls = (Map<String, Object>) classes.get(labels.get(c));
+            documents[c] = ((Number) cls.get("documents")).intValue();
+            totals[c] = ((Number) cls.get("total")).longValue();
+            Map<String, Integer> classCounts = new HashMap<>();
+            ((Map<String, Object>) cls.get("counts")).forEach((gram, n) -> classCounts.put(gram, ((Number) n).intValue()));
+            counts.add(classCounts);
+        }
+        return new IntentModel(((Number) data.get("minN")).intValue(), ((Number) data.get("maxN")).intValue(),
+                               ((Number) data.get("alpha")).doubleValue(),
+                               ((Number) data.get("temperature")).doubleValue(),
+                               labels, documents, totals, counts);
+    }
+
+    // ===== INTERNALS =====
+
+    private static IntentModel fit(List<Example> examples, int minN, int maxN, double alpha, double temperature) {
+        List<String> labels = new ArrayList<>(new TreeSet<>(examples.stream().map(Example::getLabel).toList()));
+        int[] documents = new int[labels.size()];
+        long[] totals = new long[labels.size()];
+        List<Map<String, Integer>> counts = new ArrayList<>();
+        labels.forEach(l -> counts.add(new HashMap<>()));
+
+        for (Example example : examples) {
+            int c = labels.indexOf(example.getLabel());
+            documents[c]++;
+            for (String gram : ngrams(example.getText(), minN, maxN)) {
+                counts.get(c).merge(gram, 1, Integer::sum);
+                totals[c]++;
+            }
+        }
+        return new IntentModel(minN, maxN, alpha, temperature, labels, documents, totals, counts);
+    }
+
+    /**
+     * Temperature minimizing the negative log-likelihood of out-of-fold predictions
+     */
+    private static double calibrate(List<Example> examples, int minN, int maxN, double alpha, int folds) {
+        List<Example> shuffled = new ArrayList<>(examples);
+        Collections.shuffle(shuffled, new Random(42));
+
+        List<double[]> scores = new ArrayList<>();
+        List<Integer> truth = new ArrayList<>();
+        for (int f = 0; f < folds; f++) {
+            List<Example> train = new ArrayList<>();
+            List<Example> test = new ArrayList<>();
+            for (int i = 0; i < shuffled.size(); i++) {
+                (i % folds == f ? test : train).add(shuffled.get(i));
+            }
+            IntentModel model = fit(train, minN, maxN, alpha, 1.0);
+            for (Example example : test) {
+                int label = model.labels.indexOf(example.getLabel());
+                if (label < 0) {
+                    continue; // Class absent from this fold's training split
+                }
+                scores.add(model.logScores(example.getText()));
+                truth.add(label);
+            }
+        }
+
+        double bestTemperature = 1.0;
+        double bestLoss = Double.MAX_VALUE;
+        for (double t : TEMPERATURES) {
+            double loss = 0;
+            for (int i = 0; i < scores.size(); i++) {
+                double p = softmax(scores.get(i), t)[truth.get(i)];
+                loss -= Math.log(Math.max(p, 1e-12));
+            }
+            if (loss < bestLoss) {
+                bestLoss = loss;
+                bestTemperature = t;
+            }
+        }
+        return bestTemperature;
+    }
+
+    private double[] logScores(String text) {
+        double[] scores = logPriors.clone();
+        for (String gram : ngrams(text, minN, maxN)) {
+            double[] values = logLikelihoods.get(gram);
+            if (values == null) {
+                continue; // Unknown everywhere - no evidence either way
+            }
+            for (int c = 0; c < scores.length; c++) {
+                scores[c] += values[c];
+            }
+        }
+        return scores;
+    }
+
+    private static double[] softmax(double[] scores, double temperature) {
+        double max = Arrays.stream(scores).max().orElse(0);
+        double[] result = new double[scores.length];
+        double sum = 0;
+        for (int c = 0; c < scores.length; c++) {
+            result[c] = Math.exp((scores[c] - max) / temperature);
+            sum += result[c];
+        }
+        for (int c = 0; c < scores.length; c++) {
+            result[c] /= sum;
+        }
+        return result;
+    }
+
+    static List<String> ngrams(String text, int minN, int maxN) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        String cleaned = AzerbaijaniNormalizer.fold(text.toLowerCase(AZ))
+            .replaceAll("[^\\p{L}\\p{Nd}?]+", " ")
+            .trim();
+        if (cleaned.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String padded = " " + cleaned + " ";
+
+        List<String> grams = new ArrayList<>();
+        for (int n = minN; n <= maxN; n++) {
+            for (int i = 0; i + n <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + n));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * One labelled message
+     */
+    public static final class Example {
+        private final String text;
+        private final String label;
+
+        public Example(String text, String label) {
+            this.text = text;
+            this.label = label;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    public static final class Prediction {
+        private final String label;
+        private final double confidence;
+
+        private Prediction(String label, double confidence) {
+            this.label = label;
+            this.confidence = confidence;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public double getConfidence() {
+            return confidence;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package az.dsa.chatbot.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable Aho-Corasick automaton over a set of keywords.
+ *
+ * All keywords are compiled into one trie with failure links, so a text is
+ * scanned once and every keyword occurrence (substring semantics, same as
+ * {@code String.contains}) is reported with its position, regardless of how
+ * many keywords there are. Matching is exact on chars; callers lowercase the
+ * text the same way the keywords were lowercased.
+ *
+ * @param <T> value attached to each keyword
+ */
+public final class KeywordAutomaton<T> {
+
+    // Per state: outgoing edges sorted by char
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] failure;
+    // Nearest state on the failure chain that has outputs, -1 if none
+    private final int[] outputLink;
+    private final List<Entry<T>>[] outputs;
+    private final int keywordCount;
+
+    private KeywordAutomaton(char[][] edgeChars, int[][] edgeTargets, int[] failure, int[] outputLink,
+                             List<Entry<T>>[] outputs, int keywordCount) {
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.failure = failure;
+        this.outputLink = outputLink;
+        this.outputs = outputs;
+        this.keywordCount = keywordCount;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Every keyword occurrence in the text, ordered by end position
+     * (shorter keywords first when several end at the same char)
+     */
+    public List<Match<T>> findAll(CharSequence text) {
+        if (text == null || text.length() == 0 || keywordCount == 0) {
+            return Collections.emptyList();
+        }
+
+        List<Match<T>> matches = new ArrayList<>();
+        int state = 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            state = next(state, text.charAt(i));
+
+            int output = outputs[state] != null ? state : outputLink[state];
+            List<Match<T>> found = null;
+            while (output > 0) {
+                if (found == null) {
+                    found = new ArrayList<>(2);
+                }
+                for (Entry<T> entry : outputs[output]) {
+                    found.add(new Match<>(entry.keyword, entry.value, i + 1 - entry.keyword.length(), i + 1));
+                }
+                output = outputLink[output];
+            }
+
+            if (found != null) {
+                // Output chain runs longest suffix first
+                Collections.reverse(found);
+                matches.addAll(found);
+            }
+        }
+
+        return matches;
+    }
+
+    /**
+     * Whether any keyword occurs in the text
+     */
+    public boolean matchesAny(CharSequence text) {
+        if (text == null || keywordCount == 0) {
+            return false;
+        }
+
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = next(state, text.charAt(i));
+            if (outputs[state] != null || outputLink[state] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int keywordCount() {
+        return keywordCount;
+    }
+
+    private int next(int state, char c) {
+        while (true) {
+            int edge = Arrays.binarySearch(edgeChars[state], c);
+            if (edge >= 0) {
+                return edgeTargets[state][edge];
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = failure[state];
+        }
+    }
+
+    // ===== NESTED TYPES =====
+
+    /**
+     * One keyword occurrence: text.substring(start, end) equals the keyword
+     */
+    public static final class Match<T> {
+        private final String keyword;
+        private final T value;
+        private final int start;
+        private final int end;
+
+        Match(String keyword, T value, int start, int end) {
+            this.keyword = keyword;
+            this.value = value;
+            this.start = start;
+            this.end = end;
+        }
+
+        public String getKeyword() {
+            return keyword;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+    }
+
+    private static final class Entry<T> {
+        private final String keyword;
+        private final T value;
+
+        Entry(String keyword, T value) {
+            this.keyword = keyword;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Collects keywords and compiles the automaton
+     */
+    public static final class Builder<T> {
+        private final List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        private final List<List<Entry<T>>> trieOutputs = new ArrayList<>();
+        private int keywordCount;
+
+        private Builder() {
+            newState();
+        }
+
+        /**
+         * Add a keyword; the same keyword may be added with several values
+         */
+        public Builder<T> add(String keyword, T value) {
+            if (keyword == null || keyword.isEmpty()) {
+                throw new IllegalArgumentException("Keyword must not be empty");
+            }
+
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                Integer target = trie.get(state).get(c);
+                if (target == null) {
+                    target = newState();
+                    trie.get(state).put(c, target);
+                }
+                state = target;
+            }
+
+            if (trieOutputs.get(state) == null) {
+                trieOutputs.set(state, new ArrayList<>(1));
+            }
+            trieOutputs.get(state).add(new Entry<>(keyword, value));
+            keywordCount++;
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        public KeywordAutomaton<T> build() {
+            int stateCount = trie.size();
+            char[][] edgeChars = new char[stateCount][];
+            int[][] edgeTargets = new int[stateCount][];
+            int[] failure = new int[stateCount];
+            int[] outputLink = new int[stateCount];
+            List<Entry<T>>[] outputs = new List[stateCount];
+
+            for (int state = 0; state < stateCount; state++) {
+                TreeMap<Character, Integer> edges = trie.get(state);
+                edgeChars[state] = new char[edges.size()];
+                edgeTargets[state] = new int[edges.size()];
+                int edge = 0;
+                for (Map.Entry<Character, Integer> entry : edges.entrySet()) {
+                    edgeChars[state][edge] = entry.getKey();
+                    edgeTargets[state][edge] = entry.getValue();
+                    edge++;
+                }
+                List<Entry<T>> stateOutputs = trieOutputs.get(state);
+                outputs[state] = stateOutputs != null ? Collections.unmodifiableList(stateOutputs) : null;
+            }
+
+            // Breadth-first: failure links of shallower states are final before they are used
+            outputLink[0] = -1;
+            Deque<Integer> queue = new ArrayDeque<>();
+            for (int target : edgeTargets[0]) {
+                failure[target] = 0;
+                outputLink[target] = -1;
+                queue.add(target);
+            }
+
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                for (int edge = 0; edge < edgeChars[state].length; edge++) {
+                    char c = edgeChars[state][edge];
+                    int target = edgeTargets[state][edge];
+
+                    int fallback = failure[state];
+                    int link;
+                    while (true) {
+                        int found = Arrays.binarySearch(edgeChars[fallback], c);
+                        if (found >= 0) {
+                            link = edgeTargets[fallback][found];
+                            break;
+                        }
+                        if (fallback == 0) {
+                            link = 0;
+                            break;
+                        }
+                        fallback = failure[fallback];
+                    }
+
+                    failure[target] = link;
+                    outputLink[target] = outputs[link] != null ? link : outputLink[link];
+                    queue.add(target);
+                }
+            }
+
+            return new KeywordAutomaton<>(edgeChars, edgeTargets, failure, outputLink, outputs, keywordCount);
+        }
+
+        private int newState() {
+            trie.add(new TreeMap<>());
+            trieOutputs.add(null);
+            return trie.size() - 1;
+        }
+    }
+}
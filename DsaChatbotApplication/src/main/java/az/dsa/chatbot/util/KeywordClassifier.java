@@ -0,0 +1,293 @@
+package az.dsa.chatbot.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Keyword-based classification of user messages.
+ *
+ * Intent, query type, search category and recommendation category keywords
+ * are compiled into a single {@link KeywordAutomaton}, so one pass over the
+ * message finds every matching label of every dimension.
+ *
+ * Dictionaries are read from {@code chatbot.keywords.location} (JSON, one
+ * object per dimension, label -> keywords). Label order in the file is the
+ * priority order used by {@link Classification#best}. The file is re-read
+ * periodically, so keywords can change without a redeploy.
+ */
+@Component
+public class KeywordClassifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeywordClassifier.class);
+
+    private static final String DEFAULT_LOCATION = "classpath:keyword-dictionaries.json";
+
+    /**
+     * Classification dimensions, with their section name in the dictionary file
+     */
+    public enum Dimension {
+        INTENT("intent"),
+        QUERY_TYPE("queryType"),
+        SEARCH_CATEGORY("searchCategory"),
+        RECOMMENDATION_CATEGORY("recommendationCategory");
+
+        private final String section;
+
+        Dimension(String section) {
+            this.section = section;
+        }
+
+        public String getSection() {
+            return section;
+        }
+    }
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${chatbot.keywords.location:" + DEFAULT_LOCATION + "}")
+    private String location;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile Dictionaries dictionaries;
+    private byte[] loadedContent;
+
+    @PostConstruct
+    public void init() {
+        if (!reload() && !DEFAULT_LOCATION.equals(location)) {
+            logger.warn("Falling back to bundled keyword dictionaries");
+            load(DEFAULT_LOCATION);
+        }
+        if (dictionaries == null) {
+            throw new IllegalStateException("Keyword dictionaries could not be loaded");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chatbot.keywords.reload-interval-ms:60000}",
+               initialDelayString = "${chatbot.keywords.reload-interval-ms:60000}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    /**
+     * Re-read the configured dictionaries; recompiles only if the content changed.
+     * On failure the current dictionaries stay active.
+     */
+    public boolean reload() {
+        return load(location);
+    }
+
+    /**
+     * Classify a message in a single pass
+     */
+    public Classification classify(String text) {
+        if (text == null || text.isEmpty()) {
+            return new Classification(Collections.emptyList());
+        }
+        return new Classification(dictionaries.automaton.findAll(text.toLowerCase()));
+    }
+
+    /**
+     * Keywords of a label, empty if the label is unknown
+     */
+    public List<String> keywords(Dimension dimension, String label) {
+        Map<String, List<String>> labels = dictionaries.keywords.get(dimension);
+        return labels.getOrDefault(label, Collections.emptyList());
+    }
+
+    /**
+     * Label names of a dimension, in dictionary (priority) order
+     */
+    public List<String> labels(Dimension dimension) {
+        return new ArrayList<>(dictionaries.keywords.get(dimension).keySet());
+    }
+
+    // ===== LOADING =====
+
+    private synchronized boolean load(String from) {
+        try {
+            Resource resource = resourceLoader.getResource(from);
+            byte[] content;
+            try (InputStream in = resource.getInputStream()) {
+                content = in.readAllBytes();
+            }
+
+            if (dictionaries != null && Arrays.equals(content, loadedContent)) {
+                return true;
+            }
+
+            Map<String, LinkedHashMap<String, List<String>>> sections = objectMapper.readValue(content,
+                    new TypeReference<LinkedHashMap<String, LinkedHashMap<String, List<String>>>>() {});
+
+            dictionaries = compile(sections);
+            loadedContent = content;
+
+            logger.info("Keyword dictionaries loaded from {} ({} keywords)",
+                       from, dictionaries.automaton.keywordCount());
+            return true;
+
+        } catch (Exception e) {
+            logger.error("Error loading keyword dictionaries from {}: {}", from, e.getMessage());
+            return false;
+        }
+    }
+
+    private Dictionaries compile(Map<String, LinkedHashMap<String, List<String>>> sections) {
+        KeywordAutomaton.Builder<Label> builder = KeywordAutomaton.builder();
+        Map<Dimension, Map<String, List<String>>> keywords = new EnumMap<>(Dimension.class);
+
+        for (Dimension dimension : Dimension.values()) {
+            Map<String, List<String>> labels = sections.getOrDefault(dimension.getSection(), new LinkedHashMap<>());
+            Map<String, List<String>> lowered = new LinkedHashMap<>();
+
+            int priority = 0;
+            for (Map.Entry<String, List<String>> entry : labels.entrySet()) {
+                List<String> labelKeywords = new ArrayList<>();
+                for (String keyword : entry.getValue()) {
+                    if (keyword == null || keyword.isBlank()) continue;
+                    String lower = keyword.toLowerCase();
+                    labelKeywords.add(lower);
+                    builder.add(lower, new Label(dimension, entry.getKey(), priority));
+                }
+                lowered.put(entry.getKey(), Collections.unmodifiableList(labelKeywords));
+                priority++;
+            }
+
+            keywords.put(dimension, Collections.unmodifiableMap(lowered));
+        }
+
+        return new Dictionaries(builder.build(), keywords);
+    }
+
+    // ===== NESTED TYPES =====
+
+    private static final class Dictionaries {
+        private final KeywordAutomaton<Label> automaton;
+        private final Map<Dimension, Map<String, List<String>>> keywords;
+
+        private Dictionaries(KeywordAutomaton<Label> automaton, Map<Dimension, Map<String, List<String>>> keywords) {
+            this.automaton = automaton;
+            this.keywords = keywords;
+        }
+    }
+
+    private static final class Label {
+        private final Dimension dimension;
+        private final String name;
+        private final int priority;
+
+        private Label(Dimension dimension, String name, int priority) {
+            this.dimension = dimension;
+            this.name = name;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * A keyword found in the message; positions refer to the lowercased message
+     */
+    public static final class KeywordMatch {
+        private final Dimension dimension;
+        private final String label;
+        private final String keyword;
+        private final int start;
+        private final int end;
+
+        private KeywordMatch(Dimension dimension, String label, String keyword, int start, int end) {
+            this.dimension = dimension;
+            this.label = label;
+            this.keyword = keyword;
+            this.start = start;
+            this.end = end;
+        }
+
+        public Dimension getDimension() {
+            return dimension;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public String getKeyword() {
+            return keyword;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+    }
+
+    /**
+     * All labels matched in one message
+     */
+    public static final class Classification {
+        private final List<KeywordMatch> matches;
+        private final Map<Dimension, String> best = new EnumMap<>(Dimension.class);
+        private final Map<Dimension, Set<String>> labels = new EnumMap<>(Dimension.class);
+
+        private Classification(List<KeywordAutomaton.Match<Label>> found) {
+            List<KeywordMatch> converted = new ArrayList<>(found.size());
+            Map<Dimension, Integer> bestPriority = new EnumMap<>(Dimension.class);
+
+            for (KeywordAutomaton.Match<Label> match : found) {
+                Label label = match.getValue();
+                converted.add(new KeywordMatch(label.dimension, label.name, match.getKeyword(),
+                        match.getStart(), match.getEnd()));
+
+                labels.computeIfAbsent(label.dimension, d -> new LinkedHashSet<>()).add(label.name);
+
+                Integer current = bestPriority.get(label.dimension);
+                if (current == null || label.priority < current) {
+                    bestPriority.put(label.dimension, label.priority);
+                    best.put(label.dimension, label.name);
+                }
+            }
+
+            this.matches = Collections.unmodifiableList(converted);
+        }
+
+        /**
+         * Highest-priority matched label of a dimension, or null if none matched
+         */
+        public String best(Dimension dimension) {
+            return best.get(dimension);
+        }
+
+        /**
+         * Whether a keyword of the given label occurs in the message
+         */
+        public boolean has(Dimension dimension, String label) {
+            Set<String> matched = labels.get(dimension);
+            return matched != null && matched.contains(label);
+        }
+
+        /**
+         * Matched labels of a dimension, in order of first occurrence
+         */
+        public Set<String> labels(Dimension dimension) {
+            return labels.getOrDefault(dimension, Collections.emptySet());
+        }
+
+        public List<KeywordMatch> getMatches() {
+            return matches;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package az.dsa.chatbot.util;
+
+import az.dsa.chatbot.exception.LlmUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Request coalescing: concurrent calls with the same key share one execution.
+ *
+ * The first caller for a key runs the work on its own thread; callers arriving while
+ * it is in flight wait for the same result (or exception) instead of repeating the
+ * work. Nothing is kept once the call completes - this is not a cache.
+ *
+ * Followers wait no longer than their own turn {@link Deadline}; past it they get
+ * LlmUnavailableException("deadline"). An outcome that only reflects the leader's
+ * deadline - its own "deadline" failure, or a result the caller marks as not
+ * shareable (e.g. cut short) - is not handed on: followers run the work themselves.
+ *
+ * Every caller receives the same value object, so it must be immutable or copied
+ * by the caller before modification.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.executed = meterRegistry.counter("chatbot.singleflight.calls", "name", name, "result", "executed");
+        this.coalesced = meterRegistry.counter("chatbot.singleflight.calls", "name", name, "result", "coalesced");
+        Gauge.builder("chatbot.singleflight.in-flight", inFlight, Map::size)
+             .tag("name", name)
+             .register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> work) {
+        return execute(key, work, value -> true);
+    }
+
+    /**
+     * As {@link #execute(Object, Supplier)}; a leader result failing shareable
+     * (tested on the leader's thread) is returned to the leader only
+     */
+    public V execute(K key, Supplier<V> work, Predicate<V> shareable) {
+        while (true) {
+            CompletableFuture<V> own = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, own);
+
+            if (existing == null) {
+                return lead(key, own, work, shareable);
+            }
+
+            coalesced.increment();
+            try {
+                return follow(existing);
+            } catch (NotShared e) {
+                // The leader's outcome was bound to its deadline: try again with ours
+            }
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private V lead(K key, CompletableFuture<V> own, Supplier<V> work, Predicate<V> shareable) {
+        executed.increment();
+        V value;
+        try {
+            value = work.get();
+        } catch (RuntimeException | Error e) {
+            // Leave the map first, so followers that retry start a new flight
+            inFlight.remove(key, own);
+            boolean deadline = e instanceof LlmUnavailableException
+                    && "deadline".equals(((LlmUnavailableException) e).getReason());
+            own.completeExceptionally(deadline ? NotShared.INSTANCE : e);
+            throw e;
+        }
+        boolean share = shareable.test(value);
+        inFlight.remove(key, own);
+        if (share) {
+            own.complete(value);
+        } else {
+            own.completeExceptionally(NotShared.INSTANCE);
+        }
+        return value;
+    }
+
+    private V follow(CompletableFuture<V> existing) {
+        try {
+            return existing.get(Deadline.current().remainingMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new LlmUnavailableException("deadline", "Turn deadline passed waiting for a coalesced call");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LlmUnavailableException("deadline", "Interrupted waiting for a coalesced call");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Marks a leader outcome that followers must not take over
+     */
+    private static final class NotShared extends RuntimeException {
+        private static final NotShared INSTANCE = new NotShared();
+
+        private NotShared() {
+            super("Not shared", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package az.dsa.chatbot.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free sliding-window counter limiter.
+ *
+ * Each key holds a single AtomicLong packing the current window index (high 32 bits),
+ * the previous window's count (16 bits) and the current window's count (16 bits).
+ * The request rate is estimated as {@code previous * (1 - elapsed) + current}, which
+ * approximates a true sliding window without keeping per-request timestamps.
+ * Updates are one CAS; the ConcurrentHashMap stripes contention across keys.
+ *
+ * Rejected attempts are counted too, so a client that keeps retrying stays limited
+ * instead of getting a fresh slot each time the estimate dips under the limit.
+ */
+public class SlidingWindowRateLimiter {
+
+    private static final int MAX_COUNT = 0xFFFF;
+
+    private final int limit;
+    private final long windowMillis;
+    private final LongSupplier clock;
+
+    private final Map<String, AtomicLong> windows = new ConcurrentHashMap<>();
+
+    public SlidingWindowRateLimiter(int limit, long windowMillis) {
+        this(limit, windowMillis, System::currentTimeMillis);
+    }
+
+    public SlidingWindowRateLimiter(int limit, long windowMillis, LongSupplier clock) {
+        if (limit <= 0 || windowMillis <= 0) {
+            throw new IllegalArgumentException("limit and window must be positive");
+        }
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Record one attempt for the key and decide whether it is within the limit
+     */
+    public Decision tryAcquire(String key) {
+        long now = clock.getAsLong();
+        long window = now / windowMillis;
+        long elapsedMillis = now - window * windowMillis;
+        double previousWeight = 1.0 - (double) elapsedMillis / windowMillis;
+
+        AtomicLong state = windows.computeIfAbsent(key, k -> new AtomicLong(pack(window, 0, 0)));
+
+        while (true) {
+            long current = state.get();
+            long stateWindow = current >>> 32;
+
+            int previousCount;
+            int currentCount;
+            if (stateWindow == window) {
+                previousCount = previous(current);
+                currentCount = count(current);
+            } else if (stateWindow == window - 1) {
+                previousCount = count(current);
+                currentCount = 0;
+            } else {
+                previousCount = 0;
+                currentCount = 0;
+            }
+
+            double estimate = previousCount * previousWeight + currentCount;
+            boolean allowed = estimate < limit;
+
+            long next = pack(window, previousCount, Math.min(currentCount + 1, MAX_COUNT));
+            if (state.compareAndSet(current, next)) {
+                return new Decision(allowed, estimate + 1, windowMillis - elapsedMillis);
+            }
+        }
+    }
+
+    /**
+     * Drop keys with no attempts in the current or previous window
+     */
+    public int evictIdle() {
+        long window = clock.getAsLong() / windowMillis;
+        int before = windows.size();
+        windows.values().removeIf(state -> (state.get() >>> 32) < window - 1);
+        return before - windows.size();
+    }
+
+    public int size() {
+        return windows.size();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    private static long pack(long window, int previous, int count) {
+        return (window << 32) | ((long) Math.min(previous, MAX_COUNT) << 16) | count;
+    }
+
+    private static int previous(long state) {
+        return (int) ((state >>> 16) & MAX_COUNT);
+    }
+
+    private static int count(long state) {
+        return (int) (state & MAX_COUNT);
+    }
+
+    /**
+     * Outcome of one attempt: whether it is allowed, the estimated attempts in the
+     * sliding window including this one, and the time until the current window rolls over
+     */
+    public static final class Decision {
+        private final boolean allowed;
+        private final double estimate;
+        private final long resetMillis;
+
+        private Decision(boolean allowed, double estimate, long resetMillis) {
+            this.allowed = allowed;
+            this.estimate = estimate;
+            this.resetMillis = resetMillis;
+        }
+
+        public boolean isAllowed() {
+            return allowed;
+        }
+
+        public double getEstimate() {
+            return estimate;
+        }
+
+        public long getResetMillis() {
+            return resetMillis;
+        }
+    }
+}
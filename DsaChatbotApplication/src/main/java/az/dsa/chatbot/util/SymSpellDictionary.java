@@ -0,0 +1,197 @@
+package az.dsa.chatbot.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable SymSpell (symmetric delete) dictionary for typo lookup.
+ *
+ * Every dictionary term is indexed under all strings reachable from its
+ * prefix by up to {@code maxEditDistance} deletions. A lookup generates the
+ * same deletions of the input and only verifies the few terms that share one,
+ * so lookup cost depends on word length, not on vocabulary size.
+ */
+public final class SymSpellDictionary {
+
+    /**
+     * Bounded edit distance used to verify candidates.
+     * Must return a value greater than {@code max} when the bound is exceeded.
+     */
+    @FunctionalInterface
+    public interface EditDistance {
+        int distance(String s1, String s2, int max);
+    }
+
+    private final int maxEditDistance;
+    private final int prefixLength;
+    private final EditDistance editDistance;
+    private final Map<String, Integer> frequencies;
+    private final Map<String, String[]> deletes;
+
+    private SymSpellDictionary(int maxEditDistance, int prefixLength, EditDistance editDistance,
+                               Map<String, Integer> frequencies, Map<String, String[]> deletes) {
+        this.maxEditDistance = maxEditDistance;
+        this.prefixLength = prefixLength;
+        this.editDistance = editDistance;
+        this.frequencies = frequencies;
+        this.deletes = deletes;
+    }
+
+    /**
+     * Build a dictionary from term frequencies (terms are expected lowercase)
+     */
+    public static SymSpellDictionary build(Map<String, Integer> termFrequencies, int maxEditDistance,
+                                           int prefixLength, EditDistance editDistance) {
+        if (maxEditDistance < 0 || prefixLength < 1 || prefixLength <= maxEditDistance) {
+            throw new IllegalArgumentException("prefixLength must be greater than maxEditDistance");
+        }
+
+        Map<String, Integer> frequencies = new HashMap<>(termFrequencies);
+        Map<String, List<String>> deleteLists = new HashMap<>();
+
+        for (String term : frequencies.keySet()) {
+            String key = term.length() > prefixLength ? term.substring(0, prefixLength) : term;
+            for (String delete : generateDeletes(key, maxEditDistance)) {
+                deleteLists.computeIfAbsent(delete, d -> new ArrayList<>(2)).add(term);
+            }
+        }
+
+        Map<String, String[]> deletes = new HashMap<>(deleteLists.size() * 2);
+        for (Map.Entry<String, List<String>> entry : deleteLists.entrySet()) {
+            deletes.put(entry.getKey(), entry.getValue().toArray(new String[0]));
+        }
+
+        return new SymSpellDictionary(maxEditDistance, prefixLength, editDistance,
+                Collections.unmodifiableMap(frequencies), deletes);
+    }
+
+    /**
+     * Find dictionary terms within {@code maxDistance} edits of the input,
+     * closest first, then most frequent first
+     */
+    public List<Suggestion> lookup(String input, int maxDistance) {
+        if (input == null || input.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        int bound = Math.min(maxDistance, maxEditDistance);
+        String word = input.toLowerCase();
+
+        List<Suggestion> suggestions = new ArrayList<>();
+        Set<String> checkedTerms = new HashSet<>();
+
+        Integer exact = frequencies.get(word);
+        if (exact != null) {
+            suggestions.add(new Suggestion(word, 0, exact));
+            checkedTerms.add(word);
+        }
+
+        String key = word.length() > prefixLength ? word.substring(0, prefixLength) : word;
+        Set<String> visited = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(key);
+        visited.add(key);
+
+        while (!queue.isEmpty()) {
+            String candidate = queue.poll();
+            int candidateDistance = key.length() - candidate.length();
+
+            String[] terms = deletes.get(candidate);
+            if (terms != null) {
+                for (String term : terms) {
+                    if (!checkedTerms.add(term) || Math.abs(term.length() - word.length()) > bound) {
+                        continue;
+                    }
+
+                    int distance = editDistance.distance(word, term, bound);
+                    if (distance <= bound) {
+                        suggestions.add(new Suggestion(term, distance, frequencies.get(term)));
+                    }
+                }
+            }
+
+            if (candidateDistance < bound && candidate.length() > 1) {
+                for (int i = 0; i < candidate.length(); i++) {
+                    String delete = candidate.substring(0, i) + candidate.substring(i + 1);
+                    if (visited.add(delete)) {
+                        queue.add(delete);
+                    }
+                }
+            }
+        }
+
+        suggestions.sort((a, b) -> a.distance != b.distance
+                ? Integer.compare(a.distance, b.distance)
+                : Integer.compare(b.frequency, a.frequency));
+        return suggestions;
+    }
+
+    public boolean contains(String term) {
+        return term != null && frequencies.containsKey(term.toLowerCase());
+    }
+
+    public int size() {
+        return frequencies.size();
+    }
+
+    public int getMaxEditDistance() {
+        return maxEditDistance;
+    }
+
+    private static Set<String> generateDeletes(String key, int maxEditDistance) {
+        Set<String> result = new HashSet<>();
+        result.add(key);
+
+        List<String> frontier = Collections.singletonList(key);
+        for (int depth = 0; depth < maxEditDistance; depth++) {
+            List<String> next = new ArrayList<>();
+            for (String word : frontier) {
+                if (word.length() <= 1) {
+                    continue;
+                }
+                for (int i = 0; i < word.length(); i++) {
+                    String delete = word.substring(0, i) + word.substring(i + 1);
+                    if (result.add(delete)) {
+                        next.add(delete);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return result;
+    }
+
+    /**
+     * A dictionary term close to the looked-up word
+     */
+    public static final class Suggestion {
+        private final String term;
+        private final int distance;
+        private final int frequency;
+
+        public Suggestion(String term, int distance, int frequency) {
+            this.term = term;
+            this.distance = distance;
+            this.frequency = frequency;
+        }
+
+        public String getTerm() {
+            return term;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+
+        public int getFrequency() {
+            return frequency;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package az.dsa.chatbot.benchmark;
+
+import az.dsa.chatbot.util.FuzzyMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous full-matrix Levenshtein with the bounded, bit-parallel
+ * one in FuzzyMatcher, on the call patterns SearchServiceImpl actually uses:
+ * keyword vs. title word at a 0.7 similarity threshold, keyword vs. whole
+ * training title at 0.6, and the unbounded distance.
+ *
+ * Run from the DsaChatbotApplication directory:
+ *   mvn -B test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=az.dsa.chatbot.benchmark.LevenshteinBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevenshteinBenchmark {
+
+    private static final String[] KEYWORDS = {
+        "python", "pyton", "maşın", "excel", "proqramlaşdırma", "data", "analitika", "sql"
+    };
+
+    private static final String[] TITLE_WORDS = {
+        "Python", "Proqramlaşdırma", "Machine", "Learning", "Data", "Analitika", "Excel",
+        "Power", "BI", "SQL", "Biznes", "Analitikası", "Süni", "İntellekt", "Kiber", "Təhlükəsizlik"
+    };
+
+    private static final String[] TITLES = {
+        "Python Proqramlaşdırma Təlimi",
+        "Data Analitika Bootcamp",
+        "Machine Learning və Süni İntellekt",
+        "Excel ilə Biznes Analitikası",
+        "SQL və Verilənlər Bazası",
+        "Kiber Təhlükəsizlik Əsasları"
+    };
+
+    private FuzzyMatcher matcher;
+
+    @Setup
+    public void setup() {
+        matcher = new FuzzyMatcher();
+    }
+
+    @Benchmark
+    public void legacyWordThreshold(Blackhole blackhole) {
+        for (String keyword : KEYWORDS) {
+            for (String word : TITLE_WORDS) {
+                blackhole.consume(legacySimilarity(keyword, word) >= 0.7);
+            }
+        }
+    }
+
+    @Benchmark
+    public void boundedWordThreshold(Blackhole blackhole) {
+        for (String keyword : KEYWORDS) {
+            for (String word : TITLE_WORDS) {
+                blackhole.consume(matcher.isSimilar(keyword, word, 0.7));
+            }
+        }
+    }
+
+    @Benchmark
+    public void legacyTitleThreshold(Blackhole blackhole) {
+        for (String keyword : KEYWORDS) {
+            for (String title : TITLES) {
+                blackhole.consume(legacySimilarity(keyword, title) >= 0.6);
+            }
+        }
+    }
+
+    @Benchmark
+    public void boundedTitleThreshold(Blackhole blackhole) {
+        for (String keyword : KEYWORDS) {
+            for (String title : TITLES) {
+                blackhole.consume(matcher.similarity(keyword, title, 0.6));
+            }
+        }
+    }
+
+    @Benchmark
+    public void legacyFullDistance(Blackhole blackhole) {
+        for (String keyword : KEYWORDS) {
+            for (String word : TITLE_WORDS) {
+                blackhole.consume(legacyDistance(keyword, word));
+            }
+        }
+    }
+
+    @Benchmark
+    public void bitParallelFullDistance(Blackhole blackhole) {
+        for (String keyword : KEYWORDS) {
+            for (String word : TITLE_WORDS) {
+                blackhole.consume(matcher.levenshteinDistance(keyword, word));
+            }
+        }
+    }
+
+    // Previous FuzzyMatcher implementation, kept verbatim for comparison
+
+    static double legacySimilarity(String s1, String s2) {
+        if (s1 == null || s2 == null) return 0.0;
+
+        int distance = legacyDistance(s1, s2);
+        int maxLen = Math.max(s1.length(), s2.length());
+
+        if (maxLen == 0) return 1.0;
+
+        return 1.0 - ((double) distance / maxLen);
+    }
+
+    static int legacyDistance(String s1, String s2) {
+        if (s1 == null || s2 == null) return Integer.MAX_VALUE;
+
+        s1 = s1.toLowerCase();
+        s2 = s2.toLowerCase();
+
+        int[] costs = new int[s2.length() + 1];
+
+        for (int i = 0; i <= s1.length(); i++) {
+            int lastValue = i;
+            for (int j = 0; j <= s2.length(); j++) {
+                if (i == 0) {
+                    costs[j] = j;
+                } else {
+                    if (j > 0) {
+                        int newValue = costs[j - 1];
+                        if (s1.charAt(i - 1) != s2.charAt(j - 1)) {
+                            newValue = Math.min(Math.min(newValue, lastValue), costs[j]) + 1;
+                        }
+                        costs[j - 1] = lastValue;
+                        lastValue = newValue;
+                    }
+                }
+            }
+            if (i > 0) {
+                costs[s2.length()] = lastValue;
+            }
+        }
+
+        return costs[s2.length()];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LevenshteinBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,137 @@
+package az.dsa.chatbot.benchmark;
+
+import az.dsa.chatbot.session.BinarySessionCodec;
+import az.dsa.chatbot.session.JsonSessionCodec;
+import az.dsa.chatbot.session.SessionCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON and binary session codecs on a contact-mode session: the
+ * collected user data plus a conversation history of 2, 20 or 50 messages
+ * (20 is the in-memory window, 50 a long legacy row).
+ *
+ * Before running, main prints the bytes stored per session for each codec.
+ *
+ * Run from the DsaChatbotApplication directory:
+ *   mvn -B test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=az.dsa.chatbot.benchmark.SessionCodecBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionCodecBenchmark {
+
+    private static final String[] TURNS = {
+        "User: Salam, Python təlimi haqqında məlumat almaq istəyirəm",
+        "Bot: Python Proqramlaşdırma təlimi 3 ay davam edir, həftədə 2 dərs keçirilir. " +
+            "Qiyməti 600 AZN-dir, hissə-hissə ödəniş mümkündür.",
+        "User: Sertifikat verilirmi?",
+        "Bot: Bəli, təlimi uğurla bitirən hər kəsə Data Science Academy sertifikatı verilir."
+    };
+
+    @Param({"2", "20", "50"})
+    private int historySize;
+
+    private final SessionCodec json = new JsonSessionCodec();
+    private final SessionCodec binary = new BinarySessionCodec(512);
+
+    private Map<String, String> userData;
+    private List<String> history;
+    private byte[] jsonData;
+    private byte[] jsonHistory;
+    private byte[] binaryData;
+    private byte[] binaryHistory;
+
+    @Setup
+    public void setup() {
+        userData = userData();
+        history = history(historySize);
+        jsonData = json.encodeMap(userData);
+        jsonHistory = json.encodeList(history);
+        binaryData = binary.encodeMap(userData);
+        binaryHistory = binary.encodeList(history);
+    }
+
+    @Benchmark
+    public void jsonEncode(Blackhole blackhole) {
+        blackhole.consume(json.encodeMap(userData));
+        blackhole.consume(json.encodeList(history));
+    }
+
+    @Benchmark
+    public void binaryEncode(Blackhole blackhole) {
+        blackhole.consume(binary.encodeMap(userData));
+        blackhole.consume(binary.encodeList(history));
+    }
+
+    @Benchmark
+    public void jsonDecode(Blackhole blackhole) {
+        blackhole.consume(json.decodeMap(jsonData));
+        blackhole.consume(json.decodeList(jsonHistory));
+    }
+
+    @Benchmark
+    public void binaryDecode(Blackhole blackhole) {
+        blackhole.consume(binary.decodeMap(binaryData));
+        blackhole.consume(binary.decodeList(binaryHistory));
+    }
+
+    static Map<String, String> userData() {
+        Map<String, String> data = new LinkedHashMap<>();
+        data.put("fullName", "Şəfəq Əliyeva");
+        data.put("phone", "+994501234567");
+        data.put("email", "sefeq.aliyeva@example.az");
+        data.put("experience", "analitika");
+        data.put("interest", "Machine Learning");
+        return data;
+    }
+
+    static List<String> history(int size) {
+        List<String> history = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            history.add(TURNS[i % TURNS.length]);
+        }
+        return history;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        SessionCodec json = new JsonSessionCodec();
+        SessionCodec binary = new BinarySessionCodec(512);
+        System.out.println("Bytes stored per session (user data + history):");
+        for (int size : new int[] {2, 20, 50}) {
+            Map<String, String> data = userData();
+            List<String> history = history(size);
+            int jsonBytes = json.encodeMap(data).length + json.encodeList(history).length;
+            int binaryBytes = binary.encodeMap(data).length + binary.encodeList(history).length;
+            System.out.printf("  %2d messages: json %6d, binary %6d (%.0f%%)%n",
+                              size, jsonBytes, binaryBytes, 100.0 * binaryBytes / jsonBytes);
+        }
+
+        new Runner(new OptionsBuilder()
+                .include(SessionCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,64 @@
+package az.dsa.chatbot.llm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+	private final AtomicLong now = new AtomicLong(0);
+
+	// window 10, min 4 calls, 50% failures or 50% slow (>= 1000 ms), open 5 s, 2 probes
+	private final CircuitBreaker breaker = new CircuitBreaker("test", 10, 4, 50, 50, 1_000, 5_000, 2, now::get);
+
+	@Test
+	void tripsOnFailureRateAndFailsFastWhileOpen() {
+		breaker.onSuccess(10);
+		breaker.onError(10);
+		breaker.onSuccess(10);
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+		// 2 of 4 failed
+		breaker.onError(10);
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquirePermission());
+	}
+
+	@Test
+	void tripsOnSlowCalls() {
+		for (int i = 0; i < 4; i++) {
+			breaker.onSuccess(i < 2 ? 10 : 2_000);
+		}
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+	}
+
+	@Test
+	void halfOpenProbesCloseOrReopen() {
+		for (int i = 0; i < 4; i++) {
+			breaker.onError(10);
+		}
+
+		now.set(5_000);
+		assertTrue(breaker.tryAcquirePermission());
+		assertTrue(breaker.tryAcquirePermission());
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+		// Only two probes at a time
+		assertFalse(breaker.tryAcquirePermission());
+
+		breaker.onSuccess(10);
+		breaker.onError(10);
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+		now.set(10_000);
+		assertTrue(breaker.tryAcquirePermission());
+		assertTrue(breaker.tryAcquirePermission());
+		breaker.onSuccess(10);
+		breaker.onSuccess(10);
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		assertTrue(breaker.tryAcquirePermission());
+	}
+}
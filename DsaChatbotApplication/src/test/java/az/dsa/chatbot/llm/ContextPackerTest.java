@@ -0,0 +1,45 @@
+package az.dsa.chatbot.llm;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContextPackerTest {
+
+	private final ContextPacker packer = new ContextPacker();
+
+	private static final String INFORMATION = String.join("\n\n",
+			"Bu təlim Python proqramlaşdırma dilinin əsaslarını sıfırdan öyrədir.",
+			"Dərslər həftədə iki dəfə, axşam saatlarında keçirilir və ümumilikdə üç ay davam edir.",
+			"Təlimin sonunda iştirakçılar real layihə hazırlayır və portfolio yaradırlar.",
+			"Kursu uğurla bitirənlərə Data Science Academy tərəfindən sertifikat verilir.",
+			"Tələbələr üçün endirimlər mövcuddur, ödənişi hissə-hissə etmək mümkündür.");
+
+	@Test
+	void shortTextIsReturnedUnchanged() {
+		assertEquals("Qısa mətn.", packer.pack("  Qısa mətn. ", "qiymət", 300));
+	}
+
+	@Test
+	void keepsRelevantChunksWithinBudgetInOriginalOrder() {
+		int budget = 45;
+		String packed = packer.pack(INFORMATION, "Sertifikat verilirmi?", budget);
+
+		assertTrue(packed.contains("sertifikat verilir"), packed);
+		assertFalse(packed.contains("portfolio"), packed);
+		assertTrue(TokenEstimator.estimate(packed) <= budget, packed);
+
+		// Selected chunks keep their order; skipped ones leave a gap marker
+		assertTrue(packed.indexOf("Python") < packed.indexOf("sertifikat"), packed);
+		assertTrue(packed.contains("…"), packed);
+	}
+
+	@Test
+	void estimatesAzerbaijaniAboveAsciiOfSameLength() {
+		assertTrue(TokenEstimator.estimate("şəhərə gəldi") > TokenEstimator.estimate("sehere geldi"));
+		assertEquals(1, TokenEstimator.estimate("123"));
+		assertEquals(2, TokenEstimator.estimate("1500"));
+	}
+}
@@ -0,0 +1,57 @@
+package az.dsa.chatbot.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinarySessionCodecTest {
+
+	private final BinarySessionCodec codec = new BinarySessionCodec(256);
+
+	@Test
+	void roundTripsMapsWithNullsAndAzerbaijaniText() {
+		Map<String, String> data = new LinkedHashMap<>();
+		data.put("fullName", "Şəfəq Əliyeva");
+		data.put("phone", "+994 50 123 45 67");
+		data.put("email", null);
+		data.put("", "");
+
+		byte[] encoded = codec.encodeMap(data);
+
+		assertEquals(BinarySessionCodec.PLAIN, encoded[0]);
+		assertEquals(data, codec.decodeMap(encoded));
+	}
+
+	@Test
+	void deflatesLargeListsAndRoundTrips() {
+		List<String> history = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			history.add(i % 2 == 0 ? "User: Python təliminin qiyməti nə qədərdir?"
+					: "Bot: Python Proqramlaşdırma təliminin qiyməti 600 AZN-dir.");
+		}
+
+		byte[] encoded = codec.encodeList(history);
+		byte[] json = new JsonSessionCodec().encodeList(history);
+
+		assertEquals(BinarySessionCodec.DEFLATED, encoded[0]);
+		assertTrue(encoded.length < json.length / 4, encoded.length + " vs " + json.length);
+		assertEquals(history, codec.decodeList(encoded));
+	}
+
+	@Test
+	void tellsBinaryFromJsonPayloads() {
+		byte[] json = new JsonSessionCodec().encodeMap(Map.of("a", "b"));
+
+		assertTrue(BinarySessionCodec.isBinary(codec.encodeMap(Map.of())));
+		assertFalse(BinarySessionCodec.isBinary(json));
+		assertEquals(Arrays.asList("x", null), codec.decodeList(codec.encodeList(Arrays.asList("x", null))));
+	}
+}
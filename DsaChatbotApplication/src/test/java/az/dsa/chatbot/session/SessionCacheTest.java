@@ -0,0 +1,167 @@
+package az.dsa.chatbot.session;
+
+import az.dsa.chatbot.entity.ChatSession;
+import az.dsa.chatbot.entity.ConversationMessage;
+import az.dsa.chatbot.repository.ChatSessionRepository;
+import az.dsa.chatbot.repository.ConversationMessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SessionCacheTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final ChatSessionRepository sessions = mock(ChatSessionRepository.class);
+	private final ConversationMessageRepository messages = mock(ConversationMessageRepository.class);
+
+	private SessionCache cache;
+
+	@BeforeEach
+	void setUp() {
+		when(sessions.findById(anyString())).thenReturn(Optional.empty());
+		when(messages.findRecent(anyString(), any(Integer.class))).thenReturn(List.of());
+		cache = newCache(100);
+	}
+
+	@Test
+	void onlyRowsChangedSinceTheLastFlushAreWritten() {
+		cache.update("a", row -> newRow());
+		cache.flush();
+		cache.flush();
+		verify(sessions, times(1)).upsertAll(anyList());
+
+		cache.update("a", row -> {
+			row.setCurrentMode("query");
+			return row;
+		});
+		cache.flush();
+		verify(sessions, times(2)).upsertAll(anyList());
+		assertEquals(1.0, registry.get("chatbot.session.active").gauge().value());
+	}
+
+	@Test
+	void failedFlushStaysDirtyAndIsRetried() {
+		doThrow(new IllegalStateException("db down")).doNothing().when(sessions).upsertAll(anyList());
+
+		cache.update("a", row -> newRow());
+		cache.flush();
+		assertEquals(1.0, registry.counter("chatbot.session.cache.flush.failures").count());
+
+		cache.flush();
+		cache.flush();
+		verify(sessions, times(2)).upsertAll(anyList());
+	}
+
+	@Test
+	void flushedMessagesLeaveThePendingQueue() {
+		cache.update("a", row -> newRow(), List.of("q1", "a1"));
+		assertEquals(List.of("q1", "a1"), cache.recentMessages("a", 10));
+		cache.flush();
+
+		cache.update("a", row -> row, List.of("q2"));
+		cache.flush();
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<ConversationMessage>> inserted = ArgumentCaptor.forClass(List.class);
+		verify(messages, times(2)).insertAll(inserted.capture());
+		assertEquals(List.of(1, 2), seqs(inserted.getAllValues().get(0)));
+		assertEquals(List.of(3), seqs(inserted.getAllValues().get(1)));
+	}
+
+	@Test
+	void evictionNeverDropsDirtyRows() {
+		cache = newCache(1);
+		doThrow(new IllegalStateException("db down")).when(sessions).upsertAll(anyList());
+
+		cache.update("a", row -> newRow());
+		cache.update("b", row -> newRow());
+		cache.flush();
+		assertEquals(2, cache.size());
+
+		doNothing().when(sessions).upsertAll(anyList());
+		cache.flush();
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void deleteWaitsForAFlushInFlight() throws Exception {
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			writing.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return null;
+		}).when(sessions).upsertAll(anyList());
+
+		cache.update("a", row -> newRow());
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		Future<?> flush = pool.submit(cache::flush);
+		assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+		// The delete must not run between the flush's snapshot and its write
+		Future<?> delete = pool.submit(() -> cache.delete("a"));
+		assertThrows(TimeoutException.class, () -> delete.get(100, TimeUnit.MILLISECONDS));
+		release.countDown();
+		flush.get(5, TimeUnit.SECONDS);
+		delete.get(5, TimeUnit.SECONDS);
+		pool.shutdown();
+
+		InOrder order = inOrder(sessions);
+		order.verify(sessions).upsertAll(anyList());
+		order.verify(sessions).deleteById("a");
+
+		// Nothing left to write back
+		cache.flush();
+		verify(sessions, times(1)).upsertAll(anyList());
+	}
+
+	private SessionCache newCache(int maxSize) {
+		SessionCache created = new SessionCache();
+		ReflectionTestUtils.setField(created, "chatSessionRepository", sessions);
+		ReflectionTestUtils.setField(created, "conversationMessageRepository", messages);
+		ReflectionTestUtils.setField(created, "meterRegistry", registry);
+		ReflectionTestUtils.setField(created, "writeMode", "write-behind");
+		ReflectionTestUtils.setField(created, "maxSize", maxSize);
+		ReflectionTestUtils.setField(created, "timeoutMinutes", 30);
+		ReflectionTestUtils.setField(created, "tickMs", 1000L);
+		ReflectionTestUtils.setField(created, "batchSize", 200);
+		created.registerMetrics();
+		return created;
+	}
+
+	private static ChatSession newRow() {
+		return ChatSession.builder().currentMode("new").build();
+	}
+
+	private static List<Integer> seqs(List<ConversationMessage> batch) {
+		return batch.stream().map(ConversationMessage::getSeq).collect(Collectors.toList());
+	}
+}
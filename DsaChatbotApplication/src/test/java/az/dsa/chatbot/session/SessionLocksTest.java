@@ -0,0 +1,117 @@
+package az.dsa.chatbot.session;
+
+import az.dsa.chatbot.exception.SessionBusyException;
+import az.dsa.chatbot.util.Deadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionLocksTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final SessionLocks locks = new SessionLocks(registry, 5_000);
+
+	@Test
+	void sameSessionRunsOneAtATimeOtherSessionsDoNot() throws Exception {
+		AtomicInteger inside = new AtomicInteger();
+		AtomicInteger maxInside = new AtomicInteger();
+		CountDownLatch otherSessionRan = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(5);
+
+		List<Future<?>> results = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			results.add(pool.submit(() -> locks.withLock("a", () -> {
+				maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+				sleep(20);
+				inside.decrementAndGet();
+				return null;
+			})));
+		}
+		pool.submit(() -> locks.runWithLock("b", otherSessionRan::countDown));
+
+		assertTrue(otherSessionRan.await(1, TimeUnit.SECONDS));
+		for (Future<?> result : results) {
+			result.get(5, TimeUnit.SECONDS);
+		}
+		pool.shutdown();
+
+		assertEquals(1, maxInside.get());
+		assertEquals(0, locks.activeCount());
+		assertTrue(registry.counter("chatbot.session.lock.contended").count() >= 1);
+	}
+
+	@Test
+	void waitingTooLongFailsAndReleasesTheEntry() throws Exception {
+		SessionLocks impatient = new SessionLocks(new SimpleMeterRegistry(), 50);
+		CountDownLatch holding = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+
+		Future<?> holder = pool.submit(() -> impatient.runWithLock("a", () -> {
+			holding.countDown();
+			await(release);
+		}));
+		holding.await();
+
+		assertThrows(SessionBusyException.class, () -> impatient.runWithLock("a", () -> { }));
+
+		release.countDown();
+		holder.get(1, TimeUnit.SECONDS);
+		pool.shutdown();
+		assertEquals(0, impatient.activeCount());
+	}
+
+	@Test
+	void waitEndsWithTheTurnDeadline() throws Exception {
+		CountDownLatch holding = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+
+		Future<?> holder = pool.submit(() -> locks.runWithLock("a", () -> {
+			holding.countDown();
+			await(release);
+		}));
+		holding.await();
+
+		// 5 s wait timeout, but only 50 ms of turn budget left
+		Deadline.after(50).bind();
+		try {
+			long start = System.nanoTime();
+			assertThrows(SessionBusyException.class, () -> locks.runWithLock("a", () -> { }));
+			assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+		} finally {
+			Deadline.clear();
+			release.countDown();
+		}
+		holder.get(1, TimeUnit.SECONDS);
+		pool.shutdown();
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package az.dsa.chatbot.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+	private static final long TICK = 1_000;
+
+	@Test
+	void expiresEachItemOnItsTickIncludingLaterRevolutions() {
+		TimingWheel<String> wheel = new TimingWheel<>(TICK, 8, 0);
+		assertEquals(8, wheel.length());
+
+		wheel.schedule("a", 3 * TICK);
+		wheel.schedule("b", 3 * TICK + 1);
+		// Same bucket as "a", one revolution later
+		wheel.schedule("c", 11 * TICK);
+
+		assertTrue(wheel.advance(2 * TICK).isEmpty());
+		assertEquals(List.of("a"), wheel.advance(3 * TICK + 500));
+		assertEquals(List.of("b"), wheel.advance(4 * TICK));
+		assertTrue(wheel.advance(10 * TICK).isEmpty());
+		assertEquals(List.of("c"), wheel.advance(11 * TICK));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void pastDeadlineFiresNextTickAndLongStallCatchesUp() {
+		TimingWheel<String> wheel = new TimingWheel<>(TICK, 4, 0);
+		wheel.advance(5 * TICK);
+
+		wheel.schedule("late", 0);
+		wheel.schedule("far", 30 * TICK);
+		assertEquals(List.of("late"), wheel.advance(6 * TICK));
+
+		assertEquals(List.of("far"), wheel.advance(100 * TICK));
+		assertEquals(0, wheel.size());
+	}
+}
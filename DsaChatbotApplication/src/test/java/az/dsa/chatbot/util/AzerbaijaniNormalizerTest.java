@@ -0,0 +1,74 @@
+package az.dsa.chatbot.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AzerbaijaniNormalizerTest {
+
+	private AzerbaijaniNormalizer normalizer;
+
+	@BeforeEach
+	void setUp() {
+		// Bundled dictionaries only, no catalog and no corpus typo dictionary
+		KeywordClassifier keywords = new KeywordClassifier();
+		ReflectionTestUtils.setField(keywords, "resourceLoader", new DefaultResourceLoader());
+		ReflectionTestUtils.setField(keywords, "location", "classpath:keyword-dictionaries.json");
+		keywords.init();
+
+		normalizer = new AzerbaijaniNormalizer();
+		ReflectionTestUtils.setField(normalizer, "resourceLoader", new DefaultResourceLoader());
+		ReflectionTestUtils.setField(normalizer, "keywordClassifier", keywords);
+		ReflectionTestUtils.setField(normalizer, "fuzzyMatcher", new FuzzyMatcher());
+		ReflectionTestUtils.setField(normalizer, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(normalizer, "location", "classpath:normalizer-dictionary.json");
+		ReflectionTestUtils.setField(normalizer, "llmThreshold", 0.75);
+		normalizer.init();
+	}
+
+	@Test
+	void restoresFoldedDiacritics() {
+		AzerbaijaniNormalizer.Result result = normalizer.normalize("qiymet");
+		assertEquals("qiymət", result.getText());
+		assertEquals(0.9, result.getConfidence(), 1e-9);
+		assertEquals(1, result.getCorrections());
+
+		assertEquals("qiymətləri", normalizer.normalize("qiymetleri").getText());
+		assertEquals("salam, kurs varmı?", normalizer.normalize("slm , kurs varmı???").getText());
+		assertFalse(normalizer.shouldCallLlm(normalizer.normalize("qiymet")));
+	}
+
+	@Test
+	void acceptsInflectedFormsByStem() {
+		AzerbaijaniNormalizer.Result result = normalizer.normalize("təlimçilərdən");
+		assertEquals("təlimçilərdən", result.getText());
+		assertEquals(0.8, result.getConfidence(), 1e-9);
+		assertEquals(0, result.getCorrections());
+
+		// Suffix after an apostrophe is kept as typed
+		assertEquals("python'u", normalizer.normalize("python'u").getText());
+	}
+
+	@Test
+	void lowercasesWithAzerbaijaniLocale() {
+		// İ -> i and I -> ı, unlike the root locale ("KURSLARI" -> "kurslari")
+		AzerbaijaniNormalizer.Result result = normalizer.normalize("KURSLARI QİYMƏTİ");
+		assertEquals("kursları qiyməti", result.getText());
+		assertEquals(1.0, result.getConfidence(), 1e-9);
+		assertEquals(0, result.getCorrections());
+	}
+
+	@Test
+	void unknownWordsGoToLlm() {
+		AzerbaijaniNormalizer.Result result = normalizer.normalize("xyzq blorf qiymət");
+		assertEquals("xyzq blorf qiymət", result.getText());
+		assertEquals(1.0 / 3, result.getConfidence(), 1e-9);
+		assertTrue(normalizer.shouldCallLlm(result));
+	}
+}
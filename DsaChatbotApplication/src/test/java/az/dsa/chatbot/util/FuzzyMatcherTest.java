@@ -0,0 +1,86 @@
+package az.dsa.chatbot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FuzzyMatcherTest {
+
+	private static final String ALPHABET = "abcdeAB əöüçşğı";
+
+	private final FuzzyMatcher matcher = new FuzzyMatcher();
+
+	@Test
+	void distanceMatchesFullMatrix() {
+		Random random = new Random(42);
+
+		for (int run = 0; run < 5000; run++) {
+			// Lengths on both sides of the 64-char bit-parallel limit
+			String s1 = randomString(random, random.nextInt(run % 10 == 0 ? 140 : 20));
+			String s2 = mutate(random, s1);
+			int expected = fullMatrix(s1, s2);
+
+			assertEquals(expected, matcher.levenshteinDistance(s1, s2), s1 + " / " + s2);
+
+			int bound = random.nextInt(6);
+			assertEquals(Math.min(expected, bound + 1), matcher.levenshteinDistance(s1, s2, bound), s1 + " / " + s2);
+		}
+	}
+
+	@Test
+	void thresholdsMatchSimilarity() {
+		assertEquals(1, matcher.levenshteinDistance("Pyton", "python"));
+		assertEquals(0.0, matcher.similarity("sql", "proqramlaşdırma", 0.6));
+		assertEquals(matcher.similarity("pyton", "python"), matcher.similarity("pyton", "python", 0.6));
+		assertEquals("python", matcher.findBestMatch("pyton", List.of("java", "python", "pythonista"), 0.6));
+		assertNull(matcher.findBestMatch("excel", List.of("python", "sql"), 0.6));
+	}
+
+	private static String randomString(Random random, int length) {
+		StringBuilder builder = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+		}
+		return builder.toString();
+	}
+
+	private static String mutate(Random random, String s) {
+		StringBuilder builder = new StringBuilder(s);
+		int edits = random.nextInt(8);
+		for (int i = 0; i < edits; i++) {
+			int position = builder.length() == 0 ? 0 : random.nextInt(builder.length());
+			char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+			switch (random.nextInt(3)) {
+				case 0:
+					builder.insert(position, c);
+					break;
+				case 1:
+					if (builder.length() > 0) builder.deleteCharAt(position);
+					break;
+				default:
+					if (builder.length() > 0) builder.setCharAt(position, c);
+			}
+		}
+		return builder.toString();
+	}
+
+	// Reference: plain case-insensitive DP over the whole matrix
+	private static int fullMatrix(String s1, String s2) {
+		s1 = s1.toLowerCase();
+		s2 = s2.toLowerCase();
+		int[][] d = new int[s1.length() + 1][s2.length() + 1];
+		for (int i = 0; i <= s1.length(); i++) d[i][0] = i;
+		for (int j = 0; j <= s2.length(); j++) d[0][j] = j;
+		for (int i = 1; i <= s1.length(); i++) {
+			for (int j = 1; j <= s2.length(); j++) {
+				int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
+				d[i][j] = Math.min(d[i - 1][j - 1] + cost, Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+			}
+		}
+		return d[s1.length()][s2.length()];
+	}
+}
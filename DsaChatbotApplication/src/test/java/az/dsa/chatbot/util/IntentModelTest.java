@@ -0,0 +1,61 @@
+package az.dsa.chatbot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntentModelTest {
+
+	private static List<IntentModel.Example> examples() {
+		List<IntentModel.Example> examples = new ArrayList<>();
+		for (String text : List.of("salam", "salam necəsiz", "sabahınız xeyir", "hello", "salam olsun")) {
+			examples.add(new IntentModel.Example(text, "greeting"));
+		}
+		for (String text : List.of("mənə zəng edin", "telefon nömrəniz", "əlaqə saxlamaq istəyirəm",
+				"nömrəmi yazın", "zəng edə bilərsiz")) {
+			examples.add(new IntentModel.Example(text, "contact"));
+		}
+		for (String text : List.of("kursun qiyməti nədir", "neçə ay davam edir", "qiymət nə qədərdir",
+				"dərslər nə vaxt başlayır", "sertifikat verilir")) {
+			examples.add(new IntentModel.Example(text, "query"));
+		}
+		return examples;
+	}
+
+	@Test
+	void predictsTypoVariantsThroughCharacterNgrams() {
+		IntentModel model = IntentModel.train(examples(), 2, 4, 0.5, 0);
+
+		assertEquals("contact", model.predict("zeng edin menə").getLabel());
+		assertEquals("query", model.predict("qiymeti nedir").getLabel());
+		assertEquals("greeting", model.predict("SALAM!").getLabel());
+	}
+
+	@Test
+	void calibrationLowersConfidenceOnUnknownText() {
+		IntentModel raw = IntentModel.train(examples(), 2, 4, 0.5, 0);
+		IntentModel calibrated = IntentModel.train(examples(), 2, 4, 0.5, 3);
+
+		assertTrue(calibrated.getTemperature() > 1);
+		assertTrue(calibrated.predict("xyzw").getConfidence() < raw.predict("xyzw").getConfidence());
+		assertTrue(calibrated.predict("xyzw").getConfidence() < 0.5);
+		// Clear cases stay confident
+		assertTrue(calibrated.predict("zeng edin menə").getConfidence() > 0.9);
+	}
+
+	@Test
+	void survivesSerialization() {
+		IntentModel model = IntentModel.train(examples(), 2, 4, 0.5, 3);
+		IntentModel restored = IntentModel.fromData(model.toData());
+
+		IntentModel.Prediction before = model.predict("telefon nömrəsi");
+		IntentModel.Prediction after = restored.predict("telefon nömrəsi");
+		assertEquals(before.getLabel(), after.getLabel());
+		assertEquals(before.getConfidence(), after.getConfidence(), 1e-12);
+		assertEquals(model.getTemperature(), restored.getTemperature());
+	}
+}
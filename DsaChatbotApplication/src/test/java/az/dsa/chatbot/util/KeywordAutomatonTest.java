@@ -0,0 +1,69 @@
+package az.dsa.chatbot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeywordAutomatonTest {
+
+	private static final List<String> KEYWORDS = List.of(
+			"he", "she", "his", "hers", "nə vaxt", "vaxt", "nə qədər", "sql", "pl/sql", "t-sql", "r");
+
+	@Test
+	void findsOverlappingKeywordsWithPositions() {
+		KeywordAutomaton<String> automaton = build(KEYWORDS);
+
+		List<KeywordAutomaton.Match<String>> matches = automaton.findAll("ushers");
+
+		// Ordered by end position, shorter keyword first on ties
+		assertEquals(List.of("he", "she", "r", "hers"), matches.stream().map(KeywordAutomaton.Match::getKeyword).toList());
+		assertEquals(1, matches.get(1).getStart());
+		assertEquals(6, matches.get(3).getEnd());
+		assertTrue(automaton.matchesAny("kurs nə vaxt başlayır"));
+		assertFalse(automaton.matchesAny("python"));
+	}
+
+	@Test
+	void agreesWithContains() {
+		KeywordAutomaton<String> automaton = build(KEYWORDS);
+		Random random = new Random(7);
+		String alphabet = "əhsrnqlt-/ vadx";
+
+		for (int run = 0; run < 2000; run++) {
+			StringBuilder text = new StringBuilder();
+			for (int i = random.nextInt(30); i > 0; i--) {
+				text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+
+			Set<String> expected = new TreeSet<>();
+			for (String keyword : KEYWORDS) {
+				if (text.toString().contains(keyword)) {
+					expected.add(keyword);
+				}
+			}
+
+			Set<String> actual = new TreeSet<>();
+			for (KeywordAutomaton.Match<String> match : automaton.findAll(text)) {
+				assertEquals(match.getKeyword(), text.substring(match.getStart(), match.getEnd()));
+				actual.add(match.getKeyword());
+			}
+
+			assertEquals(expected, actual, text.toString());
+		}
+	}
+
+	private static KeywordAutomaton<String> build(List<String> keywords) {
+		KeywordAutomaton.Builder<String> builder = KeywordAutomaton.builder();
+		for (String keyword : keywords) {
+			builder.add(keyword, keyword);
+		}
+		return builder.build();
+	}
+}
@@ -0,0 +1,119 @@
+package az.dsa.chatbot.util;
+
+import az.dsa.chatbot.exception.LlmUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final SingleFlight<String, String> flights = new SingleFlight<>("test", registry);
+
+	@Test
+	void concurrentCallersShareOneExecution() throws Exception {
+		AtomicInteger executions = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			results.add(pool.submit(() -> flights.execute("q", () -> {
+				executions.incrementAndGet();
+				await(release);
+				return "answer";
+			})));
+		}
+		// Wait until the leader is running and the others have joined it
+		while (registry.counter("chatbot.singleflight.calls", "name", "test", "result", "coalesced").count() < 3) {
+			Thread.sleep(5);
+		}
+		release.countDown();
+
+		for (Future<String> result : results) {
+			assertEquals("answer", result.get(5, TimeUnit.SECONDS));
+		}
+		pool.shutdown();
+
+		assertEquals(1, executions.get());
+		assertEquals(0, flights.inFlight());
+	}
+
+	@Test
+	void failureIsSharedAndNotRemembered() {
+		assertThrows(IllegalStateException.class, () -> flights.execute("q", () -> {
+			throw new IllegalStateException("down");
+		}));
+
+		// The next call runs again
+		assertEquals("ok", flights.execute("q", () -> "ok"));
+	}
+
+	@Test
+	void followerWaitsOnlyForItsOwnDeadline() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		Future<String> leader = pool.submit(() -> flights.execute("q", () -> {
+			await(release);
+			return "answer";
+		}));
+		while (flights.inFlight() == 0) {
+			Thread.sleep(5);
+		}
+
+		Deadline.after(50).bind();
+		try {
+			LlmUnavailableException e = assertThrows(LlmUnavailableException.class,
+					() -> flights.execute("q", () -> "own"));
+			assertEquals("deadline", e.getReason());
+		} finally {
+			Deadline.clear();
+			release.countDown();
+		}
+		assertEquals("answer", leader.get(5, TimeUnit.SECONDS));
+		pool.shutdown();
+	}
+
+	@Test
+	void unshareableResultIsNotHandedToFollowers() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		Future<String> leader = pool.submit(() -> flights.execute("q", () -> {
+			await(release);
+			return "partial";
+		}, value -> false));
+		while (flights.inFlight() == 0) {
+			Thread.sleep(5);
+		}
+
+		// Joins the leader, then runs its own call once the result turns out to be unshareable
+		Future<String> follower = pool.submit(() -> flights.execute("q", () -> "own"));
+		while (registry.counter("chatbot.singleflight.calls", "name", "test", "result", "coalesced").count() < 1) {
+			Thread.sleep(5);
+		}
+		release.countDown();
+
+		assertEquals("partial", leader.get(5, TimeUnit.SECONDS));
+		assertEquals("own", follower.get(5, TimeUnit.SECONDS));
+		pool.shutdown();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
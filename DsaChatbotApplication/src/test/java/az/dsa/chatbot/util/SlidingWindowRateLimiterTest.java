@@ -0,0 +1,94 @@
+package az.dsa.chatbot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlidingWindowRateLimiterTest {
+
+	private static final long WINDOW = 60_000;
+
+	@Test
+	void rejectsOnceLimitIsReachedWithinWindow() {
+		AtomicLong now = new AtomicLong(0);
+		SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(3, WINDOW, now::get);
+
+		assertTrue(limiter.tryAcquire("a").isAllowed());
+		assertTrue(limiter.tryAcquire("a").isAllowed());
+		assertTrue(limiter.tryAcquire("a").isAllowed());
+		assertFalse(limiter.tryAcquire("a").isAllowed());
+
+		// Other keys are independent
+		assertTrue(limiter.tryAcquire("b").isAllowed());
+	}
+
+	@Test
+	void previousWindowDecaysLinearly() {
+		AtomicLong now = new AtomicLong(0);
+		SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(4, WINDOW, now::get);
+
+		for (int i = 0; i < 5; i++) {
+			limiter.tryAcquire("a");
+		}
+
+		// Just after the rollover almost all of the previous window still counts
+		now.set(WINDOW + 1_000);
+		assertFalse(limiter.tryAcquire("a").isAllowed());
+
+		// Three quarters in: 5 * 0.25 + 1 = 2.25 < 4
+		now.set(WINDOW + WINDOW * 3 / 4);
+		assertTrue(limiter.tryAcquire("a").isAllowed());
+
+		// Two windows later nothing is left
+		now.set(3 * WINDOW + 1);
+		assertEquals(1.0, limiter.tryAcquire("a").getEstimate(), 1e-9);
+	}
+
+	@Test
+	void evictsKeysIdleForAWholeWindow() {
+		AtomicLong now = new AtomicLong(0);
+		SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(3, WINDOW, now::get);
+		limiter.tryAcquire("a");
+
+		now.set(WINDOW + 1);
+		assertEquals(0, limiter.evictIdle());
+
+		now.set(2 * WINDOW + 1);
+		assertEquals(1, limiter.evictIdle());
+		assertEquals(0, limiter.size());
+	}
+
+	@Test
+	void concurrentAttemptsNeverExceedLimit() throws Exception {
+		SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(100, WINDOW, () -> 0L);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger allowed = new AtomicInteger();
+
+		for (int t = 0; t < 8; t++) {
+			pool.submit(() -> {
+				start.await();
+				for (int i = 0; i < 50; i++) {
+					if (limiter.tryAcquire("shared").isAllowed()) {
+						allowed.incrementAndGet();
+					}
+				}
+				return null;
+			});
+		}
+		start.countDown();
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+		assertEquals(100, allowed.get());
+	}
+}